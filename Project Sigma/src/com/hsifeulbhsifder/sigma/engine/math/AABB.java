@@ -0,0 +1,213 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * An axis aligned bounding box given by its smallest and largest corner. A
+ * new box is empty (min at +infinity, max at -infinity) so that extending it
+ * by points just works.
+ * <p>
+ * The batch methods work on boxes kept as centers and half extents in two
+ * {@link Vec3fArray}s, which is the form the frustum and ray kernels test
+ * against.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class AABB {
+
+	/** The smallest corner */
+	public final Vec3f min = new Vec3f(Float.POSITIVE_INFINITY);
+	/** The largest corner */
+	public final Vec3f max = new Vec3f(Float.NEGATIVE_INFINITY);
+
+	/** Constructs an empty box */
+	public AABB() {
+	}
+
+	/**
+	 * @param min - The smallest corner. (Not modified)
+	 * @param max - The largest corner. (Not modified)
+	 */
+	public AABB(Vec3f min, Vec3f max) {
+		set(min, max);
+	}
+
+	/**
+	 * @param min - The smallest corner. (Not modified)
+	 * @param max - The largest corner. (Not modified)
+	 * @return This box for chaining
+	 */
+	public AABB set(Vec3f min, Vec3f max) {
+		this.min.set(min);
+		this.max.set(max);
+		return this;
+	}
+
+	/** @return This box for chaining */
+	public AABB set(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		min.set(minX, minY, minZ);
+		max.set(maxX, maxY, maxZ);
+		return this;
+	}
+
+	/** @return This box set to a copy of the given box */
+	public AABB set(AABB other) {
+		return set(other.min, other.max);
+	}
+
+	/**
+	 * Sets this box to the bounds of count packed x, y, z points
+	 * @param count - The amount of points, at least 1
+	 * @return This box for chaining
+	 */
+	public AABB set(float[] points, int offset, int count) {
+		Vec3f.bounds(points, offset, count, min, max);
+		return this;
+	}
+
+	/**
+	 * @param center - The center. (Not modified)
+	 * @param extents - The half size on each axis. (Not modified)
+	 * @return This box for chaining
+	 */
+	public AABB setCenterExtents(Vec3f center, Vec3f extents) {
+		min.set(center).sub(extents);
+		max.set(center).add(extents);
+		return this;
+	}
+
+	/** @return This box made empty */
+	public AABB setEmpty() {
+		min.set(Float.POSITIVE_INFINITY);
+		max.set(Float.NEGATIVE_INFINITY);
+		return this;
+	}
+
+	/** @return true if the box contains no point */
+	public boolean isEmpty() {
+		return min.x() > max.x() || min.y() > max.y() || min.z() > max.z();
+	}
+
+	/** @return This box grown to contain the given point */
+	public AABB extend(float x, float y, float z) {
+		min.set(Math.min(min.x(), x), Math.min(min.y(), y), Math.min(min.z(), z));
+		max.set(Math.max(max.x(), x), Math.max(max.y(), y), Math.max(max.z(), z));
+		return this;
+	}
+
+	/** @return This box grown to contain the given point */
+	public AABB extend(Vec3f point) {
+		return extend(point.x(), point.y(), point.z());
+	}
+
+	/** @return This box grown to contain the given box */
+	public AABB extend(AABB other) {
+		min.min(other.min);
+		max.max(other.max);
+		return this;
+	}
+
+	/** @return the center copied into the given vector */
+	public Vec3f getCenter(Vec3f out) {
+		return out.set(min).add(max).mul(0.5f);
+	}
+
+	/** @return the half size on each axis copied into the given vector */
+	public Vec3f getExtents(Vec3f out) {
+		return out.set(max).sub(min).mul(0.5f);
+	}
+
+	/** @return the size on each axis copied into the given vector */
+	public Vec3f getSize(Vec3f out) {
+		return out.set(max).sub(min);
+	}
+
+	/** @return true if the point is inside or on the box */
+	public boolean contains(float x, float y, float z) {
+		return x >= min.x() && x <= max.x() && y >= min.y() && y <= max.y() && z >= min.z() && z <= max.z();
+	}
+
+	/** @return true if the point is inside or on the box */
+	public boolean contains(Vec3f point) {
+		return contains(point.x(), point.y(), point.z());
+	}
+
+	/** @return true if the given box is completely inside this box */
+	public boolean contains(AABB other) {
+		return other.min.x() >= min.x() && other.max.x() <= max.x() && other.min.y() >= min.y()
+				&& other.max.y() <= max.y() && other.min.z() >= min.z() && other.max.z() <= max.z();
+	}
+
+	/** @return true if the boxes overlap or touch */
+	public boolean intersects(AABB other) {
+		return min.x() <= other.max.x() && max.x() >= other.min.x() && min.y() <= other.max.y()
+				&& max.y() >= other.min.y() && min.z() <= other.max.z() && max.z() >= other.min.z();
+	}
+
+	/** @return true if the sphere overlaps or touches this box */
+	public boolean intersects(Sphere sphere) {
+		final Vec3f c = sphere.center;
+		final float r = sphere.radius;
+		return distance2(c.x(), c.y(), c.z()) <= r * r;
+	}
+
+	/** @return the squared distance from the point to the box, 0 if the point is inside */
+	public float distance2(float x, float y, float z) {
+		final float dx = Math.max(Math.max(min.x() - x, 0f), x - max.x());
+		final float dy = Math.max(Math.max(min.y() - y, 0f), y - max.y());
+		final float dz = Math.max(Math.max(min.z() - z, 0f), z - max.z());
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * Sets this box to the bounds of itself transformed by the given affine
+	 * matrix. Uses Arvo's method: the new center is the transformed center and
+	 * each new half extent is the sum of the old half extents weighted by the
+	 * absolute values of a row of the matrix, which is exact for the box's
+	 * corners and needs no corner loop. An empty box stays empty.
+	 * @param matrix - The matrix. (Not modified)
+	 * @return This box for chaining
+	 */
+	public AABB mul(Mat4f matrix) {
+		if (isEmpty())
+			return this;
+		final float[] m = matrix.m;
+		final float cx = (min.x() + max.x()) * 0.5f, cy = (min.y() + max.y()) * 0.5f, cz = (min.z() + max.z()) * 0.5f;
+		final float ex = (max.x() - min.x()) * 0.5f, ey = (max.y() - min.y()) * 0.5f, ez = (max.z() - min.z()) * 0.5f;
+		final float nx = m[Mat4f.M00] * cx + m[Mat4f.M01] * cy + m[Mat4f.M02] * cz + m[Mat4f.M03];
+		final float ny = m[Mat4f.M10] * cx + m[Mat4f.M11] * cy + m[Mat4f.M12] * cz + m[Mat4f.M13];
+		final float nz = m[Mat4f.M20] * cx + m[Mat4f.M21] * cy + m[Mat4f.M22] * cz + m[Mat4f.M23];
+		final float fx = Math.abs(m[Mat4f.M00]) * ex + Math.abs(m[Mat4f.M01]) * ey + Math.abs(m[Mat4f.M02]) * ez;
+		final float fy = Math.abs(m[Mat4f.M10]) * ex + Math.abs(m[Mat4f.M11]) * ey + Math.abs(m[Mat4f.M12]) * ez;
+		final float fz = Math.abs(m[Mat4f.M20]) * ex + Math.abs(m[Mat4f.M21]) * ey + Math.abs(m[Mat4f.M22]) * ez;
+		return set(nx - fx, ny - fy, nz - fz, nx + fx, ny + fy, nz + fz);
+	}
+
+	/**
+	 * Transforms boxes kept as centers and half extents by the given affine
+	 * matrix in place, the same as {@link #mul(Mat4f)} on each of them.
+	 * @param matrix - The matrix. (Not modified)
+	 * @param centers - The centers, which receive the result
+	 * @param extents - The half extents, which receive the result
+	 */
+	public static void mul(Mat4f matrix, Vec3fArray centers, Vec3fArray extents, int from, int to) {
+		final float[] m = matrix.m;
+		final float m00 = m[Mat4f.M00], m01 = m[Mat4f.M01], m02 = m[Mat4f.M02], m03 = m[Mat4f.M03];
+		final float m10 = m[Mat4f.M10], m11 = m[Mat4f.M11], m12 = m[Mat4f.M12], m13 = m[Mat4f.M13];
+		final float m20 = m[Mat4f.M20], m21 = m[Mat4f.M21], m22 = m[Mat4f.M22], m23 = m[Mat4f.M23];
+		final float a00 = Math.abs(m00), a01 = Math.abs(m01), a02 = Math.abs(m02);
+		final float a10 = Math.abs(m10), a11 = Math.abs(m11), a12 = Math.abs(m12);
+		final float a20 = Math.abs(m20), a21 = Math.abs(m21), a22 = Math.abs(m22);
+		for (int i = from; i < to; i++) {
+			final float cx = centers.x(i), cy = centers.y(i), cz = centers.z(i);
+			final float ex = extents.x(i), ey = extents.y(i), ez = extents.z(i);
+			centers.set(i, m00 * cx + m01 * cy + m02 * cz + m03, m10 * cx + m11 * cy + m12 * cz + m13, m20 * cx + m21
+					* cy + m22 * cz + m23);
+			extents.set(i, a00 * ex + a01 * ey + a02 * ez, a10 * ex + a11 * ey + a12 * ez, a20 * ex + a21 * ey + a22
+					* ez);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "[" + min + " - " + max + "]";
+	}
+}
@@ -0,0 +1,154 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * Moves double precision world positions and transforms next to the camera
+ * and rounds them to floats for rendering. World state is kept in
+ * {@link Vec3d} and {@link Mat4d}; each frame the camera position is set as
+ * the origin and everything drawn is converted relative to it, subtracting in
+ * double precision first. Near the camera, where precision is visible, the
+ * float results are then as exact as near the world origin. The view matrix
+ * only holds the camera rotation, see {@link #getView(Quat, Mat4f)}.
+ * <p>
+ * The bulk methods convert whole ranges of positions or matrices in one pass
+ * over packed arrays, so the double precision world costs one subtract per
+ * component in the update loop. For example:
+ *
+ * <pre>
+ * relative.setOrigin(cameraPosition);
+ * relative.getView(cameraRotation, view);
+ * relative.toRelative(worldMatrices, models, 0, objects);
+ * </pre>
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class CameraRelative {
+
+	/** The world position everything is made relative to */
+	public final Vec3d origin = new Vec3d();
+
+	/** Constructs a converter with the origin at the world origin */
+	public CameraRelative() {
+	}
+
+	/** @param origin - The origin, usually the camera position. (Not modified) */
+	public CameraRelative(Vec3d origin) {
+		setOrigin(origin);
+	}
+
+	/**
+	 * @param origin - The origin, usually the camera position. (Not modified)
+	 * @return This converter for chaining
+	 */
+	public CameraRelative setOrigin(Vec3d origin) {
+		this.origin.set(origin);
+		return this;
+	}
+
+	/** @return This converter for chaining */
+	public CameraRelative setOrigin(double x, double y, double z) {
+		origin.set(x, y, z);
+		return this;
+	}
+
+	/**
+	 * Sets the view matrix of a camera at the origin, which is only the
+	 * inverse of its rotation
+	 * @param orientation - The camera rotation, must be normalized. (Not
+	 *            modified)
+	 * @param out - The matrix which receives the view
+	 * @return The provided matrix for chaining
+	 */
+	public Mat4f getView(Quat orientation, Mat4f out) {
+		return out.set(-orientation.x(), -orientation.y(), -orientation.z(), orientation.w());
+	}
+
+	/**
+	 * @param position - The world position. (Not modified)
+	 * @param out - The vector which receives the position relative to the
+	 *            origin
+	 * @return The provided vector for chaining
+	 */
+	public Vec3f toRelative(Vec3d position, Vec3f out) {
+		return position.sub(origin, out);
+	}
+
+	/**
+	 * @param matrix - The world transform. (Not modified)
+	 * @param out - The matrix which receives the transform relative to the
+	 *            origin
+	 * @return The provided matrix for chaining
+	 */
+	public Mat4f toRelative(Mat4d matrix, Mat4f out) {
+		return matrix.getRelative(origin, out);
+	}
+
+	/**
+	 * Sets the given float matrix to translation * rotation * scale with the
+	 * translation relative to the origin, without going through a
+	 * {@link Mat4d}
+	 * @param position - The world position. (Not modified)
+	 * @param orientation - The rotation, must be normalized. (Not modified)
+	 * @param scale - The scale. (Not modified)
+	 * @param out - The matrix which receives the transform
+	 * @return The provided matrix for chaining
+	 */
+	public Mat4f toRelative(Vec3d position, Quat orientation, Vec3f scale, Mat4f out) {
+		return out.set((float) (position.x() - origin.x()), (float) (position.y() - origin.y()),
+				(float) (position.z() - origin.z()), orientation.x(), orientation.y(), orientation.z(),
+				orientation.w(), scale.x(), scale.y(), scale.z());
+	}
+
+	/**
+	 * Converts count packed x, y, z world positions to positions relative to
+	 * the origin
+	 * @param src - The world positions. (Not modified)
+	 * @param dst - The array which receives the relative positions
+	 */
+	public void toRelative(double[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+		final double ox = origin.x(), oy = origin.y(), oz = origin.z();
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += 3, d += 3) {
+			dst[d] = (float) (src[s] - ox);
+			dst[d + 1] = (float) (src[s + 1] - oy);
+			dst[d + 2] = (float) (src[s + 2] - oz);
+		}
+	}
+
+	/**
+	 * Converts world positions kept as three component arrays to positions
+	 * relative to the origin, for the indices [from, to) of both
+	 * @param x - The world x-components. (Not modified)
+	 * @param y - The world y-components. (Not modified)
+	 * @param z - The world z-components. (Not modified)
+	 * @param out - The array which receives the relative positions
+	 */
+	public void toRelative(double[] x, double[] y, double[] z, Vec3fArray out, int from, int to) {
+		final double ox = origin.x(), oy = origin.y(), oz = origin.z();
+		if (out.x == null) {
+			for (int i = from; i < to; i++)
+				out.set(i, (float) (x[i] - ox), (float) (y[i] - oy), (float) (z[i] - oz));
+			return;
+		}
+		final float[] rx = out.x, ry = out.y, rz = out.z;
+		for (int i = from; i < to; i++)
+			rx[i] = (float) (x[i] - ox);
+		for (int i = from; i < to; i++)
+			ry[i] = (float) (y[i] - oy);
+		for (int i = from; i < to; i++)
+			rz[i] = (float) (z[i] - oz);
+	}
+
+	/**
+	 * Converts world transforms packed 16 doubles apart, the same layout as
+	 * {@link Mat4fArray}, to transforms relative to the origin, for the
+	 * indices [from, to) of both
+	 * @param src - The world transforms. (Not modified)
+	 * @param out - The array which receives the relative transforms
+	 */
+	public void toRelative(double[] src, Mat4fArray out, int from, int to) {
+		final double ox = origin.x(), oy = origin.y(), oz = origin.z();
+		final float[] dst = out.m;
+		for (int i = from; i < to; i++)
+			Mat4d.getRelative(src, i << 4, ox, oy, oz, dst, i << 4);
+	}
+}
@@ -0,0 +1,431 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * A matrix split into translation, rotation and scale, remembered together
+ * with the matrix and version it was taken from so that blending the same
+ * poses again does not decompose them again. For example:
+ *
+ * <pre>
+ * for (int i = 0; i &lt; poses; i++)
+ * 	cache[i].update(pose[i], poseVersion[i]);
+ * Decomposition.blend(cache, weights, poses, out);
+ * </pre>
+ *
+ * Mat4f does not notice writes to its values, so the version of a plain
+ * matrix is kept by its owner and increased whenever the owner changes it;
+ * for a {@link Transform} its own {@link Transform#version()} is used.
+ * <p>
+ * The rotation is the polar decomposition of the upper 3x3 part, the
+ * rotation closest to it, found with the scaled Newton iteration R = (gR +
+ * R^-T / g) / 2 (Higham, "Computing the Polar Decomposition with
+ * Applications"). Unlike normalizing the axes, as
+ * {@link Mat4f#getRotation(Quat, boolean)} does, this stays orthonormal when
+ * the matrix is sheared or has drifted from accumulated products. The scale is
+ * the diagonal of the remaining stretch R^T M. A mirroring matrix gives
+ * negative scales. A singular matrix, such as a bone hidden by scaling an
+ * axis to zero, has no polar decomposition; its rotation is built from the
+ * directions of the columns which are left, and the scale is the column
+ * lengths.
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Decomposition {
+
+	private static final int MAX_ITERATIONS = 16;
+	private static final float TOLERANCE = 1e-6f;
+	/**
+	 * Below this determinant over the product of the column lengths, or this
+	 * length of a column relative to the longest, a matrix is singular
+	 */
+	private static final float SINGULAR = 1e-5f;
+
+	/** The translation */
+	public final Vec3f translation = new Vec3f();
+	/** The rotation, normalized */
+	public final Quat rotation = new Quat(0, 0, 0, 1);
+	/** The scale along each axis of the rotation */
+	public final Vec3f scale = new Vec3f(1f);
+
+	private Object source;
+	private int version;
+	private long hits;
+	private long misses;
+
+	/** Constructs an identity decomposition which is not taken from anything */
+	public Decomposition() {
+	}
+
+	/** @param matrix - The matrix to decompose. (Not modified) */
+	public Decomposition(Mat4f matrix) {
+		set(matrix);
+	}
+
+	/**
+	 * Decomposes the given affine matrix, without caching
+	 * @param matrix - The matrix. (Not modified)
+	 * @return This decomposition for chaining
+	 */
+	public Decomposition set(Mat4f matrix) {
+		final float[] r = TMP.get();
+		decompose(matrix.m, 0, r, 0);
+		translation.set(r[0], r[1], r[2]);
+		rotation.set(r[3], r[4], r[5], r[6]);
+		scale.set(r[7], r[8], r[9]);
+		source = null;
+		return this;
+	}
+
+	/**
+	 * Decomposes the given matrix unless this decomposition was already taken
+	 * from it at the same version
+	 * @param matrix - The matrix. (Not modified)
+	 * @param version - The version of the matrix, which its owner increases
+	 *            whenever it changes
+	 * @return This decomposition for chaining
+	 */
+	public Decomposition update(Mat4f matrix, int version) {
+		if (source == matrix && this.version == version) {
+			hits++;
+			return this;
+		}
+		misses++;
+		set(matrix);
+		source = matrix;
+		this.version = version;
+		return this;
+	}
+
+	/**
+	 * Copies the components of the given transform unless this decomposition
+	 * was already taken from it at its current version
+	 * @param transform - The transform. (Not modified)
+	 * @return This decomposition for chaining
+	 */
+	public Decomposition update(Transform transform) {
+		if (source == transform && version == transform.version()) {
+			hits++;
+			return this;
+		}
+		misses++;
+		transform.getPosition(translation);
+		transform.getRotation(rotation);
+		transform.getScale(scale);
+		source = transform;
+		version = transform.version();
+		return this;
+	}
+
+	/** Forgets where this decomposition was taken from, so the next update decomposes again */
+	public void invalidate() {
+		source = null;
+	}
+
+	/** @return how many updates found this decomposition current */
+	public long hits() {
+		return hits;
+	}
+
+	/** @return how many updates had to decompose */
+	public long misses() {
+		return misses;
+	}
+
+	/** Resets the hit and miss counters */
+	public void resetStats() {
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Composes translation * rotation * scale into the given matrix
+	 * @param out - The matrix which receives the transform
+	 * @return The provided matrix for chaining
+	 */
+	public Mat4f get(Mat4f out) {
+		return out.set(translation, rotation, scale);
+	}
+
+	/**
+	 * Blends decompositions and composes the result into the given matrix.
+	 * Translations and scales are weighted sums; the rotations are summed as
+	 * quaternions flipped into the hemisphere of the first one and
+	 * normalized, which for two poses is a normalized lerp. The weights should
+	 * sum to 1.
+	 * @param poses - The decompositions. (Not modified)
+	 * @param weights - The weight of each decomposition. (Not modified)
+	 * @param count - The amount of decompositions, at least 1
+	 * @param out - The matrix which receives the blend
+	 * @return The provided matrix for chaining
+	 */
+	public static Mat4f blend(Decomposition[] poses, float[] weights, int count, Mat4f out) {
+		final Quat first = poses[0].rotation;
+		float tx = 0f, ty = 0f, tz = 0f, sx = 0f, sy = 0f, sz = 0f;
+		float qx = 0f, qy = 0f, qz = 0f, qw = 0f;
+		for (int i = 0; i < count; i++) {
+			final Decomposition d = poses[i];
+			final float w = weights[i];
+			final Quat q = d.rotation;
+			final float wq = q.dot(first) < 0f ? -w : w;
+			tx += d.translation.x() * w;
+			ty += d.translation.y() * w;
+			tz += d.translation.z() * w;
+			sx += d.scale.x() * w;
+			sy += d.scale.y() * w;
+			sz += d.scale.z() * w;
+			qx += q.x() * wq;
+			qy += q.y() * wq;
+			qz += q.z() * wq;
+			qw += q.w() * wq;
+		}
+		final float len = (float) Math.sqrt(qx * qx + qy * qy + qz * qz + qw * qw);
+		if (len == 0f)
+			return out.set(tx, ty, tz, 0f, 0f, 0f, 1f, sx, sy, sz);
+		final float inv = 1f / len;
+		return out.set(tx, ty, tz, qx * inv, qy * inv, qz * inv, qw * inv, sx, sy, sz);
+	}
+
+	/**
+	 * Decomposes the affine matrices [from, to) of the given array
+	 * @param src - The matrices. (Not modified)
+	 * @param translations - Receives the translations at the same indices
+	 * @param rotations - Receives the rotations as packed x, y, z, w, the one
+	 *            of matrix i starting at index i * 4
+	 * @param scales - Receives the scales at the same indices
+	 */
+	public static void decompose(Mat4fArray src, int from, int to, Vec3fArray translations, float[] rotations,
+			Vec3fArray scales) {
+		final float[] r = TMP.get();
+		final float[] m = src.m;
+		for (int i = from; i < to; i++) {
+			decompose(m, i << 4, r, 0);
+			translations.set(i, r[0], r[1], r[2]);
+			System.arraycopy(r, 3, rotations, i << 2, 4);
+			scales.set(i, r[7], r[8], r[9]);
+		}
+	}
+
+	/**
+	 * Decomposes the affine matrix at m[offset] into 10 floats at dst[dstOffset]:
+	 * the translation, the rotation as x, y, z, w and the scale
+	 */
+	static void decompose(float[] m, int offset, float[] dst, int dstOffset) {
+		final float m00 = m[offset + Mat4f.M00], m01 = m[offset + Mat4f.M01], m02 = m[offset + Mat4f.M02];
+		final float m10 = m[offset + Mat4f.M10], m11 = m[offset + Mat4f.M11], m12 = m[offset + Mat4f.M12];
+		final float m20 = m[offset + Mat4f.M20], m21 = m[offset + Mat4f.M21], m22 = m[offset + Mat4f.M22];
+		float r00 = m00, r01 = m01, r02 = m02;
+		float r10 = m10, r11 = m11, r12 = m12;
+		float r20 = m20, r21 = m21, r22 = m22;
+		final float l0 = (float) Math.sqrt(m00 * m00 + m10 * m10 + m20 * m20);
+		final float l1 = (float) Math.sqrt(m01 * m01 + m11 * m11 + m21 * m21);
+		final float l2 = (float) Math.sqrt(m02 * m02 + m12 * m12 + m22 * m22);
+		float det = r00 * (r11 * r22 - r12 * r21) - r01 * (r10 * r22 - r12 * r20) + r02 * (r10 * r21 - r11 * r20);
+		final float longest = Math.max(l0, Math.max(l1, l2));
+		final boolean singular = Math.abs(det) <= SINGULAR * l0 * l1 * l2
+				|| Math.min(l0, Math.min(l1, l2)) <= SINGULAR * longest;
+		if (singular) {
+			// an axis scaled to (nearly) zero, as used to hide a bone, or
+			// columns which are (nearly) parallel: the iteration needs a well
+			// conditioned inverse, so keep the directions of the columns which
+			// are there and complete the rest
+			final float[] c = AXES.get();
+			c[0] = m00; c[1] = m10; c[2] = m20;
+			c[3] = m01; c[4] = m11; c[5] = m21;
+			c[6] = m02; c[7] = m12; c[8] = m22;
+			orthonormalize(c);
+			r00 = c[0]; r10 = c[1]; r20 = c[2];
+			r01 = c[3]; r11 = c[4]; r21 = c[5];
+			r02 = c[6]; r12 = c[7]; r22 = c[8];
+		} else {
+			for (int k = 0; k < MAX_ITERATIONS; k++) {
+				// the inverse transpose is the cofactor matrix over the determinant
+				final float c00 = r11 * r22 - r12 * r21, c01 = r12 * r20 - r10 * r22, c02 = r10 * r21 - r11 * r20;
+				final float c10 = r02 * r21 - r01 * r22, c11 = r00 * r22 - r02 * r20, c12 = r01 * r20 - r00 * r21;
+				final float c20 = r01 * r12 - r02 * r11, c21 = r02 * r10 - r00 * r12, c22 = r00 * r11 - r01 * r10;
+				det = r00 * c00 + r01 * c01 + r02 * c02;
+				if (det == 0f)
+					break;
+				final float n2 = r00 * r00 + r01 * r01 + r02 * r02 + r10 * r10 + r11 * r11 + r12 * r12 + r20 * r20
+						+ r21 * r21 + r22 * r22;
+				final float c2 = c00 * c00 + c01 * c01 + c02 * c02 + c10 * c10 + c11 * c11 + c12 * c12 + c20 * c20
+						+ c21 * c21 + c22 * c22;
+				// the scaling g = sqrt(|R^-1| / |R|) in the Frobenius norm speeds up the first steps
+				final float g = (float) Math.sqrt(Math.sqrt(c2 / (det * det) / n2));
+				final float a = 0.5f * g, b = 0.5f / (g * det);
+				final float n00 = a * r00 + b * c00, n01 = a * r01 + b * c01, n02 = a * r02 + b * c02;
+				final float n10 = a * r10 + b * c10, n11 = a * r11 + b * c11, n12 = a * r12 + b * c12;
+				final float n20 = a * r20 + b * c20, n21 = a * r21 + b * c21, n22 = a * r22 + b * c22;
+				final float change = Math.abs(n00 - r00) + Math.abs(n01 - r01) + Math.abs(n02 - r02)
+						+ Math.abs(n10 - r10) + Math.abs(n11 - r11) + Math.abs(n12 - r12) + Math.abs(n20 - r20)
+						+ Math.abs(n21 - r21) + Math.abs(n22 - r22);
+				r00 = n00; r01 = n01; r02 = n02;
+				r10 = n10; r11 = n11; r12 = n12;
+				r20 = n20; r21 = n21; r22 = n22;
+				if (change < TOLERANCE)
+					break;
+			}
+			if (det < 0f) {
+				// a mirror: keep a proper rotation and move the sign into the scale
+				r00 = -r00; r01 = -r01; r02 = -r02;
+				r10 = -r10; r11 = -r11; r12 = -r12;
+				r20 = -r20; r21 = -r21; r22 = -r22;
+			}
+		}
+		dst[dstOffset] = m[offset + Mat4f.M03];
+		dst[dstOffset + 1] = m[offset + Mat4f.M13];
+		dst[dstOffset + 2] = m[offset + Mat4f.M23];
+		// the rotation matrix to a quaternion, branching on the largest diagonal term for precision
+		final float trace = r00 + r11 + r22;
+		float x, y, z, w;
+		if (trace > 0f) {
+			final float s = 0.5f / (float) Math.sqrt(trace + 1f);
+			w = 0.25f / s;
+			x = (r21 - r12) * s;
+			y = (r02 - r20) * s;
+			z = (r10 - r01) * s;
+		} else if (r00 > r11 && r00 > r22) {
+			final float s = 2f * (float) Math.sqrt(1f + r00 - r11 - r22);
+			w = (r21 - r12) / s;
+			x = 0.25f * s;
+			y = (r01 + r10) / s;
+			z = (r02 + r20) / s;
+		} else if (r11 > r22) {
+			final float s = 2f * (float) Math.sqrt(1f + r11 - r00 - r22);
+			w = (r02 - r20) / s;
+			x = (r01 + r10) / s;
+			y = 0.25f * s;
+			z = (r12 + r21) / s;
+		} else {
+			final float s = 2f * (float) Math.sqrt(1f + r22 - r00 - r11);
+			w = (r10 - r01) / s;
+			x = (r02 + r20) / s;
+			y = (r12 + r21) / s;
+			z = 0.25f * s;
+		}
+		final float inv = 1f / (float) Math.sqrt(x * x + y * y + z * z + w * w);
+		dst[dstOffset + 3] = x * inv;
+		dst[dstOffset + 4] = y * inv;
+		dst[dstOffset + 5] = z * inv;
+		dst[dstOffset + 6] = w * inv;
+		// the scale is the diagonal of R^T M
+		final float s0 = r00 * m00 + r10 * m10 + r20 * m20;
+		final float s1 = r01 * m01 + r11 * m11 + r21 * m21;
+		final float s2 = r02 * m02 + r12 * m12 + r22 * m22;
+		if (singular) {
+			// the column lengths, so that a sheared singular matrix keeps the
+			// length of each axis; the sign still marks a mirrored axis
+			dst[dstOffset + 7] = s0 < 0f ? -l0 : l0;
+			dst[dstOffset + 8] = s1 < 0f ? -l1 : l1;
+			dst[dstOffset + 9] = s2 < 0f ? -l2 : l2;
+		} else {
+			dst[dstOffset + 7] = s0;
+			dst[dstOffset + 8] = s1;
+			dst[dstOffset + 9] = s2;
+		}
+	}
+
+	/**
+	 * Turns the three columns c[0..2], c[3..5], c[6..8] into a rotation: the
+	 * columns which are not degenerate are orthonormalized with Gram-Schmidt,
+	 * longest first, and the missing axes are completed with cross products.
+	 * A mirrored result is negated, as in the polar decomposition.
+	 */
+	private static void orthonormalize(float[] c) {
+		final float n0 = c[0] * c[0] + c[1] * c[1] + c[2] * c[2];
+		final float n1 = c[3] * c[3] + c[4] * c[4] + c[5] * c[5];
+		final float n2 = c[6] * c[6] + c[7] * c[7] + c[8] * c[8];
+		final float limit = Math.max(n0, Math.max(n1, n2)) * (SINGULAR * SINGULAR);
+		// the column indices by decreasing length
+		int a = 0, b = 1, d = 2;
+		if (n1 > n0) {
+			a = 1;
+			b = 0;
+		}
+		if (n2 > Math.max(n0, n1)) {
+			d = b;
+			b = a;
+			a = 2;
+		} else if (n2 > Math.min(n0, n1)) {
+			d = b;
+			b = 2;
+		}
+		int kept = 0, count = 0;
+		for (int i = 0; i < 3; i++) {
+			final int j = i == 0 ? a : i == 1 ? b : d, o = j * 3;
+			for (int k = 0; k < 3; k++) {
+				if ((kept & (1 << k)) == 0)
+					continue;
+				final int p = k * 3;
+				final float dot = c[o] * c[p] + c[o + 1] * c[p + 1] + c[o + 2] * c[p + 2];
+				c[o] -= dot * c[p];
+				c[o + 1] -= dot * c[p + 1];
+				c[o + 2] -= dot * c[p + 2];
+			}
+			final float n = c[o] * c[o] + c[o + 1] * c[o + 1] + c[o + 2] * c[o + 2];
+			if (n > limit && n > 0f) {
+				final float inv = 1f / (float) Math.sqrt(n);
+				c[o] *= inv;
+				c[o + 1] *= inv;
+				c[o + 2] *= inv;
+				kept |= 1 << j;
+				count++;
+			}
+		}
+		if (count == 0) {
+			c[0] = 1f; c[1] = 0f; c[2] = 0f;
+			c[3] = 0f; c[4] = 1f; c[5] = 0f;
+			c[6] = 0f; c[7] = 0f; c[8] = 1f;
+			return;
+		}
+		if (count == 1) {
+			// any unit vector perpendicular to the kept axis, built from the
+			// coordinate axis least aligned with it
+			final int j = a, o = j * 3, p = ((j + 1) % 3) * 3;
+			final float ax = Math.abs(c[o]), ay = Math.abs(c[o + 1]), az = Math.abs(c[o + 2]);
+			final float ex = ax <= ay && ax <= az ? 1f : 0f;
+			final float ey = ex == 0f && ay <= az ? 1f : 0f;
+			final float ez = ex == 0f && ey == 0f ? 1f : 0f;
+			final float dot = ex * c[o] + ey * c[o + 1] + ez * c[o + 2];
+			final float px = ex - dot * c[o], py = ey - dot * c[o + 1], pz = ez - dot * c[o + 2];
+			final float inv = 1f / (float) Math.sqrt(px * px + py * py + pz * pz);
+			c[p] = px * inv;
+			c[p + 1] = py * inv;
+			c[p + 2] = pz * inv;
+			kept |= 1 << ((j + 1) % 3);
+		}
+		if (kept != 7) {
+			// the one missing axis k is the cross product of the next two, which
+			// makes the result a proper rotation
+			final int k = (kept & 1) == 0 ? 0 : (kept & 2) == 0 ? 1 : 2;
+			final int o = k * 3, p = ((k + 1) % 3) * 3, q = ((k + 2) % 3) * 3;
+			c[o] = c[p + 1] * c[q + 2] - c[p + 2] * c[q + 1];
+			c[o + 1] = c[p + 2] * c[q] - c[p] * c[q + 2];
+			c[o + 2] = c[p] * c[q + 1] - c[p + 1] * c[q];
+			return;
+		}
+		final float det = c[0] * (c[4] * c[8] - c[7] * c[5]) - c[3] * (c[1] * c[8] - c[7] * c[2]) + c[6]
+				* (c[1] * c[5] - c[4] * c[2]);
+		if (det < 0f)
+			for (int i = 0; i < 9; i++)
+				c[i] = -c[i];
+	}
+
+	private static final ThreadLocal<float[]> TMP = new ThreadLocal<float[]>() {
+		@Override
+		protected float[] initialValue() {
+			return new float[10];
+		}
+	};
+
+	private static final ThreadLocal<float[]> AXES = new ThreadLocal<float[]>() {
+		@Override
+		protected float[] initialValue() {
+			return new float[9];
+		}
+	};
+
+	@Override
+	public String toString() {
+		return "[" + translation + " | " + rotation + " | " + scale + "]";
+	}
+}
@@ -0,0 +1,403 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * A unit dual quaternion, a rotation followed by a translation packed as a
+ * real part (the rotation) and a dual part (half the translation times the
+ * rotation). Unlike matrices, dual quaternions can be blended linearly and
+ * renormalized without the shrinking and shearing of linear blend skinning,
+ * which makes them cheap to blend per vertex (Kavan et al., "Skinning with
+ * Dual Quaternions"). Scale cannot be represented and is dropped on
+ * conversion.
+ * <p>
+ * The packed layout used by the batch methods is 8 floats per dual
+ * quaternion: the real x, y, z, w followed by the dual x, y, z, w.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class DualQuat {
+
+	/** The rotation */
+	public final Quat real = new Quat(0, 0, 0, 1);
+	/** Half the translation multiplied by the rotation */
+	public final Quat dual = new Quat(0, 0, 0, 0);
+
+	/** Constructs an identity dual quaternion */
+	public DualQuat() {
+	}
+
+	/**
+	 * @param rotation - The rotation, must be normalized. (Not modified)
+	 * @param translation - The translation. (Not modified)
+	 */
+	public DualQuat(Quat rotation, Vec3f translation) {
+		set(rotation, translation);
+	}
+
+	/** @param other - The dual quaternion to copy. (Not modified) */
+	public DualQuat(DualQuat other) {
+		set(other);
+	}
+
+	/**
+	 * Sets this dual quaternion from a rotation followed by a translation
+	 * @param rotation - The rotation, must be normalized. (Not modified)
+	 * @param translation - The translation. (Not modified)
+	 * @return This dual quaternion for chaining
+	 */
+	public DualQuat set(Quat rotation, Vec3f translation) {
+		return set(rotation.x(), rotation.y(), rotation.z(), rotation.w(),
+				translation.x(), translation.y(), translation.z());
+	}
+
+	/**
+	 * Sets this dual quaternion from a rotation followed by a translation
+	 * @return This dual quaternion for chaining
+	 */
+	public DualQuat set(float qx, float qy, float qz, float qw, float tx,
+			float ty, float tz) {
+		real.set(qx, qy, qz, qw);
+		dual.set(0.5f * (tx * qw + ty * qz - tz * qy), 0.5f * (ty * qw + tz
+				* qx - tx * qz), 0.5f * (tz * qw + tx * qy - ty * qx), -0.5f
+				* (tx * qx + ty * qy + tz * qz));
+		return this;
+	}
+
+	/**
+	 * Copies the given dual quaternion
+	 * @return This dual quaternion for chaining
+	 */
+	public DualQuat set(DualQuat other) {
+		real.set(other.real);
+		dual.set(other.dual);
+		return this;
+	}
+
+	/**
+	 * Sets this dual quaternion from the rotation and translation of the given
+	 * matrix. Any scale in the matrix is removed.
+	 * @param matrix - The matrix. (Not modified)
+	 * @return This dual quaternion for chaining
+	 */
+	public DualQuat set(Mat4f matrix) {
+		final float[] m = matrix.m;
+		final float sx = 1f / Vec3f.length(m[Mat4f.M00], m[Mat4f.M10],
+				m[Mat4f.M20]);
+		final float sy = 1f / Vec3f.length(m[Mat4f.M01], m[Mat4f.M11],
+				m[Mat4f.M21]);
+		final float sz = 1f / Vec3f.length(m[Mat4f.M02], m[Mat4f.M12],
+				m[Mat4f.M22]);
+		real.setFromAxes(m[Mat4f.M00] * sx, m[Mat4f.M01] * sy, m[Mat4f.M02]
+				* sz, m[Mat4f.M10] * sx, m[Mat4f.M11] * sy, m[Mat4f.M12] * sz,
+				m[Mat4f.M20] * sx, m[Mat4f.M21] * sy, m[Mat4f.M22] * sz);
+		real.normalize();
+		return set(real.x(), real.y(), real.z(), real.w(), m[Mat4f.M03],
+				m[Mat4f.M13], m[Mat4f.M23]);
+	}
+
+	/**
+	 * Sets this dual quaternion from the position and rotation of the given
+	 * transform. The scale of the transform is ignored.
+	 * @param transform - The transform. (Not modified)
+	 * @return This dual quaternion for chaining
+	 */
+	public DualQuat set(Transform transform) {
+		final Quat r = transform.getRotation(real);
+		final Vec3f t = transform.getPosition(TMP.get());
+		return set(r.x(), r.y(), r.z(), r.w(), t.x(), t.y(), t.z());
+	}
+
+	/** @return This dual quaternion set to identity */
+	public DualQuat identity() {
+		real.set(0, 0, 0, 1);
+		dual.set(0, 0, 0, 0);
+		return this;
+	}
+
+	/** @return the translation copied into the given vector */
+	public Vec3f getTranslation(Vec3f out) {
+		final float rx = real.x(), ry = real.y(), rz = real.z(), rw = real.w();
+		final float dx = dual.x(), dy = dual.y(), dz = dual.z(), dw = dual.w();
+		return out.set(2f * (dx * rw - dw * rx + ry * dz - rz * dy), 2f * (dy
+				* rw - dw * ry + rz * dx - rx * dz), 2f * (dz * rw - dw * rz
+				+ rx * dy - ry * dx));
+	}
+
+	/** @return the rotation copied into the given quaternion */
+	public Quat getRotation(Quat out) {
+		return out.set(real);
+	}
+
+	/**
+	 * Sets the given matrix to the rigid transform of this dual quaternion
+	 * @param out - The matrix which receives the transform
+	 * @return The provided matrix for chaining
+	 */
+	public Mat4f toMatrix(Mat4f out) {
+		final Vec3f t = getTranslation(TMP.get());
+		return out.set(t.x(), t.y(), t.z(), real.x(), real.y(), real.z(),
+				real.w());
+	}
+
+	/**
+	 * Sets the position and rotation of the given transform to this dual
+	 * quaternion. The scale of the transform is left unchanged.
+	 * @param out - The transform which receives the position and rotation
+	 * @return The provided transform for chaining
+	 */
+	public Transform toTransform(Transform out) {
+		return out.setRotation(real).setPosition(getTranslation(TMP.get()));
+	}
+
+	/**
+	 * Multiplies this dual quaternion with another one in the form of this =
+	 * this * other, so that other is applied first
+	 * @param other - The other dual quaternion. (Not modified)
+	 * @return This dual quaternion for chaining
+	 */
+	public DualQuat mul(DualQuat other) {
+		final float ax = real.x(), ay = real.y(), az = real.z(), aw = real.w();
+		final Quat r = other.real, d = other.dual;
+		// dual = this.real * other.dual + this.dual * other.real
+		dual.mul(r);
+		dual.add(aw * d.x() + ax * d.w() + ay * d.z() - az * d.y(), aw * d.y()
+				+ ay * d.w() + az * d.x() - ax * d.z(), aw * d.z() + az * d.w()
+				+ ax * d.y() - ay * d.x(), aw * d.w() - ax * d.x() - ay * d.y()
+				- az * d.z());
+		real.mul(r);
+		return this;
+	}
+
+	/**
+	 * Conjugates both parts, which for a unit dual quaternion is its inverse
+	 * @return This dual quaternion for chaining
+	 */
+	public DualQuat conjugate() {
+		real.conjugate();
+		dual.conjugate();
+		return this;
+	}
+
+	/**
+	 * Makes this a unit dual quaternion: the real part is normalized and the
+	 * dual part is made orthogonal to it. Zero dual quaternions are left
+	 * untouched.
+	 * @return This dual quaternion for chaining
+	 */
+	public DualQuat normalize() {
+		final float len2 = real.length2();
+		if (len2 == 0f)
+			return this;
+		final float inv = 1f / (float) Math.sqrt(len2);
+		real.mul(inv);
+		dual.mul(inv);
+		final float d = real.dot(dual);
+		dual.sub(real.x() * d, real.y() * d, real.z() * d, real.w() * d);
+		return this;
+	}
+
+	/**
+	 * Transforms the given point by this dual quaternion
+	 * @param point - The point, which receives the result
+	 * @return The provided vector for chaining
+	 */
+	public Vec3f transform(Vec3f point) {
+		final float rx = real.x(), ry = real.y(), rz = real.z(), rw = real.w();
+		final float dx = dual.x(), dy = dual.y(), dz = dual.z(), dw = dual.w();
+		point.rotate(real);
+		return point.add(2f * (dx * rw - dw * rx + ry * dz - rz * dy), 2f * (dy
+				* rw - dw * ry + rz * dx - rx * dz), 2f * (dz * rw - dw * rz
+				+ rx * dy - ry * dx));
+	}
+
+	/**
+	 * Linearly blends dual quaternions and normalizes the result, flipping
+	 * those which lie in the opposite hemisphere of the first so the blend
+	 * takes the shortest path.
+	 * @param src - The dual quaternions. (Not modified)
+	 * @param weights - The weight of each dual quaternion
+	 * @param count - The amount of dual quaternions
+	 * @return This dual quaternion for chaining
+	 */
+	public DualQuat blend(DualQuat[] src, float[] weights, int count) {
+		final Quat pivot = src[0].real;
+		float rx = 0, ry = 0, rz = 0, rw = 0, dx = 0, dy = 0, dz = 0, dw = 0;
+		for (int i = 0; i < count; i++) {
+			final Quat r = src[i].real, d = src[i].dual;
+			final float w = r.dot(pivot) < 0f ? -weights[i] : weights[i];
+			rx += r.x() * w;
+			ry += r.y() * w;
+			rz += r.z() * w;
+			rw += r.w() * w;
+			dx += d.x() * w;
+			dy += d.y() * w;
+			dz += d.z() * w;
+			dw += d.w() * w;
+		}
+		real.set(rx, ry, rz, rw);
+		dual.set(dx, dy, dz, dw);
+		return normalize();
+	}
+
+	/**
+	 * Writes this dual quaternion into the array as 8 floats
+	 * @return The provided array for chaining
+	 */
+	public float[] store(float[] dst, int offset) {
+		dst[offset] = real.x();
+		dst[offset + 1] = real.y();
+		dst[offset + 2] = real.z();
+		dst[offset + 3] = real.w();
+		dst[offset + 4] = dual.x();
+		dst[offset + 5] = dual.y();
+		dst[offset + 6] = dual.z();
+		dst[offset + 7] = dual.w();
+		return dst;
+	}
+
+	/**
+	 * Reads this dual quaternion from 8 floats of the array
+	 * @return This dual quaternion for chaining
+	 */
+	public DualQuat load(float[] src, int offset) {
+		real.set(src[offset], src[offset + 1], src[offset + 2], src[offset + 3]);
+		dual.set(src[offset + 4], src[offset + 5], src[offset + 6],
+				src[offset + 7]);
+		return this;
+	}
+
+	/**
+	 * Blends packed bone dual quaternions for each vertex. Vertex i is
+	 * influenced by the bones indices[i * influences + k] with the weights
+	 * weights[i * influences + k]; a weight of 0 skips the influence. The
+	 * normalized blend of vertex i is written as 8 floats at
+	 * dst[dstOffset + i * 8].
+	 * @param bones - The packed bone dual quaternions. (Not modified)
+	 * @param indices - The bone indices of each vertex. (Not modified)
+	 * @param weights - The bone weights of each vertex. (Not modified)
+	 * @param influences - The amount of bones per vertex
+	 * @param dst - Receives the packed blended dual quaternions
+	 * @param dstOffset - The index of the first blended dual quaternion
+	 * @param count - The amount of vertices
+	 */
+	public static void blend(float[] bones, int[] indices, float[] weights,
+			int influences, float[] dst, int dstOffset, int count) {
+		for (int i = 0, j = 0, d = dstOffset; i < count; i++, j += influences, d += 8)
+			blend(bones, indices, weights, j, influences, dst, d);
+	}
+
+	/**
+	 * Skins interleaved vertices with packed bone dual quaternions, blending
+	 * the bones of each vertex as in
+	 * {@link #blend(float[], int[], float[], int, float[], int, int)} and
+	 * transforming its position and optionally its normal without storing
+	 * the blend. The source and destination may be the same array.
+	 * @param bones - The packed bone dual quaternions. (Not modified)
+	 * @param indices - The bone indices of each vertex. (Not modified)
+	 * @param weights - The bone weights of each vertex. (Not modified)
+	 * @param influences - The amount of bones per vertex
+	 * @param src - The source vertices. (Not modified)
+	 * @param srcOffset - The index of the position of the first source vertex
+	 * @param dst - Receives the skinned vertices
+	 * @param dstOffset - The index of the position of the first destination
+	 *            vertex
+	 * @param stride - The amount of floats between the starts of two vertices
+	 * @param normalOffset - The index of the normal relative to the position,
+	 *            or -1 if there is no normal to rotate
+	 * @param count - The amount of vertices
+	 */
+	public static void skin(float[] bones, int[] indices, float[] weights,
+			int influences, float[] src, int srcOffset, float[] dst,
+			int dstOffset, int stride, int normalOffset, int count) {
+		final float[] q = TMP_BLEND.get();
+		for (int i = 0, j = 0, s = srcOffset, d = dstOffset; i < count; i++, j += influences, s += stride, d += stride) {
+			blend(bones, indices, weights, j, influences, q, 0);
+			final float rx = q[0], ry = q[1], rz = q[2], rw = q[3];
+			final float dx = q[4], dy = q[5], dz = q[6], dw = q[7];
+			float vx = src[s], vy = src[s + 1], vz = src[s + 2];
+			float tx = 2f * (ry * vz - rz * vy);
+			float ty = 2f * (rz * vx - rx * vz);
+			float tz = 2f * (rx * vy - ry * vx);
+			dst[d] = vx + rw * tx + ry * tz - rz * ty + 2f
+					* (dx * rw - dw * rx + ry * dz - rz * dy);
+			dst[d + 1] = vy + rw * ty + rz * tx - rx * tz + 2f
+					* (dy * rw - dw * ry + rz * dx - rx * dz);
+			dst[d + 2] = vz + rw * tz + rx * ty - ry * tx + 2f
+					* (dz * rw - dw * rz + rx * dy - ry * dx);
+			if (normalOffset < 0)
+				continue;
+			final int sn = s + normalOffset, dn = d + normalOffset;
+			vx = src[sn];
+			vy = src[sn + 1];
+			vz = src[sn + 2];
+			tx = 2f * (ry * vz - rz * vy);
+			ty = 2f * (rz * vx - rx * vz);
+			tz = 2f * (rx * vy - ry * vx);
+			dst[dn] = vx + rw * tx + ry * tz - rz * ty;
+			dst[dn + 1] = vy + rw * ty + rz * tx - rx * tz;
+			dst[dn + 2] = vz + rw * tz + rx * ty - ry * tx;
+		}
+	}
+
+	/** Blends the influences of one vertex into 8 floats of dst */
+	private static void blend(float[] bones, int[] indices, float[] weights,
+			int first, int influences, float[] dst, int d) {
+		final int p = indices[first] << 3;
+		final float px = bones[p], py = bones[p + 1], pz = bones[p + 2], pw = bones[p + 3];
+		float rx = 0, ry = 0, rz = 0, rw = 0, dx = 0, dy = 0, dz = 0, dw = 0;
+		for (int k = first; k < first + influences; k++) {
+			float w = weights[k];
+			if (w == 0f)
+				continue;
+			final int b = indices[k] << 3;
+			final float bx = bones[b], by = bones[b + 1], bz = bones[b + 2], bw = bones[b + 3];
+			if (bx * px + by * py + bz * pz + bw * pw < 0f)
+				w = -w;
+			rx += bx * w;
+			ry += by * w;
+			rz += bz * w;
+			rw += bw * w;
+			dx += bones[b + 4] * w;
+			dy += bones[b + 5] * w;
+			dz += bones[b + 6] * w;
+			dw += bones[b + 7] * w;
+		}
+		final float len2 = rx * rx + ry * ry + rz * rz + rw * rw;
+		final float inv = len2 == 0f ? 0f : 1f / (float) Math.sqrt(len2);
+		rx *= inv;
+		ry *= inv;
+		rz *= inv;
+		rw *= inv;
+		dx *= inv;
+		dy *= inv;
+		dz *= inv;
+		dw *= inv;
+		final float dot = rx * dx + ry * dy + rz * dz + rw * dw;
+		dst[d] = rx;
+		dst[d + 1] = ry;
+		dst[d + 2] = rz;
+		dst[d + 3] = rw;
+		dst[d + 4] = dx - rx * dot;
+		dst[d + 5] = dy - ry * dot;
+		dst[d + 6] = dz - rz * dot;
+		dst[d + 7] = dw - rw * dot;
+	}
+
+	private static final ThreadLocal<Vec3f> TMP = new ThreadLocal<Vec3f>() {
+		@Override
+		protected Vec3f initialValue() {
+			return new Vec3f();
+		}
+	};
+
+	private static final ThreadLocal<float[]> TMP_BLEND = new ThreadLocal<float[]>() {
+		@Override
+		protected float[] initialValue() {
+			return new float[8];
+		}
+	};
+
+	@Override
+	public String toString() {
+		return "[" + real + " | " + dual + "]";
+	}
+}
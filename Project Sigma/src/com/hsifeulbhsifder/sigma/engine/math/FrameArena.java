@@ -0,0 +1,251 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import java.util.Arrays;
+
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * A per thread pool of math temporaries which live until the end of the
+ * frame. Instead of copy() or new, code takes what it needs from the arena of
+ * its thread and the game loop calls {@link #reset()} once per frame, which
+ * hands every instance out again in O(1). The pools grow while the game warms
+ * up and are never shrunk, so once the busiest frame has been seen a frame
+ * allocates nothing. For example:
+ *
+ * <pre>
+ * final FrameArena arena = FrameArena.current();
+ * final Vec3f dir = arena.vec3(target).sub(position).normalize();
+ * // ... at the end of the frame
+ * arena.reset();
+ * </pre>
+ *
+ * Instances must not be kept past the reset, since they will be handed out
+ * again. With {@link #debug} set, reset fills every handed out instance with
+ * NaN so a late read shows up in the results, and handing an instance out
+ * again throws if something wrote to it after the reset.
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class FrameArena {
+
+	/**
+	 * Catches use after reset at the cost of a fill and check per instance.
+	 * Volatile so that a change is seen by worker threads already running;
+	 * it is read once per reset.
+	 */
+	static public volatile boolean debug = false;
+
+	private static final ThreadLocal<FrameArena> CURRENT = new ThreadLocal<FrameArena>() {
+		@Override
+		protected FrameArena initialValue() {
+			return new FrameArena();
+		}
+	};
+
+	private Vec2f[] vec2;
+	private Vec3f[] vec3;
+	private Quat[] quat;
+	private Mat4f[] mat4;
+	private int vec2Used, vec3Used, quatUsed, mat4Used;
+	// how many instances of each pool have been filled with NaN by debug resets
+	private int vec2Poisoned, vec3Poisoned, quatPoisoned, mat4Poisoned;
+	private int frame;
+	private int grows;
+
+	/** Constructs an arena with room for a typical frame */
+	public FrameArena() {
+		this(64, 256, 64, 32);
+	}
+
+	/**
+	 * Constructs an arena with the given initial pool sizes
+	 * @param vec2s - The initial amount of {@link Vec2f}
+	 * @param vec3s - The initial amount of {@link Vec3f}
+	 * @param quats - The initial amount of {@link Quat}
+	 * @param mat4s - The initial amount of {@link Mat4f}
+	 */
+	public FrameArena(int vec2s, int vec3s, int quats, int mat4s) {
+		vec2 = fill(new Vec2f[Math.max(vec2s, 1)], 0);
+		vec3 = fill(new Vec3f[Math.max(vec3s, 1)], 0);
+		quat = fill(new Quat[Math.max(quats, 1)], 0);
+		mat4 = fill(new Mat4f[Math.max(mat4s, 1)], 0);
+	}
+
+	/** @return the arena of the calling thread */
+	public static FrameArena current() {
+		return CURRENT.get();
+	}
+
+	/** @return a zero vector which is valid until the next reset */
+	public Vec2f vec2() {
+		if (vec2Used == vec2.length) {
+			vec2 = fill(Arrays.copyOf(vec2, vec2.length << 1), vec2Used);
+			grows++;
+		}
+		final Vec2f v = vec2[vec2Used];
+		if (vec2Used++ < vec2Poisoned)
+			check(v.x(), v.y(), Float.NaN, Float.NaN);
+		return v.set(0f, 0f);
+	}
+
+	/** @return a vector with the given components, valid until the next reset */
+	public Vec2f vec2(float x, float y) {
+		return vec2().set(x, y);
+	}
+
+	/** @return a copy of the given vector, valid until the next reset */
+	public Vec2f vec2(Vec2f v) {
+		return vec2().set(v);
+	}
+
+	/** @return a zero vector which is valid until the next reset */
+	public Vec3f vec3() {
+		if (vec3Used == vec3.length) {
+			vec3 = fill(Arrays.copyOf(vec3, vec3.length << 1), vec3Used);
+			grows++;
+		}
+		final Vec3f v = vec3[vec3Used];
+		if (vec3Used++ < vec3Poisoned)
+			check(v.x(), v.y(), v.z(), Float.NaN);
+		return v.set(0f, 0f, 0f);
+	}
+
+	/** @return a vector with the given components, valid until the next reset */
+	public Vec3f vec3(float x, float y, float z) {
+		return vec3().set(x, y, z);
+	}
+
+	/** @return a copy of the given vector, valid until the next reset */
+	public Vec3f vec3(Vec3f v) {
+		return vec3().set(v);
+	}
+
+	/** @return an identity quaternion which is valid until the next reset */
+	public Quat quat() {
+		if (quatUsed == quat.length) {
+			quat = fill(Arrays.copyOf(quat, quat.length << 1), quatUsed);
+			grows++;
+		}
+		final Quat q = quat[quatUsed];
+		if (quatUsed++ < quatPoisoned)
+			check(q.x(), q.y(), q.z(), q.w());
+		return q.identity();
+	}
+
+	/** @return a copy of the given quaternion, valid until the next reset */
+	public Quat quat(Quat q) {
+		return quat().set(q);
+	}
+
+	/** @return an identity matrix which is valid until the next reset */
+	public Mat4f mat4() {
+		if (mat4Used == mat4.length) {
+			mat4 = fill(Arrays.copyOf(mat4, mat4.length << 1), mat4Used);
+			grows++;
+		}
+		final Mat4f m = mat4[mat4Used];
+		if (mat4Used++ < mat4Poisoned)
+			for (int i = 0; i < 16; i += 4)
+				check(m.m[i], m.m[i + 1], m.m[i + 2], m.m[i + 3]);
+		return m.initIdentity();
+	}
+
+	/** @return a copy of the given matrix, valid until the next reset */
+	public Mat4f mat4(Mat4f m) {
+		return mat4().set(m);
+	}
+
+	/**
+	 * Hands all instances out again. Everything taken from this arena since
+	 * the last reset must no longer be used.
+	 */
+	public void reset() {
+		if (debug) {
+			for (int i = 0; i < vec2Used; i++)
+				vec2[i].set(Float.NaN, Float.NaN);
+			for (int i = 0; i < vec3Used; i++)
+				vec3[i].set(Float.NaN, Float.NaN, Float.NaN);
+			for (int i = 0; i < quatUsed; i++)
+				quat[i].set(Float.NaN, Float.NaN, Float.NaN, Float.NaN);
+			for (int i = 0; i < mat4Used; i++)
+				Arrays.fill(mat4[i].m, Float.NaN);
+			vec2Poisoned = Math.max(vec2Poisoned, vec2Used);
+			vec3Poisoned = Math.max(vec3Poisoned, vec3Used);
+			quatPoisoned = Math.max(quatPoisoned, quatUsed);
+			mat4Poisoned = Math.max(mat4Poisoned, mat4Used);
+		} else {
+			vec2Poisoned = 0;
+			vec3Poisoned = 0;
+			quatPoisoned = 0;
+			mat4Poisoned = 0;
+		}
+		vec2Used = 0;
+		vec3Used = 0;
+		quatUsed = 0;
+		mat4Used = 0;
+		frame++;
+	}
+
+	/** @return how many times reset has been called */
+	public int frame() {
+		return frame;
+	}
+
+	/**
+	 * @return how many times a pool had to grow. Once this stops increasing
+	 *         the frames no longer allocate.
+	 */
+	public int grows() {
+		return grows;
+	}
+
+	/** @return the amount of {@link Vec2f} handed out since the last reset */
+	public int vec2Used() {
+		return vec2Used;
+	}
+
+	/** @return the amount of {@link Vec3f} handed out since the last reset */
+	public int vec3Used() {
+		return vec3Used;
+	}
+
+	/** @return the amount of {@link Quat} handed out since the last reset */
+	public int quatUsed() {
+		return quatUsed;
+	}
+
+	/** @return the amount of {@link Mat4f} handed out since the last reset */
+	public int mat4Used() {
+		return mat4Used;
+	}
+
+	private void check(float x, float y, float z, float w) {
+		if (x == x || y == y || z == z || w == w)
+			throw new SigmaException("frame arena instance used after reset");
+	}
+
+	private static Vec2f[] fill(Vec2f[] a, int from) {
+		for (int i = from; i < a.length; i++)
+			a[i] = new Vec2f();
+		return a;
+	}
+
+	private static Vec3f[] fill(Vec3f[] a, int from) {
+		for (int i = from; i < a.length; i++)
+			a[i] = new Vec3f();
+		return a;
+	}
+
+	private static Quat[] fill(Quat[] a, int from) {
+		for (int i = from; i < a.length; i++)
+			a[i] = new Quat();
+		return a;
+	}
+
+	private static Mat4f[] fill(Mat4f[] a, int from) {
+		for (int i = from; i < a.length; i++)
+			a[i] = new Mat4f();
+		return a;
+	}
+}
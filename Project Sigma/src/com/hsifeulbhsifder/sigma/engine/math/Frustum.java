@@ -0,0 +1,243 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * A view frustum given by six planes whose normals point inwards. The planes
+ * are extracted from a view projection matrix with the method of Gribb and
+ * Hartmann, "Fast Extraction of Viewing Frustum Planes from the
+ * World-View-Projection Matrix", for OpenGL clip space where -w <= z <= w.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Frustum {
+
+	/** The volume is completely outside the frustum */
+	public static final int OUTSIDE = 0;
+	/** The volume crosses at least one plane of the frustum */
+	public static final int INTERSECTS = 1;
+	/** The volume is completely inside the frustum */
+	public static final int INSIDE = 2;
+
+	public static final int LEFT = 0;
+	public static final int RIGHT = 1;
+	public static final int BOTTOM = 2;
+	public static final int TOP = 3;
+	public static final int NEAR = 4;
+	public static final int FAR = 5;
+
+	/** The planes, indexed by {@link #LEFT} through {@link #FAR} */
+	public final Plane[] planes = { new Plane(), new Plane(), new Plane(), new Plane(), new Plane(), new Plane() };
+
+	/** Constructs a frustum with all planes facing +y through the origin */
+	public Frustum() {
+	}
+
+	/** @param viewProjection - The view projection matrix. (Not modified) */
+	public Frustum(Mat4f viewProjection) {
+		set(viewProjection);
+	}
+
+	/**
+	 * Extracts the planes from the given matrix. With a projection matrix the
+	 * planes are in view space, with a view projection matrix in world space
+	 * and with a model view projection matrix in model space.
+	 * @param matrix - The matrix. (Not modified)
+	 * @return This frustum for chaining
+	 */
+	public Frustum set(Mat4f matrix) {
+		final float[] m = matrix.m;
+		final float r00 = m[Mat4f.M00], r01 = m[Mat4f.M01], r02 = m[Mat4f.M02], r03 = m[Mat4f.M03];
+		final float r10 = m[Mat4f.M10], r11 = m[Mat4f.M11], r12 = m[Mat4f.M12], r13 = m[Mat4f.M13];
+		final float r20 = m[Mat4f.M20], r21 = m[Mat4f.M21], r22 = m[Mat4f.M22], r23 = m[Mat4f.M23];
+		final float r30 = m[Mat4f.M30], r31 = m[Mat4f.M31], r32 = m[Mat4f.M32], r33 = m[Mat4f.M33];
+		planes[LEFT].set(r30 + r00, r31 + r01, r32 + r02, r33 + r03);
+		planes[RIGHT].set(r30 - r00, r31 - r01, r32 - r02, r33 - r03);
+		planes[BOTTOM].set(r30 + r10, r31 + r11, r32 + r12, r33 + r13);
+		planes[TOP].set(r30 - r10, r31 - r11, r32 - r12, r33 - r13);
+		planes[NEAR].set(r30 + r20, r31 + r21, r32 + r22, r33 + r23);
+		planes[FAR].set(r30 - r20, r31 - r21, r32 - r22, r33 - r23);
+		return this;
+	}
+
+	/** @return This frustum set to a copy of the given frustum */
+	public Frustum set(Frustum other) {
+		for (int i = 0; i < 6; i++)
+			planes[i].set(other.planes[i]);
+		return this;
+	}
+
+	/** @return true if the point is inside or on the frustum */
+	public boolean contains(float x, float y, float z) {
+		for (int i = 0; i < 6; i++)
+			if (planes[i].distance(x, y, z) < 0f)
+				return false;
+		return true;
+	}
+
+	/** @return true if the point is inside or on the frustum */
+	public boolean contains(Vec3f point) {
+		return contains(point.x(), point.y(), point.z());
+	}
+
+	/**
+	 * Classifies the sphere against the frustum. Like all plane based tests
+	 * this is conservative: a volume near a corner of the frustum may be
+	 * reported as intersecting although it is outside.
+	 * @return {@link #OUTSIDE}, {@link #INTERSECTS} or {@link #INSIDE}
+	 */
+	public int test(Sphere sphere) {
+		final Vec3f c = sphere.center;
+		final float r = sphere.radius;
+		int result = INSIDE;
+		for (int i = 0; i < 6; i++) {
+			final float d = planes[i].distance(c.x(), c.y(), c.z());
+			if (d < -r)
+				return OUTSIDE;
+			if (d < r)
+				result = INTERSECTS;
+		}
+		return result;
+	}
+
+	/**
+	 * Classifies the box against the frustum, see {@link #test(Sphere)}
+	 * @return {@link #OUTSIDE}, {@link #INTERSECTS} or {@link #INSIDE}
+	 */
+	public int test(AABB box) {
+		final float cx = (box.min.x() + box.max.x()) * 0.5f, cy = (box.min.y() + box.max.y()) * 0.5f;
+		final float cz = (box.min.z() + box.max.z()) * 0.5f;
+		final float ex = (box.max.x() - box.min.x()) * 0.5f, ey = (box.max.y() - box.min.y()) * 0.5f;
+		final float ez = (box.max.z() - box.min.z()) * 0.5f;
+		int result = INSIDE;
+		for (int i = 0; i < 6; i++) {
+			final Vec3f n = planes[i].normal;
+			final float d = planes[i].distance(cx, cy, cz);
+			final float r = Math.abs(n.x()) * ex + Math.abs(n.y()) * ey + Math.abs(n.z()) * ez;
+			if (d < -r)
+				return OUTSIDE;
+			if (d < r)
+				result = INTERSECTS;
+		}
+		return result;
+	}
+
+	/**
+	 * Classifies the box against the frustum, see {@link #test(Sphere)}
+	 * @return {@link #OUTSIDE}, {@link #INTERSECTS} or {@link #INSIDE}
+	 */
+	public int test(OBB box) {
+		final Vec3f c = box.center;
+		final float ex = box.extents.x(), ey = box.extents.y(), ez = box.extents.z();
+		int result = INSIDE;
+		for (int i = 0; i < 6; i++) {
+			final Vec3f n = planes[i].normal;
+			final float d = planes[i].distance(c);
+			final float r = Math.abs(n.dot(box.axisX)) * ex + Math.abs(n.dot(box.axisY)) * ey
+					+ Math.abs(n.dot(box.axisZ)) * ez;
+			if (d < -r)
+				return OUTSIDE;
+			if (d < r)
+				result = INTERSECTS;
+		}
+		return result;
+	}
+
+	/** @return true if the sphere is at least partly inside the frustum */
+	public boolean intersects(Sphere sphere) {
+		return test(sphere) != OUTSIDE;
+	}
+
+	/** @return true if the box is at least partly inside the frustum */
+	public boolean intersects(AABB box) {
+		return test(box) != OUTSIDE;
+	}
+
+	/** @return true if the box is at least partly inside the frustum */
+	public boolean intersects(OBB box) {
+		return test(box) != OUTSIDE;
+	}
+
+	/**
+	 * Tests spheres kept as centers and radii against the frustum.
+	 * @param centers - The centers of the spheres. (Not modified)
+	 * @param radii - The radii of the spheres. (Not modified)
+	 * @param visible - Receives at visible[i] whether sphere i is at least
+	 *            partly inside
+	 * @return the amount of visible spheres
+	 */
+	public int testSpheres(Vec3fArray centers, float[] radii, int from, int to, boolean[] visible) {
+		final float[] p = TMP.get();
+		packPlanes(p);
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			final float x = centers.x(i), y = centers.y(i), z = centers.z(i), r = -radii[i];
+			boolean in = true;
+			for (int j = 0; j < 24; j += 4)
+				if (p[j] * x + p[j + 1] * y + p[j + 2] * z + p[j + 3] < r) {
+					in = false;
+					break;
+				}
+			visible[i] = in;
+			if (in)
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Tests axis aligned boxes kept as centers and half extents against the
+	 * frustum.
+	 * @param centers - The centers of the boxes. (Not modified)
+	 * @param extents - The half extents of the boxes. (Not modified)
+	 * @param visible - Receives at visible[i] whether box i is at least partly
+	 *            inside
+	 * @return the amount of visible boxes
+	 */
+	public int testBoxes(Vec3fArray centers, Vec3fArray extents, int from, int to, boolean[] visible) {
+		final float[] p = TMP.get();
+		packPlanes(p);
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			final float x = centers.x(i), y = centers.y(i), z = centers.z(i);
+			final float ex = extents.x(i), ey = extents.y(i), ez = extents.z(i);
+			boolean in = true;
+			for (int j = 0; j < 24; j += 4) {
+				final float a = p[j], b = p[j + 1], c = p[j + 2];
+				final float r = Math.abs(a) * ex + Math.abs(b) * ey + Math.abs(c) * ez;
+				if (a * x + b * y + c * z + p[j + 3] < -r) {
+					in = false;
+					break;
+				}
+			}
+			visible[i] = in;
+			if (in)
+				count++;
+		}
+		return count;
+	}
+
+	/** Copies the plane equations into 24 floats as a, b, c, d per plane */
+	void packPlanes(float[] dst) {
+		for (int i = 0, j = 0; i < 6; i++, j += 4) {
+			final Plane plane = planes[i];
+			dst[j] = plane.normal.x();
+			dst[j + 1] = plane.normal.y();
+			dst[j + 2] = plane.normal.z();
+			dst[j + 3] = plane.d;
+		}
+	}
+
+	private static final ThreadLocal<float[]> TMP = new ThreadLocal<float[]>() {
+		@Override
+		protected float[] initialValue() {
+			return new float[24];
+		}
+	};
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < 6; i++)
+			builder.append(i == 0 ? "" : ", ").append(planes[i]);
+		return builder.append("]").toString();
+	}
+}
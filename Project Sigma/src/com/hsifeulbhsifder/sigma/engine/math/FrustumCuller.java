@@ -0,0 +1,237 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * Culls large sets of axis aligned boxes, kept as centers and half extents in
+ * two {@link Vec3fArray}s, against a {@link Frustum} and writes the indices
+ * of the visible boxes into a compacted list. For example:
+ *
+ * <pre>
+ * culler.setViewProjection(viewProjection);
+ * final int count = culler.cull(centers, extents, 0, objects, visible);
+ * for (int i = 0; i &lt; count; i++)
+ * 	draw(visible[i]);
+ * </pre>
+ *
+ * The boxes are processed in blocks. For each block every plane is run over
+ * all boxes without branches, or'ing together the bits of the signed
+ * distances so that the sign bit of a box ends up set if any plane culls it.
+ * This gives straight loops over the component arrays that the JIT can
+ * vectorize. The indices are then compacted by always writing and only
+ * advancing on visible boxes. Direct backed arrays fall back to testing one
+ * box at a time.
+ * <p>
+ * Large ranges can optionally be split into chunks across the common fork-join
+ * pool, see {@link #setChunkSize(int)}. The visible list is the same, in
+ * ascending order, either way.
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class FrustumCuller {
+
+	private static final int BLOCK = 256;
+
+	/** The frustum the boxes are culled against */
+	public final Frustum frustum = new Frustum();
+
+	private final float[] planes = new float[42];
+	private int[] counts = new int[0];
+	private int chunkSize;
+	private long tested;
+	private long culled;
+
+	/** Constructs a culler which runs on the calling thread */
+	public FrustumCuller() {
+	}
+
+	/**
+	 * Extracts the frustum planes from the given matrix, see
+	 * {@link Frustum#set(Mat4f)}
+	 * @param viewProjection - The view projection matrix. (Not modified)
+	 * @return This culler for chaining
+	 */
+	public FrustumCuller setViewProjection(Mat4f viewProjection) {
+		frustum.set(viewProjection);
+		return this;
+	}
+
+	/**
+	 * Sets the amount of boxes each parallel task culls. Ranges larger than
+	 * this are split across the common fork-join pool; 0 culls everything on
+	 * the calling thread.
+	 * @param chunkSize - The amount of boxes per task, or 0
+	 * @return This culler for chaining
+	 */
+	public FrustumCuller setChunkSize(int chunkSize) {
+		if (chunkSize < 0)
+			throw new SigmaException("negative chunk size");
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	/** @return the amount of boxes per parallel task, 0 if culling is not parallel */
+	public int chunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Culls the boxes in [from, to) against the frustum.
+	 * @param centers - The centers of the boxes. (Not modified)
+	 * @param extents - The half extents of the boxes. (Not modified)
+	 * @param visible - Receives the indices of the boxes which are at least
+	 *            partly inside, in ascending order. Must hold to - from
+	 *            indices.
+	 * @return the amount of visible boxes
+	 */
+	public int cull(Vec3fArray centers, Vec3fArray extents, int from, int to, int[] visible) {
+		if (visible.length < to - from)
+			throw new SigmaException("visible list too short");
+		packPlanes();
+		final int count;
+		if (centers.x == null || extents.x == null)
+			count = cullDirect(centers, extents, from, to, visible);
+		else {
+			if (chunkSize > 0 && to - from > chunkSize) {
+				final int chunks = (to - from + chunkSize - 1) / chunkSize;
+				if (counts.length < chunks)
+					counts = new int[chunks];
+				ForkJoinPool.commonPool().invoke(new Chunks(centers, extents, from, to, visible, 0, chunks));
+				// move the visible indices of each chunk down behind the previous ones
+				int n = counts[0];
+				for (int c = 1; c < chunks; c++) {
+					System.arraycopy(visible, c * chunkSize, visible, n, counts[c]);
+					n += counts[c];
+				}
+				count = n;
+			} else
+				count = cull(planes, centers, extents, from, to, visible, 0);
+		}
+		tested += to - from;
+		culled += to - from - count;
+		return count;
+	}
+
+	/** @return the amount of boxes tested since the last {@link #resetStats()} */
+	public long tested() {
+		return tested;
+	}
+
+	/** @return the amount of boxes culled since the last {@link #resetStats()} */
+	public long culled() {
+		return culled;
+	}
+
+	/** @return the amount of boxes found visible since the last {@link #resetStats()} */
+	public long visible() {
+		return tested - culled;
+	}
+
+	/** Resets the tested and culled counters, usually once per frame */
+	public void resetStats() {
+		tested = 0;
+		culled = 0;
+	}
+
+	/**
+	 * Packs the plane equations as a, b, c, d per plane followed by |a|, |b|,
+	 * |c| per plane
+	 */
+	private void packPlanes() {
+		frustum.packPlanes(planes);
+		for (int j = 0, k = 24; j < 24; j += 4, k += 3) {
+			planes[k] = Math.abs(planes[j]);
+			planes[k + 1] = Math.abs(planes[j + 1]);
+			planes[k + 2] = Math.abs(planes[j + 2]);
+		}
+	}
+
+	/** Culls [from, to) into visible starting at out, returns the amount of visible boxes */
+	private static int cull(float[] p, Vec3fArray centers, Vec3fArray extents, int from, int to, int[] visible,
+			int out) {
+		final int[] s = TMP.get();
+		final float[] cx = centers.x, cy = centers.y, cz = centers.z;
+		final float[] ex = extents.x, ey = extents.y, ez = extents.z;
+		final int first = out;
+		for (int start = from; start < to; start += BLOCK) {
+			final int n = Math.min(BLOCK, to - start);
+			for (int i = 0; i < n; i++)
+				s[i] = 0;
+			for (int j = 0, k = 24; j < 24; j += 4, k += 3) {
+				final float a = p[j], b = p[j + 1], c = p[j + 2], d = p[j + 3];
+				final float aa = p[k], ab = p[k + 1], ac = p[k + 2];
+				for (int i = 0, o = start; i < n; i++, o++) {
+					s[i] |= Float.floatToRawIntBits(a * cx[o] + b * cy[o] + c * cz[o] + d + aa * ex[o] + ab * ey[o] + ac
+							* ez[o]);
+				}
+			}
+			for (int i = 0; i < n; i++) {
+				visible[out] = start + i;
+				out += ~s[i] >>> 31;
+			}
+		}
+		return out - first;
+	}
+
+	/** Culls boxes in direct buffers one at a time, stopping at the first plane which culls them */
+	private int cullDirect(Vec3fArray centers, Vec3fArray extents, int from, int to, int[] visible) {
+		final float[] p = planes;
+		int n = 0;
+		for (int i = from; i < to; i++) {
+			final float x = centers.x(i), y = centers.y(i), z = centers.z(i);
+			final float ex = extents.x(i), ey = extents.y(i), ez = extents.z(i);
+			int j = 0, k = 24;
+			while (j < 24 && p[j] * x + p[j + 1] * y + p[j + 2] * z + p[j + 3] + p[k] * ex + p[k + 1] * ey + p[k + 2]
+					* ez >= 0f) {
+				j += 4;
+				k += 3;
+			}
+			if (j == 24)
+				visible[n++] = i;
+		}
+		return n;
+	}
+
+	private static final ThreadLocal<int[]> TMP = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[BLOCK];
+		}
+	};
+
+	@SuppressWarnings("serial")
+	private class Chunks extends RecursiveAction {
+
+		private final Vec3fArray centers, extents;
+		private final int from, to;
+		private final int[] visible;
+		private final int first, last;
+
+		Chunks(Vec3fArray centers, Vec3fArray extents, int from, int to, int[] visible, int first, int last) {
+			this.centers = centers;
+			this.extents = extents;
+			this.from = from;
+			this.to = to;
+			this.visible = visible;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+			if (last - first > 1) {
+				final int mid = (first + last) >>> 1;
+				invokeAll(new Chunks(centers, extents, from, to, visible, first, mid), new Chunks(centers, extents,
+						from, to, visible, mid, last));
+				return;
+			}
+			final int start = from + first * chunkSize;
+			final int end = Math.min(start + chunkSize, to);
+			counts[first] = cull(planes, centers, extents, start, end, visible, first * chunkSize);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * A double precision companion of {@link Mat4f} for world transforms in large
+ * worlds, column major and indexed with the same constants
+ * {@link Mat4f#M00} through {@link Mat4f#M33}. It only covers building and
+ * chaining transforms; for rendering a matrix is moved next to the camera and
+ * rounded to floats with {@link #getRelative(Vec3d, Mat4f)}, which keeps
+ * the precision the float matrix would lose far from the origin.
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Mat4d {
+
+	/** The values, in column major order */
+	public final double[] m = new double[16];
+
+	/** Constructs an identity matrix */
+	public Mat4d() {
+		initIdentity();
+	}
+
+	/** @param matrix - The matrix to copy. (Not modified) */
+	public Mat4d(Mat4d matrix) {
+		set(matrix);
+	}
+
+	/** @param matrix - The float matrix to copy. (Not modified) */
+	public Mat4d(Mat4f matrix) {
+		set(matrix);
+	}
+
+	/** @return This matrix set to the identity */
+	public Mat4d initIdentity() {
+		for (int i = 0; i < 16; i++)
+			m[i] = 0.0;
+		m[Mat4f.M00] = 1.0;
+		m[Mat4f.M11] = 1.0;
+		m[Mat4f.M22] = 1.0;
+		m[Mat4f.M33] = 1.0;
+		return this;
+	}
+
+	/** @return This matrix set to a copy of the given matrix */
+	public Mat4d set(Mat4d matrix) {
+		System.arraycopy(matrix.m, 0, m, 0, 16);
+		return this;
+	}
+
+	/** @return This matrix set to the given float matrix */
+	public Mat4d set(Mat4f matrix) {
+		final float[] src = matrix.m;
+		for (int i = 0; i < 16; i++)
+			m[i] = src[i];
+		return this;
+	}
+
+	/**
+	 * Sets the matrix to translation * rotation * scale
+	 * @param position - The translation. (Not modified)
+	 * @param orientation - The rotation, must be normalized. (Not modified)
+	 * @param scale - The scale. (Not modified)
+	 * @return This matrix for chaining
+	 */
+	public Mat4d set(Vec3d position, Quat orientation, Vec3f scale) {
+		final double qx = orientation.x(), qy = orientation.y(), qz = orientation.z(), qw = orientation.w();
+		final double xs = qx * 2.0, ys = qy * 2.0, zs = qz * 2.0;
+		final double wx = qw * xs, wy = qw * ys, wz = qw * zs;
+		final double xx = qx * xs, xy = qx * ys, xz = qx * zs;
+		final double yy = qy * ys, yz = qy * zs, zz = qz * zs;
+		final double sx = scale.x(), sy = scale.y(), sz = scale.z();
+		m[Mat4f.M00] = sx * (1.0 - (yy + zz));
+		m[Mat4f.M01] = sy * (xy - wz);
+		m[Mat4f.M02] = sz * (xz + wy);
+		m[Mat4f.M03] = position.x();
+		m[Mat4f.M10] = sx * (xy + wz);
+		m[Mat4f.M11] = sy * (1.0 - (xx + zz));
+		m[Mat4f.M12] = sz * (yz - wx);
+		m[Mat4f.M13] = position.y();
+		m[Mat4f.M20] = sx * (xz - wy);
+		m[Mat4f.M21] = sy * (yz + wx);
+		m[Mat4f.M22] = sz * (1.0 - (xx + yy));
+		m[Mat4f.M23] = position.z();
+		m[Mat4f.M30] = 0.0;
+		m[Mat4f.M31] = 0.0;
+		m[Mat4f.M32] = 0.0;
+		m[Mat4f.M33] = 1.0;
+		return this;
+	}
+
+	/** @return This matrix with its translation set to the given vector */
+	public Mat4d setTranslation(Vec3d position) {
+		m[Mat4f.M03] = position.x();
+		m[Mat4f.M13] = position.y();
+		m[Mat4f.M23] = position.z();
+		return this;
+	}
+
+	/** @return the translation copied into the given vector */
+	public Vec3d getTranslation(Vec3d out) {
+		return out.set(m[Mat4f.M03], m[Mat4f.M13], m[Mat4f.M23]);
+	}
+
+	/**
+	 * Multiplies this matrix with the given matrix, this = this * matrix
+	 * @param matrix - The matrix. (Not modified)
+	 * @return This matrix for chaining
+	 */
+	public Mat4d mul(Mat4d matrix) {
+		mul(m, matrix.m);
+		return this;
+	}
+
+	/**
+	 * Multiplies the matrix a with matrix b, storing the result in a, see
+	 * {@link Mat4f#mul(float[], float[])}
+	 * @param a - The first matrix, which receives the result
+	 * @param b - The second matrix. (Not modified)
+	 */
+	public static void mul(double[] a, double[] b) {
+		final double a00 = a[0], a10 = a[1], a20 = a[2], a30 = a[3];
+		final double a01 = a[4], a11 = a[5], a21 = a[6], a31 = a[7];
+		final double a02 = a[8], a12 = a[9], a22 = a[10], a32 = a[11];
+		final double a03 = a[12], a13 = a[13], a23 = a[14], a33 = a[15];
+		for (int c = 0; c < 16; c += 4) {
+			final double b0 = b[c], b1 = b[c + 1], b2 = b[c + 2], b3 = b[c + 3];
+			a[c] = a00 * b0 + a01 * b1 + a02 * b2 + a03 * b3;
+			a[c + 1] = a10 * b0 + a11 * b1 + a12 * b2 + a13 * b3;
+			a[c + 2] = a20 * b0 + a21 * b1 + a22 * b2 + a23 * b3;
+			a[c + 3] = a30 * b0 + a31 * b1 + a32 * b2 + a33 * b3;
+		}
+	}
+
+	/**
+	 * Transforms the given point by this affine matrix
+	 * @param point - The point, which receives the result
+	 * @return The provided vector for chaining
+	 */
+	public Vec3d transform(Vec3d point) {
+		final double x = point.x(), y = point.y(), z = point.z();
+		return point.set(m[Mat4f.M00] * x + m[Mat4f.M01] * y + m[Mat4f.M02] * z + m[Mat4f.M03], m[Mat4f.M10] * x
+				+ m[Mat4f.M11] * y + m[Mat4f.M12] * z + m[Mat4f.M13], m[Mat4f.M20] * x + m[Mat4f.M21] * y
+				+ m[Mat4f.M22] * z + m[Mat4f.M23]);
+	}
+
+	/**
+	 * Rounds this matrix to floats, which loses precision in the translation
+	 * far from the origin, see {@link #getRelative(Vec3d, Mat4f)}
+	 * @param out - The matrix which receives the values
+	 * @return The provided matrix for chaining
+	 */
+	public Mat4f get(Mat4f out) {
+		final float[] dst = out.m;
+		for (int i = 0; i < 16; i++)
+			dst[i] = (float) m[i];
+		return out;
+	}
+
+	/**
+	 * Sets the given float matrix to this matrix followed by a translation by
+	 * -origin, which is done in double precision before rounding so that the
+	 * result is as precise near the origin as any float matrix
+	 * @param origin - The new origin, usually the camera position. (Not
+	 *            modified)
+	 * @param out - The matrix which receives the result
+	 * @return The provided matrix for chaining
+	 */
+	public Mat4f getRelative(Vec3d origin, Mat4f out) {
+		getRelative(m, 0, origin.x(), origin.y(), origin.z(), out.m, 0);
+		return out;
+	}
+
+	/** Writes translate(-ox, -oy, -oz) * src[srcOffset] rounded to floats at dst[dstOffset] */
+	static void getRelative(double[] src, int srcOffset, double ox, double oy, double oz, float[] dst,
+			int dstOffset) {
+		for (int c = 0; c < 16; c += 4) {
+			final int s = srcOffset + c, d = dstOffset + c;
+			final double w = src[s + 3];
+			dst[d] = (float) (src[s] - ox * w);
+			dst[d + 1] = (float) (src[s + 1] - oy * w);
+			dst[d + 2] = (float) (src[s + 2] - oz * w);
+			dst[d + 3] = (float) w;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "[" + m[Mat4f.M00] + "|" + m[Mat4f.M01] + "|" + m[Mat4f.M02] + "|" + m[Mat4f.M03] + "]\n" + "["
+				+ m[Mat4f.M10] + "|" + m[Mat4f.M11] + "|" + m[Mat4f.M12] + "|" + m[Mat4f.M13] + "]\n" + "["
+				+ m[Mat4f.M20] + "|" + m[Mat4f.M21] + "|" + m[Mat4f.M22] + "|" + m[Mat4f.M23] + "]\n" + "["
+				+ m[Mat4f.M30] + "|" + m[Mat4f.M31] + "|" + m[Mat4f.M32] + "|" + m[Mat4f.M33] + "]\n";
+	}
+}
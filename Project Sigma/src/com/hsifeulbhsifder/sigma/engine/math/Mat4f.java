@@ -1,5 +1,8 @@
 package com.hsifeulbhsifder.sigma.engine.math;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
 import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
 
 /**
@@ -111,7 +114,6 @@ public class Mat4f {
 	 */
 	public static final int M33 = 15;
 
-	public final float t[] = new float[16];
 	public final float m[] = new float[16];
 
 	/** Constructs an identity matrix */
@@ -783,10 +785,6 @@ public class Mat4f {
 		return this;
 	}
 
-	private static final Mat4f rx = new Mat4f().blank();
-	private static final Mat4f ry = new Mat4f().blank();
-	private static final Mat4f rz = new Mat4f().blank();
-
 	/**
 	 * Creates a matrix that is rotated from given x, y, z values,
 	 * 
@@ -804,34 +802,49 @@ public class Mat4f {
 		y = (float) MC.toR(y);
 		z = (float) MC.toR(z);
 
-		rz.m[M00] = (float) MC.cos(z);
-		rz.m[M01] = -(float) MC.sin(z);
-		rz.m[M10] = (float) MC.sin(z);
-		rz.m[M11] = (float) MC.cos(z);
-		rz.m[M22] = 1;
-		rz.m[M33] = 1;
-
-		rx.m[M00] = 1;
-		rx.m[M11] = (float) MC.cos(x);
-		rx.m[M12] = -(float) MC.sin(x);
-		rx.m[M21] = (float) MC.sin(x);
-		rx.m[M22] = (float) MC.cos(x);
-		rx.m[M33] = 1;
-
-		ry.m[M00] = (float) MC.cos(y);
-		ry.m[M02] = -(float) MC.sin(y);
-		ry.m[M11] = 1;
-		ry.m[M20] = (float) MC.sin(y);
-		ry.m[M22] = (float) MC.cos(y);
-		ry.m[M33] = 1;
-
-		System.arraycopy(rz.mul(ry.mul(rx)).m, 0, m, 0, 16);
+		final float cx = MC.cos(x), sx = MC.sin(x);
+		final float cy = MC.cos(y), sy = MC.sin(y);
+		final float cz = MC.cos(z), sz = MC.sin(z);
+
+		// rz * ry * rx, expanded so no intermediate matrices are needed
+		blank();
+		m[M00] = cz * cy;
+		m[M01] = cz * (-sy * sx) - sz * cx;
+		m[M02] = cz * (-sy * cx) + sz * sx;
+		m[M10] = sz * cy;
+		m[M11] = sz * (-sy * sx) + cz * cx;
+		m[M12] = sz * (-sy * cx) - cz * sx;
+		m[M20] = sy;
+		m[M21] = cy * sx;
+		m[M22] = cy * cx;
+		m[M33] = 1;
 
 		return this;
 	}
 
-	private static Quat quat1 = new Quat();
-	private static Quat quat2 = new Quat();
+	/**
+	 * Per thread scratch objects, so that matrices may be built concurrently
+	 * from multiple threads without sharing any temporaries.
+	 */
+	private static final class Tmp {
+		final Quat quat1 = new Quat();
+		final Quat quat2 = new Quat();
+		final Vec3f l_vez = new Vec3f();
+		final Vec3f l_vex = new Vec3f();
+		final Vec3f l_vey = new Vec3f();
+		final Vec3f tmpVec = new Vec3f();
+		final Vec3f right = new Vec3f();
+		final Vec3f tmpForward = new Vec3f();
+		final Vec3f tmpUp = new Vec3f();
+		final Mat4f tmpMat = new Mat4f();
+	}
+
+	private static final ThreadLocal<Tmp> TMP = new ThreadLocal<Tmp>() {
+		@Override
+		protected Tmp initialValue() {
+			return new Tmp();
+		}
+	};
 
 	/**
 	 * Sets the matrix to a rotation matrix around the given axis.
@@ -847,7 +860,7 @@ public class Mat4f {
 			initIdentity();
 			return this;
 		}
-		return set(quat1.set(axis, degrees));
+		return set(TMP.get().quat1.set(axis, degrees));
 	}
 
 	/**
@@ -864,7 +877,7 @@ public class Mat4f {
 			initIdentity();
 			return this;
 		}
-		return set(quat1.setFromAxisRad(axis, radians));
+		return set(TMP.get().quat1.setFromAxisRad(axis, radians));
 	}
 
 	/**
@@ -886,7 +899,7 @@ public class Mat4f {
 			initIdentity();
 			return this;
 		}
-		return set(quat1.setFromAxis(axisX, axisY, axisZ, degrees));
+		return set(TMP.get().quat1.setFromAxis(axisX, axisY, axisZ, degrees));
 	}
 
 	/**
@@ -908,7 +921,7 @@ public class Mat4f {
 			initIdentity();
 			return this;
 		}
-		return set(quat1.setFromAxisRad(axisX, axisY, axisZ, radians));
+		return set(TMP.get().quat1.setFromAxisRad(axisX, axisY, axisZ, radians));
 	}
 
 	/**
@@ -921,7 +934,7 @@ public class Mat4f {
 	 * @return This matrix for the purpose of chaining methods together
 	 */
 	public Mat4f setToRotation(final Vec3f v1, final Vec3f v2) {
-		return set(quat1.setFromCross(v1, v2));
+		return set(TMP.get().quat1.setFromCross(v1, v2));
 	}
 
 	/**
@@ -943,7 +956,7 @@ public class Mat4f {
 	 */
 	public Mat4f setToRotation(final float x1, final float y1, final float z1,
 			final float x2, final float y2, final float z2) {
-		return set(quat1.setFromCross(x1, y1, z1, x2, y2, z2));
+		return set(TMP.get().quat1.setFromCross(x1, y1, z1, x2, y2, z2));
 	}
 
 	/**
@@ -958,8 +971,7 @@ public class Mat4f {
 	 * @return This matrix
 	 */
 	public Mat4f setFromEulerAngles(float yaw, float pitch, float roll) {
-		quat1.setEulerAngles(yaw, pitch, roll);
-		return set(quat1);
+		return set(TMP.get().quat1.setEulerAngles(yaw, pitch, roll));
 	}
 
 	/**
@@ -1032,10 +1044,6 @@ public class Mat4f {
 		return this;
 	}
 
-	static final Vec3f l_vez = new Vec3f();
-	static final Vec3f l_vex = new Vec3f();
-	static final Vec3f l_vey = new Vec3f();
-
 	/**
 	 * Sets the matrix to a look at matrix with a direction and an up vector.
 	 * Multiply with a translation matrix to get a camera model view matrix.
@@ -1047,27 +1055,25 @@ public class Mat4f {
 	 * @return This matrix for the purpose of chaining methods together.
 	 */
 	public Mat4f setToLookAt(Vec3f direction, Vec3f up) {
-		l_vez.set(direction).normalize();
-		l_vex.set(direction).normalize();
-		l_vex.cross(up).normalize();
-		l_vey.set(l_vex).cross(l_vez).normalize();
+		final Tmp tmp = TMP.get();
+		tmp.l_vez.set(direction).normalize();
+		tmp.l_vex.set(direction).normalize();
+		tmp.l_vex.cross(up).normalize();
+		tmp.l_vey.set(tmp.l_vex).cross(tmp.l_vez).normalize();
 		initIdentity();
-		m[M00] = l_vex.x();
-		m[M01] = l_vex.y();
-		m[M02] = l_vex.z();
-		m[M10] = l_vey.x();
-		m[M11] = l_vey.y();
-		m[M12] = l_vey.z();
-		m[M20] = -l_vez.x();
-		m[M21] = -l_vez.y();
-		m[M22] = -l_vez.z();
+		m[M00] = tmp.l_vex.x();
+		m[M01] = tmp.l_vex.y();
+		m[M02] = tmp.l_vex.z();
+		m[M10] = tmp.l_vey.x();
+		m[M11] = tmp.l_vey.y();
+		m[M12] = tmp.l_vey.z();
+		m[M20] = -tmp.l_vez.x();
+		m[M21] = -tmp.l_vez.y();
+		m[M22] = -tmp.l_vez.z();
 
 		return this;
 	}
 
-	static final Vec3f tmpVec = new Vec3f();
-	static final Mat4f tmpMat = new Mat4f();
-
 	/**
 	 * Sets this matrix to a look at matrix with the given position, target and
 	 * up vector.
@@ -1081,24 +1087,22 @@ public class Mat4f {
 	 * @return This matrix
 	 */
 	public Mat4f setToLookAt(Vec3f position, Vec3f target, Vec3f up) {
-		tmpVec.set(target).sub(position);
-		setToLookAt(tmpVec, up);
-		this.mul(tmpMat.setToTranslation(-position.x(), -position.y(),
+		final Tmp tmp = TMP.get();
+		tmp.tmpVec.set(target).sub(position);
+		setToLookAt(tmp.tmpVec, up);
+		this.mul(tmp.tmpMat.setToTranslation(-position.x(), -position.y(),
 				-position.z()));
 
 		return this;
 	}
 
-	static final Vec3f right = new Vec3f();
-	static final Vec3f tmpForward = new Vec3f();
-	static final Vec3f tmpUp = new Vec3f();
-
 	public Mat4f setToWorld(Vec3f position, Vec3f forward, Vec3f up) {
-		tmpForward.set(forward).normalize();
-		right.set(tmpForward).cross(up).normalize();
-		tmpUp.set(right).cross(tmpForward).normalize();
+		final Tmp tmp = TMP.get();
+		tmp.tmpForward.set(forward).normalize();
+		tmp.right.set(tmp.tmpForward).cross(up).normalize();
+		tmp.tmpUp.set(tmp.right).cross(tmp.tmpForward).normalize();
 
-		this.set(right, tmpUp, tmpForward.mul(-1), position);
+		this.set(tmp.right, tmp.tmpUp, tmp.tmpForward.mul(-1), position);
 		return this;
 	}
 
@@ -1130,21 +1134,22 @@ public class Mat4f {
 	 * @return This matrix for chaining
 	 */
 	public Mat4f average(Mat4f other, float w) {
+		final Tmp tmp = TMP.get();
 
-		getScale(tmpVec);
-		other.getScale(tmpForward);
+		getScale(tmp.tmpVec);
+		other.getScale(tmp.tmpForward);
 
-		getRotation(quat1);
-		other.getRotation(quat2);
+		getRotation(tmp.quat1);
+		other.getRotation(tmp.quat2);
 
-		getTranslation(tmpUp);
-		other.getTranslation(right);
+		getTranslation(tmp.tmpUp);
+		other.getTranslation(tmp.right);
 
-		setToScaling(tmpVec.mul(w).add(tmpForward.mul(1 - w)));
+		setToScaling(tmp.tmpVec.mul(w).add(tmp.tmpForward.mul(1 - w)));
 
-		rotate(quat1.slerp(quat2, 1 - w));
+		rotate(tmp.quat1.slerp(tmp.quat2, 1 - w));
 
-		setTranslation(tmpUp.mul(w).add(right.mul(1 - w)));
+		setTranslation(tmp.tmpUp.mul(w).add(tmp.right.mul(1 - w)));
 
 		return this;
 	}
@@ -1159,27 +1164,28 @@ public class Mat4f {
 	 * @return This matrix for chaining
 	 */
 	public Mat4f avg(Mat4f[] t) {
+		final Tmp tmp = TMP.get();
 		final float w = 1.0f / t.length;
 
-		tmpVec.set(t[0].getScale(tmpUp).mul(w));
+		tmp.tmpVec.set(t[0].getScale(tmp.tmpUp).mul(w));
 
-		quat1.set(t[0].getRotation(quat2).exp(w));
+		tmp.quat1.set(t[0].getRotation(tmp.quat2).exp(w));
 
-		tmpForward.set(t[0].getTranslation(tmpUp).mul(w));
+		tmp.tmpForward.set(t[0].getTranslation(tmp.tmpUp).mul(w));
 
 		for (int i = 1; i < t.length; i++) {
 
-			tmpVec.add(t[i].getScale(tmpUp).mul(w));
+			tmp.tmpVec.add(t[i].getScale(tmp.tmpUp).mul(w));
 
-			quat1.mul(t[i].getRotation(quat2).exp(w));
+			tmp.quat1.mul(t[i].getRotation(tmp.quat2).exp(w));
 
-			tmpForward.add(t[i].getTranslation(tmpUp).mul(w));
+			tmp.tmpForward.add(t[i].getTranslation(tmp.tmpUp).mul(w));
 		}
-		quat1.normalize();
+		tmp.quat1.normalize();
 
-		setToScaling(tmpVec);
-		rotate(quat1);
-		setTranslation(tmpForward);
+		setToScaling(tmp.tmpVec);
+		rotate(tmp.quat1);
+		setTranslation(tmp.tmpForward);
 
 		return this;
 	}
@@ -1197,26 +1203,27 @@ public class Mat4f {
 	 * @return This matrix for chaining
 	 */
 	public Mat4f avg(Mat4f[] t, float[] w) {
+		final Tmp tmp = TMP.get();
 
-		tmpVec.set(t[0].getScale(tmpUp).mul(w[0]));
+		tmp.tmpVec.set(t[0].getScale(tmp.tmpUp).mul(w[0]));
 
-		quat1.set(t[0].getRotation(quat2).exp(w[0]));
+		tmp.quat1.set(t[0].getRotation(tmp.quat2).exp(w[0]));
 
-		tmpForward.set(t[0].getTranslation(tmpUp).mul(w[0]));
+		tmp.tmpForward.set(t[0].getTranslation(tmp.tmpUp).mul(w[0]));
 
 		for (int i = 1; i < t.length; i++) {
 
-			tmpVec.add(t[i].getScale(tmpUp).mul(w[i]));
+			tmp.tmpVec.add(t[i].getScale(tmp.tmpUp).mul(w[i]));
 
-			quat1.mul(t[i].getRotation(quat2).exp(w[i]));
+			tmp.quat1.mul(t[i].getRotation(tmp.quat2).exp(w[i]));
 
-			tmpForward.add(t[i].getTranslation(tmpUp).mul(w[i]));
+			tmp.tmpForward.add(t[i].getTranslation(tmp.tmpUp).mul(w[i]));
 		}
-		quat1.normalize();
+		tmp.quat1.normalize();
 
-		setToScaling(tmpVec);
-		rotate(quat1);
-		setTranslation(tmpForward);
+		setToScaling(tmp.tmpVec);
+		rotate(tmp.quat1);
+		setTranslation(tmp.tmpForward);
 
 		return this;
 	}
@@ -1302,24 +1309,14 @@ public class Mat4f {
 		return inverse().transpose();
 	}
 
+	/**
+	 * Transposes this matrix.
+	 * 
+	 * @return This matrix for the purpose of chaining methods together.
+	 */
 	public Mat4f transpose() {
-		t[M00] = m[M00];
-		t[M01] = m[M10];
-		t[M02] = m[M20];
-		t[M03] = m[M30];
-		t[M10] = m[M01];
-		t[M11] = m[M11];
-		t[M12] = m[M21];
-		t[M13] = m[M31];
-		t[M20] = m[M02];
-		t[M21] = m[M12];
-		t[M22] = m[M22];
-		t[M23] = m[M32];
-		t[M30] = m[M03];
-		t[M31] = m[M13];
-		t[M32] = m[M23];
-		t[M33] = m[M33];
-		return set(t);
+		transpose(m, 0, m, 0);
+		return this;
 	}
 
 	/**
@@ -1347,27 +1344,27 @@ public class Mat4f {
 	 * @return This matrix for the purpose of chaining methods together.
 	 */
 	public Mat4f translate(float x, float y, float z) {
-		t[M00] = 1;
-		t[M01] = 0;
-		t[M02] = 0;
-		t[M03] = x;
-		t[M10] = 0;
-		t[M11] = 1;
-		t[M12] = 0;
-		t[M13] = y;
-		t[M20] = 0;
-		t[M21] = 0;
-		t[M22] = 1;
-		t[M23] = z;
-		t[M30] = 0;
-		t[M31] = 0;
-		t[M32] = 0;
-		t[M33] = 1;
-
-		mul(m, t);
+		translate(m, 0, x, y, z);
 		return this;
 	}
 
+	/**
+	 * Postmultiplies the matrix at the given offset by a translation matrix.
+	 * 
+	 * @param m
+	 *            - the array holding the matrix
+	 * @param offset
+	 *            - the index of the matrix in m
+	 * @see #translate(float, float, float)
+	 */
+	public static void translate(float[] m, int offset, float x, float y,
+			float z) {
+		// only the 4th column changes, so it is accumulated in place
+		for (int i = offset; i < offset + 4; i++)
+			m[M03 + i] = m[M00 + i] * x + m[M01 + i] * y + m[M02 + i] * z
+					+ m[M03 + i];
+	}
+
 	/**
 	 * Postmultiplies this matrix with a (counter-clockwise) rotation matrix.
 	 * Postmultiplication is also used by OpenGL ES' 1.x
@@ -1382,8 +1379,7 @@ public class Mat4f {
 	public Mat4f rotate(Vec3f axis, float degrees) {
 		if (degrees == 0)
 			return this;
-		quat1.set(axis, degrees);
-		return rotate(quat1);
+		return rotate(TMP.get().quat1.set(axis, degrees));
 	}
 
 	/**
@@ -1400,8 +1396,7 @@ public class Mat4f {
 	public Mat4f rotateRad(Vec3f axis, float radians) {
 		if (radians == 0)
 			return this;
-		quat1.setFromAxisRad(axis, radians);
-		return rotate(quat1);
+		return rotate(TMP.get().quat1.setFromAxisRad(axis, radians));
 	}
 
 	/**
@@ -1422,8 +1417,7 @@ public class Mat4f {
 	public Mat4f rotate(float axisX, float axisY, float axisZ, float degrees) {
 		if (degrees == 0)
 			return this;
-		quat1.setFromAxis(axisX, axisY, axisZ, degrees);
-		return rotate(quat1);
+		return rotate(TMP.get().quat1.setFromAxis(axisX, axisY, axisZ, degrees));
 	}
 
 	/**
@@ -1444,8 +1438,7 @@ public class Mat4f {
 	public Mat4f rotateRad(float axisX, float axisY, float axisZ, float radians) {
 		if (radians == 0)
 			return this;
-		quat1.setFromAxisRad(axisX, axisY, axisZ, radians);
-		return rotate(quat1);
+		return rotate(TMP.get().quat1.setFromAxisRad(axisX, axisY, axisZ, radians));
 	}
 
 	/**
@@ -1458,11 +1451,39 @@ public class Mat4f {
 	 * @return This matrix for the purpose of chaining methods together.
 	 */
 	public Mat4f rotate(Quat rotation) {
-		rotation.toMatrix(t);
-		mul(m, t);
+		rotate(m, 0, rotation.x(), rotation.y(), rotation.z(), rotation.w());
 		return this;
 	}
 
+	/**
+	 * Postmultiplies the matrix at the given offset with the rotation matrix
+	 * of the given normalized quaternion.
+	 * 
+	 * @param m
+	 *            - the array holding the matrix
+	 * @param offset
+	 *            - the index of the matrix in m
+	 * @see #rotate(Quat)
+	 */
+	public static void rotate(float[] m, int offset, float x, float y,
+			float z, float w) {
+		final float xx = x * x, xy = x * y, xz = x * z, xw = x * w;
+		final float yy = y * y, yz = y * z, yw = y * w;
+		final float zz = z * z, zw = z * w;
+		final float r00 = 1 - 2 * (yy + zz), r01 = 2 * (xy - zw), r02 = 2 * (xz + yw);
+		final float r10 = 2 * (xy + zw), r11 = 1 - 2 * (xx + zz), r12 = 2 * (yz - xw);
+		final float r20 = 2 * (xz - yw), r21 = 2 * (yz + xw), r22 = 1 - 2 * (xx + yy);
+
+		// the rotation leaves the 4th column alone, so each row only mixes
+		// its first three entries
+		for (int i = offset; i < offset + 4; i++) {
+			final float a0 = m[M00 + i], a1 = m[M01 + i], a2 = m[M02 + i];
+			m[M00 + i] = a0 * r00 + a1 * r10 + a2 * r20;
+			m[M01 + i] = a0 * r01 + a1 * r11 + a2 * r21;
+			m[M02 + i] = a0 * r02 + a1 * r12 + a2 * r22;
+		}
+	}
+
 	/**
 	 * Postmultiplies this matrix by the rotation between two vectors.
 	 * 
@@ -1473,7 +1494,7 @@ public class Mat4f {
 	 * @return This matrix for the purpose of chaining methods together
 	 */
 	public Mat4f rotate(final Vec3f v1, final Vec3f v2) {
-		return rotate(quat1.setFromCross(v1, v2));
+		return rotate(TMP.get().quat1.setFromCross(v1, v2));
 	}
 
 	/**
@@ -1489,27 +1510,28 @@ public class Mat4f {
 	 * @return This matrix for the purpose of chaining methods together.
 	 */
 	public Mat4f scale(float scaleX, float scaleY, float scaleZ) {
-		t[M00] = scaleX;
-		t[M01] = 0;
-		t[M02] = 0;
-		t[M03] = 0;
-		t[M10] = 0;
-		t[M11] = scaleY;
-		t[M12] = 0;
-		t[M13] = 0;
-		t[M20] = 0;
-		t[M21] = 0;
-		t[M22] = scaleZ;
-		t[M23] = 0;
-		t[M30] = 0;
-		t[M31] = 0;
-		t[M32] = 0;
-		t[M33] = 1;
-
-		mul(m, t);
+		scale(m, 0, scaleX, scaleY, scaleZ);
 		return this;
 	}
 
+	/**
+	 * Postmultiplies the matrix at the given offset with a scale matrix.
+	 * 
+	 * @param m
+	 *            - the array holding the matrix
+	 * @param offset
+	 *            - the index of the matrix in m
+	 * @see #scale(float, float, float)
+	 */
+	public static void scale(float[] m, int offset, float scaleX,
+			float scaleY, float scaleZ) {
+		for (int i = offset; i < offset + 4; i++) {
+			m[M00 + i] *= scaleX;
+			m[M01 + i] *= scaleY;
+			m[M02 + i] *= scaleZ;
+		}
+	}
+
 	/**
 	 * Copies the 4x3 upper-left sub-matrix into float array. The destination
 	 * array is supposed to be a column major matrix.
@@ -1532,6 +1554,179 @@ public class Mat4f {
 		dst[11] = m[M23];
 	}
 
+	/**
+	 * Transforms packed points by this matrix, treating it as an affine
+	 * transform. The bottom row is ignored, so no w divide takes place. The
+	 * source and destination may be the same array.
+	 * 
+	 * @param src
+	 *            - The source points, packed as x, y, z
+	 * @param srcOffset
+	 *            - The index of the first source point
+	 * @param srcStride
+	 *            - The amount of floats between the starts of two source
+	 *            points, at least 3
+	 * @param dst
+	 *            - The destination for the transformed points
+	 * @param dstOffset
+	 *            - The index of the first destination point
+	 * @param dstStride
+	 *            - The amount of floats between the starts of two
+	 *            destination points, at least 3
+	 * @param count
+	 *            - The amount of points to transform
+	 */
+	public void transformPoints(float[] src, int srcOffset, int srcStride,
+			float[] dst, int dstOffset, int dstStride, int count) {
+		final float m00 = m[M00], m01 = m[M01], m02 = m[M02], m03 = m[M03];
+		final float m10 = m[M10], m11 = m[M11], m12 = m[M12], m13 = m[M13];
+		final float m20 = m[M20], m21 = m[M21], m22 = m[M22], m23 = m[M23];
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+			final float x = src[s], y = src[s + 1], z = src[s + 2];
+			dst[d] = m00 * x + m01 * y + m02 * z + m03;
+			dst[d + 1] = m10 * x + m11 * y + m12 * z + m13;
+			dst[d + 2] = m20 * x + m21 * y + m22 * z + m23;
+		}
+	}
+
+	/**
+	 * Transforms packed points by this matrix, including the perspective
+	 * divide by the resulting w component. Use this for projection matrices,
+	 * {@link #transformPoints(float[], int, int, float[], int, int, int)} is
+	 * cheaper for affine ones. The source and destination may be the same
+	 * array.
+	 * 
+	 * @param src
+	 *            - The source points, packed as x, y, z
+	 * @param srcOffset
+	 *            - The index of the first source point
+	 * @param srcStride
+	 *            - The amount of floats between the starts of two source
+	 *            points, at least 3
+	 * @param dst
+	 *            - The destination for the transformed points
+	 * @param dstOffset
+	 *            - The index of the first destination point
+	 * @param dstStride
+	 *            - The amount of floats between the starts of two
+	 *            destination points, at least 3
+	 * @param count
+	 *            - The amount of points to transform
+	 */
+	public void projectPoints(float[] src, int srcOffset, int srcStride,
+			float[] dst, int dstOffset, int dstStride, int count) {
+		final float m00 = m[M00], m01 = m[M01], m02 = m[M02], m03 = m[M03];
+		final float m10 = m[M10], m11 = m[M11], m12 = m[M12], m13 = m[M13];
+		final float m20 = m[M20], m21 = m[M21], m22 = m[M22], m23 = m[M23];
+		final float m30 = m[M30], m31 = m[M31], m32 = m[M32], m33 = m[M33];
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+			final float x = src[s], y = src[s + 1], z = src[s + 2];
+			final float invW = 1f / (m30 * x + m31 * y + m32 * z + m33);
+			dst[d] = (m00 * x + m01 * y + m02 * z + m03) * invW;
+			dst[d + 1] = (m10 * x + m11 * y + m12 * z + m13) * invW;
+			dst[d + 2] = (m20 * x + m21 * y + m22 * z + m23) * invW;
+		}
+	}
+
+	/**
+	 * Transforms packed directions by the upper left 3x3 part of this
+	 * matrix, so translation is not applied. The source and destination may
+	 * be the same array.
+	 * 
+	 * @param src
+	 *            - The source directions, packed as x, y, z
+	 * @param srcOffset
+	 *            - The index of the first source direction
+	 * @param srcStride
+	 *            - The amount of floats between the starts of two source
+	 *            directions, at least 3
+	 * @param dst
+	 *            - The destination for the transformed directions
+	 * @param dstOffset
+	 *            - The index of the first destination direction
+	 * @param dstStride
+	 *            - The amount of floats between the starts of two
+	 *            destination directions, at least 3
+	 * @param count
+	 *            - The amount of directions to transform
+	 */
+	public void transformDirections(float[] src, int srcOffset,
+			int srcStride, float[] dst, int dstOffset, int dstStride, int count) {
+		final float m00 = m[M00], m01 = m[M01], m02 = m[M02];
+		final float m10 = m[M10], m11 = m[M11], m12 = m[M12];
+		final float m20 = m[M20], m21 = m[M21], m22 = m[M22];
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+			final float x = src[s], y = src[s + 1], z = src[s + 2];
+			dst[d] = m00 * x + m01 * y + m02 * z;
+			dst[d + 1] = m10 * x + m11 * y + m12 * z;
+			dst[d + 2] = m20 * x + m21 * y + m22 * z;
+		}
+	}
+
+	/**
+	 * Transforms packed points by this matrix, treating it as an affine
+	 * transform. Offsets and strides are in floats and use absolute buffer
+	 * indices, the buffer positions are not changed.
+	 * 
+	 * @see #transformPoints(float[], int, int, float[], int, int, int)
+	 */
+	public void transformPoints(FloatBuffer src, int srcOffset,
+			int srcStride, FloatBuffer dst, int dstOffset, int dstStride,
+			int count) {
+		final float m00 = m[M00], m01 = m[M01], m02 = m[M02], m03 = m[M03];
+		final float m10 = m[M10], m11 = m[M11], m12 = m[M12], m13 = m[M13];
+		final float m20 = m[M20], m21 = m[M21], m22 = m[M22], m23 = m[M23];
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+			final float x = src.get(s), y = src.get(s + 1), z = src.get(s + 2);
+			dst.put(d, m00 * x + m01 * y + m02 * z + m03);
+			dst.put(d + 1, m10 * x + m11 * y + m12 * z + m13);
+			dst.put(d + 2, m20 * x + m21 * y + m22 * z + m23);
+		}
+	}
+
+	/**
+	 * Transforms packed points by this matrix, including the perspective
+	 * divide. Offsets and strides are in floats and use absolute buffer
+	 * indices, the buffer positions are not changed.
+	 * 
+	 * @see #projectPoints(float[], int, int, float[], int, int, int)
+	 */
+	public void projectPoints(FloatBuffer src, int srcOffset, int srcStride,
+			FloatBuffer dst, int dstOffset, int dstStride, int count) {
+		final float m00 = m[M00], m01 = m[M01], m02 = m[M02], m03 = m[M03];
+		final float m10 = m[M10], m11 = m[M11], m12 = m[M12], m13 = m[M13];
+		final float m20 = m[M20], m21 = m[M21], m22 = m[M22], m23 = m[M23];
+		final float m30 = m[M30], m31 = m[M31], m32 = m[M32], m33 = m[M33];
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+			final float x = src.get(s), y = src.get(s + 1), z = src.get(s + 2);
+			final float invW = 1f / (m30 * x + m31 * y + m32 * z + m33);
+			dst.put(d, (m00 * x + m01 * y + m02 * z + m03) * invW);
+			dst.put(d + 1, (m10 * x + m11 * y + m12 * z + m13) * invW);
+			dst.put(d + 2, (m20 * x + m21 * y + m22 * z + m23) * invW);
+		}
+	}
+
+	/**
+	 * Transforms packed directions by the upper left 3x3 part of this
+	 * matrix. Offsets and strides are in floats and use absolute buffer
+	 * indices, the buffer positions are not changed.
+	 * 
+	 * @see #transformDirections(float[], int, int, float[], int, int, int)
+	 */
+	public void transformDirections(FloatBuffer src, int srcOffset,
+			int srcStride, FloatBuffer dst, int dstOffset, int dstStride,
+			int count) {
+		final float m00 = m[M00], m01 = m[M01], m02 = m[M02];
+		final float m10 = m[M10], m11 = m[M11], m12 = m[M12];
+		final float m20 = m[M20], m21 = m[M21], m22 = m[M22];
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+			final float x = src.get(s), y = src.get(s + 1), z = src.get(s + 2);
+			dst.put(d, m00 * x + m01 * y + m02 * z);
+			dst.put(d + 1, m10 * x + m11 * y + m12 * z);
+			dst.put(d + 2, m20 * x + m21 * y + m22 * z);
+		}
+	}
+
 	/**
 	 * Inverts the matrix. Stores the result in this matrix.
 	 * 
@@ -1540,87 +1735,8 @@ public class Mat4f {
 	 *             if the matrix is singular (not invertible)
 	 */
 	public Mat4f inverse() {
-		float l_det = m[M30] * m[M21] * m[M12] * m[M03] - m[M20] * m[M31]
-				* m[M12] * m[M03] - m[M30] * m[M11] * m[M22] * m[M03] + m[M10]
-				* m[M31] * m[M22] * m[M03] + m[M20] * m[M11] * m[M32] * m[M03]
-				- m[M10] * m[M21] * m[M32] * m[M03] - m[M30] * m[M21] * m[M02]
-				* m[M13] + m[M20] * m[M31] * m[M02] * m[M13] + m[M30] * m[M01]
-				* m[M22] * m[M13] - m[M00] * m[M31] * m[M22] * m[M13] - m[M20]
-				* m[M01] * m[M32] * m[M13] + m[M00] * m[M21] * m[M32] * m[M13]
-				+ m[M30] * m[M11] * m[M02] * m[M23] - m[M10] * m[M31] * m[M02]
-				* m[M23] - m[M30] * m[M01] * m[M12] * m[M23] + m[M00] * m[M31]
-				* m[M12] * m[M23] + m[M10] * m[M01] * m[M32] * m[M23] - m[M00]
-				* m[M11] * m[M32] * m[M23] - m[M20] * m[M11] * m[M02] * m[M33]
-				+ m[M10] * m[M21] * m[M02] * m[M33] + m[M20] * m[M01] * m[M12]
-				* m[M33] - m[M00] * m[M21] * m[M12] * m[M33] - m[M10] * m[M01]
-				* m[M22] * m[M33] + m[M00] * m[M11] * m[M22] * m[M33];
-		if (l_det == 0f)
+		if (!inverse(m, 0, m, 0))
 			throw new SigmaException("non-invertible matrix");
-		float inv_det = 1.0f / l_det;
-		t[M00] = m[M12] * m[M23] * m[M31] - m[M13] * m[M22] * m[M31] + m[M13]
-				* m[M21] * m[M32] - m[M11] * m[M23] * m[M32] - m[M12] * m[M21]
-				* m[M33] + m[M11] * m[M22] * m[M33];
-		t[M01] = m[M03] * m[M22] * m[M31] - m[M02] * m[M23] * m[M31] - m[M03]
-				* m[M21] * m[M32] + m[M01] * m[M23] * m[M32] + m[M02] * m[M21]
-				* m[M33] - m[M01] * m[M22] * m[M33];
-		t[M02] = m[M02] * m[M13] * m[M31] - m[M03] * m[M12] * m[M31] + m[M03]
-				* m[M11] * m[M32] - m[M01] * m[M13] * m[M32] - m[M02] * m[M11]
-				* m[M33] + m[M01] * m[M12] * m[M33];
-		t[M03] = m[M03] * m[M12] * m[M21] - m[M02] * m[M13] * m[M21] - m[M03]
-				* m[M11] * m[M22] + m[M01] * m[M13] * m[M22] + m[M02] * m[M11]
-				* m[M23] - m[M01] * m[M12] * m[M23];
-		t[M10] = m[M13] * m[M22] * m[M30] - m[M12] * m[M23] * m[M30] - m[M13]
-				* m[M20] * m[M32] + m[M10] * m[M23] * m[M32] + m[M12] * m[M20]
-				* m[M33] - m[M10] * m[M22] * m[M33];
-		t[M11] = m[M02] * m[M23] * m[M30] - m[M03] * m[M22] * m[M30] + m[M03]
-				* m[M20] * m[M32] - m[M00] * m[M23] * m[M32] - m[M02] * m[M20]
-				* m[M33] + m[M00] * m[M22] * m[M33];
-		t[M12] = m[M03] * m[M12] * m[M30] - m[M02] * m[M13] * m[M30] - m[M03]
-				* m[M10] * m[M32] + m[M00] * m[M13] * m[M32] + m[M02] * m[M10]
-				* m[M33] - m[M00] * m[M12] * m[M33];
-		t[M13] = m[M02] * m[M13] * m[M20] - m[M03] * m[M12] * m[M20] + m[M03]
-				* m[M10] * m[M22] - m[M00] * m[M13] * m[M22] - m[M02] * m[M10]
-				* m[M23] + m[M00] * m[M12] * m[M23];
-		t[M20] = m[M11] * m[M23] * m[M30] - m[M13] * m[M21] * m[M30] + m[M13]
-				* m[M20] * m[M31] - m[M10] * m[M23] * m[M31] - m[M11] * m[M20]
-				* m[M33] + m[M10] * m[M21] * m[M33];
-		t[M21] = m[M03] * m[M21] * m[M30] - m[M01] * m[M23] * m[M30] - m[M03]
-				* m[M20] * m[M31] + m[M00] * m[M23] * m[M31] + m[M01] * m[M20]
-				* m[M33] - m[M00] * m[M21] * m[M33];
-		t[M22] = m[M01] * m[M13] * m[M30] - m[M03] * m[M11] * m[M30] + m[M03]
-				* m[M10] * m[M31] - m[M00] * m[M13] * m[M31] - m[M01] * m[M10]
-				* m[M33] + m[M00] * m[M11] * m[M33];
-		t[M23] = m[M03] * m[M11] * m[M20] - m[M01] * m[M13] * m[M20] - m[M03]
-				* m[M10] * m[M21] + m[M00] * m[M13] * m[M21] + m[M01] * m[M10]
-				* m[M23] - m[M00] * m[M11] * m[M23];
-		t[M30] = m[M12] * m[M21] * m[M30] - m[M11] * m[M22] * m[M30] - m[M12]
-				* m[M20] * m[M31] + m[M10] * m[M22] * m[M31] + m[M11] * m[M20]
-				* m[M32] - m[M10] * m[M21] * m[M32];
-		t[M31] = m[M01] * m[M22] * m[M30] - m[M02] * m[M21] * m[M30] + m[M02]
-				* m[M20] * m[M31] - m[M00] * m[M22] * m[M31] - m[M01] * m[M20]
-				* m[M32] + m[M00] * m[M21] * m[M32];
-		t[M32] = m[M02] * m[M11] * m[M30] - m[M01] * m[M12] * m[M30] - m[M02]
-				* m[M10] * m[M31] + m[M00] * m[M12] * m[M31] + m[M01] * m[M10]
-				* m[M32] - m[M00] * m[M11] * m[M32];
-		t[M33] = m[M01] * m[M12] * m[M20] - m[M02] * m[M11] * m[M20] + m[M02]
-				* m[M10] * m[M21] - m[M00] * m[M12] * m[M21] - m[M01] * m[M10]
-				* m[M22] + m[M00] * m[M11] * m[M22];
-		m[M00] = t[M00] * inv_det;
-		m[M01] = t[M01] * inv_det;
-		m[M02] = t[M02] * inv_det;
-		m[M03] = t[M03] * inv_det;
-		m[M10] = t[M10] * inv_det;
-		m[M11] = t[M11] * inv_det;
-		m[M12] = t[M12] * inv_det;
-		m[M13] = t[M13] * inv_det;
-		m[M20] = t[M20] * inv_det;
-		m[M21] = t[M21] * inv_det;
-		m[M22] = t[M22] * inv_det;
-		m[M23] = t[M23] * inv_det;
-		m[M30] = t[M30] * inv_det;
-		m[M31] = t[M31] * inv_det;
-		m[M32] = t[M32] * inv_det;
-		m[M33] = t[M33] * inv_det;
 		return this;
 	}
 
@@ -1736,12 +1852,12 @@ public class Mat4f {
 		return this;
 	}
 
-	static final float[] res = new float[16];
-
 	/**
 	 * Multiplies the matrix a with matrix b, storing the result in a. The
 	 * arrays are assumed to hold 4x4 column major matrices as you can get from
-	 * {@link Mat4f#m}. This is the same as {@link Mat4f#mul(Mat4f)}.
+	 * {@link Mat4f#m}. This is the same as {@link Mat4f#mul(Mat4f)}. The
+	 * product is accumulated in locals, so this is safe to call concurrently
+	 * as long as the threads do not share the destination array.
 	 *
 	 * @param a
 	 *            - the first matrix.
@@ -1749,42 +1865,257 @@ public class Mat4f {
 	 *            - the second matrix.
 	 */
 	public static void mul(float[] a, float[] b) {
-		res[M00] = (a[M00] * b[M00]) + (a[M01] * b[M10]) + (a[M02] * b[M20])
-				+ (a[M03] * b[M30]);
-		res[M01] = (a[M00] * b[M01]) + (a[M01] * b[M11]) + (a[M02] * b[M21])
-				+ (a[M03] * b[M31]);
-		res[M02] = (a[M00] * b[M02]) + (a[M01] * b[M12]) + (a[M02] * b[M22])
-				+ (a[M03] * b[M32]);
-		res[M03] = (a[M00] * b[M03]) + (a[M01] * b[M13]) + (a[M02] * b[M23])
-				+ (a[M03] * b[M33]);
-
-		res[M10] = (a[M10] * b[M00]) + (a[M11] * b[M10]) + (a[M12] * b[M20])
-				+ (a[M13] * b[M30]);
-		res[M11] = (a[M10] * b[M01]) + (a[M11] * b[M11]) + (a[M12] * b[M21])
-				+ (a[M13] * b[M31]);
-		res[M12] = (a[M10] * b[M02]) + (a[M11] * b[M12]) + (a[M12] * b[M22])
-				+ (a[M13] * b[M32]);
-		res[M13] = (a[M10] * b[M03]) + (a[M11] * b[M13]) + (a[M12] * b[M23])
-				+ (a[M13] * b[M33]);
-
-		res[M20] = (a[M20] * b[M00]) + (a[M21] * b[M10]) + (a[M22] * b[M20])
-				+ (a[M23] * b[M30]);
-		res[M21] = (a[M20] * b[M01]) + (a[M21] * b[M11]) + (a[M22] * b[M21])
-				+ (a[M23] * b[M31]);
-		res[M22] = (a[M20] * b[M02]) + (a[M21] * b[M12]) + (a[M22] * b[M22])
-				+ (a[M23] * b[M32]);
-		res[M23] = (a[M20] * b[M03]) + (a[M21] * b[M13]) + (a[M22] * b[M23])
-				+ (a[M23] * b[M33]);
-
-		res[M30] = (a[M30] * b[M30]) + (a[M31] * b[M10]) + (a[M32] * b[M20])
-				+ (a[M33] * b[M30]);
-		res[M31] = (a[M30] * b[M31]) + (a[M31] * b[M11]) + (a[M32] * b[M21])
-				+ (a[M33] * b[M31]);
-		res[M32] = (a[M30] * b[M32]) + (a[M31] * b[M12]) + (a[M32] * b[M22])
-				+ (a[M33] * b[M32]);
-		res[M33] = (a[M30] * b[M33]) + (a[M31] * b[M13]) + (a[M32] * b[M23])
-				+ (a[M33] * b[M33]);
-		System.arraycopy(res, 0, a, 0, 16);
+		final float r00 = (a[M00] * b[M00]) + (a[M01] * b[M10])
+				+ (a[M02] * b[M20]) + (a[M03] * b[M30]);
+		final float r01 = (a[M00] * b[M01]) + (a[M01] * b[M11])
+				+ (a[M02] * b[M21]) + (a[M03] * b[M31]);
+		final float r02 = (a[M00] * b[M02]) + (a[M01] * b[M12])
+				+ (a[M02] * b[M22]) + (a[M03] * b[M32]);
+		final float r03 = (a[M00] * b[M03]) + (a[M01] * b[M13])
+				+ (a[M02] * b[M23]) + (a[M03] * b[M33]);
+
+		final float r10 = (a[M10] * b[M00]) + (a[M11] * b[M10])
+				+ (a[M12] * b[M20]) + (a[M13] * b[M30]);
+		final float r11 = (a[M10] * b[M01]) + (a[M11] * b[M11])
+				+ (a[M12] * b[M21]) + (a[M13] * b[M31]);
+		final float r12 = (a[M10] * b[M02]) + (a[M11] * b[M12])
+				+ (a[M12] * b[M22]) + (a[M13] * b[M32]);
+		final float r13 = (a[M10] * b[M03]) + (a[M11] * b[M13])
+				+ (a[M12] * b[M23]) + (a[M13] * b[M33]);
+
+		final float r20 = (a[M20] * b[M00]) + (a[M21] * b[M10])
+				+ (a[M22] * b[M20]) + (a[M23] * b[M30]);
+		final float r21 = (a[M20] * b[M01]) + (a[M21] * b[M11])
+				+ (a[M22] * b[M21]) + (a[M23] * b[M31]);
+		final float r22 = (a[M20] * b[M02]) + (a[M21] * b[M12])
+				+ (a[M22] * b[M22]) + (a[M23] * b[M32]);
+		final float r23 = (a[M20] * b[M03]) + (a[M21] * b[M13])
+				+ (a[M22] * b[M23]) + (a[M23] * b[M33]);
+
+		final float r30 = (a[M30] * b[M00]) + (a[M31] * b[M10])
+				+ (a[M32] * b[M20]) + (a[M33] * b[M30]);
+		final float r31 = (a[M30] * b[M01]) + (a[M31] * b[M11])
+				+ (a[M32] * b[M21]) + (a[M33] * b[M31]);
+		final float r32 = (a[M30] * b[M02]) + (a[M31] * b[M12])
+				+ (a[M32] * b[M22]) + (a[M33] * b[M32]);
+		final float r33 = (a[M30] * b[M03]) + (a[M31] * b[M13])
+				+ (a[M32] * b[M23]) + (a[M33] * b[M33]);
+
+		a[M00] = r00;
+		a[M01] = r01;
+		a[M02] = r02;
+		a[M03] = r03;
+		a[M10] = r10;
+		a[M11] = r11;
+		a[M12] = r12;
+		a[M13] = r13;
+		a[M20] = r20;
+		a[M21] = r21;
+		a[M22] = r22;
+		a[M23] = r23;
+		a[M30] = r30;
+		a[M31] = r31;
+		a[M32] = r32;
+		a[M33] = r33;
+	}
+
+	/**
+	 * Multiplies the matrix a with matrix b, storing the result in dst. All
+	 * matrices are 4x4 column major matrices starting at the given offsets.
+	 * The destination may overlap either source.
+	 * 
+	 * @param a
+	 *            - the array holding the first matrix
+	 * @param aOffset
+	 *            - the index of the first matrix in a
+	 * @param b
+	 *            - the array holding the second matrix
+	 * @param bOffset
+	 *            - the index of the second matrix in b
+	 * @param dst
+	 *            - the array receiving the product
+	 * @param dstOffset
+	 *            - the index of the product in dst
+	 */
+	public static void mul(float[] a, int aOffset, float[] b, int bOffset,
+			float[] dst, int dstOffset) {
+		mulBatch(a, aOffset, 0, b, bOffset, 0, dst, dstOffset, 1);
+	}
+
+	/**
+	 * Multiplies count pairs of matrices, dst_i = a_i * b_i. The matrices are
+	 * 4x4 column major matrices, the i-th of which starts at offset + i *
+	 * stride. A stride of 0 uses the same matrix for every pair, so a parent
+	 * transform can be applied to a whole array of children in one call. The
+	 * products are packed 16 floats apart in dst. The columns of b are
+	 * combined from the columns of a, so every product is four independent
+	 * column sums which the JIT can keep in registers.
+	 * 
+	 * @param a
+	 *            - the array holding the left matrices
+	 * @param aOffset
+	 *            - the index of the first left matrix
+	 * @param aStride
+	 *            - the amount of floats between two left matrices, 0 or at
+	 *            least 16
+	 * @param b
+	 *            - the array holding the right matrices
+	 * @param bOffset
+	 *            - the index of the first right matrix
+	 * @param bStride
+	 *            - the amount of floats between two right matrices, 0 or at
+	 *            least 16
+	 * @param dst
+	 *            - the array receiving the products
+	 * @param dstOffset
+	 *            - the index of the first product
+	 * @param count
+	 *            - the amount of products
+	 */
+	public static void mulBatch(float[] a, int aOffset, int aStride,
+			float[] b, int bOffset, int bStride, float[] dst, int dstOffset,
+			int count) {
+		for (int i = 0, ao = aOffset, bo = bOffset, d = dstOffset; i < count; i++, ao += aStride, bo += bStride, d += 16) {
+			final float a00 = a[ao + M00], a10 = a[ao + M10], a20 = a[ao + M20], a30 = a[ao + M30];
+			final float a01 = a[ao + M01], a11 = a[ao + M11], a21 = a[ao + M21], a31 = a[ao + M31];
+			final float a02 = a[ao + M02], a12 = a[ao + M12], a22 = a[ao + M22], a32 = a[ao + M32];
+			final float a03 = a[ao + M03], a13 = a[ao + M13], a23 = a[ao + M23], a33 = a[ao + M33];
+			for (int c = 0; c < 16; c += 4) {
+				final float b0 = b[bo + c], b1 = b[bo + c + 1], b2 = b[bo + c + 2], b3 = b[bo + c + 3];
+				dst[d + c] = a00 * b0 + a01 * b1 + a02 * b2 + a03 * b3;
+				dst[d + c + 1] = a10 * b0 + a11 * b1 + a12 * b2 + a13 * b3;
+				dst[d + c + 2] = a20 * b0 + a21 * b1 + a22 * b2 + a23 * b3;
+				dst[d + c + 3] = a30 * b0 + a31 * b1 + a32 * b2 + a33 * b3;
+			}
+		}
+	}
+
+	/**
+	 * Transposes the 4x4 matrix in src into dst. The source and destination
+	 * may be the same.
+	 * 
+	 * @param src
+	 *            - the array holding the matrix
+	 * @param srcOffset
+	 *            - the index of the matrix in src
+	 * @param dst
+	 *            - the array receiving the transposed matrix
+	 * @param dstOffset
+	 *            - the index of the transposed matrix in dst
+	 */
+	public static void transpose(float[] src, int srcOffset, float[] dst,
+			int dstOffset) {
+		final float m01 = src[srcOffset + M01], m02 = src[srcOffset + M02], m03 = src[srcOffset + M03];
+		final float m10 = src[srcOffset + M10], m12 = src[srcOffset + M12], m13 = src[srcOffset + M13];
+		final float m20 = src[srcOffset + M20], m21 = src[srcOffset + M21], m23 = src[srcOffset + M23];
+		final float m30 = src[srcOffset + M30], m31 = src[srcOffset + M31], m32 = src[srcOffset + M32];
+		dst[dstOffset + M00] = src[srcOffset + M00];
+		dst[dstOffset + M01] = m10;
+		dst[dstOffset + M02] = m20;
+		dst[dstOffset + M03] = m30;
+		dst[dstOffset + M10] = m01;
+		dst[dstOffset + M11] = src[srcOffset + M11];
+		dst[dstOffset + M12] = m21;
+		dst[dstOffset + M13] = m31;
+		dst[dstOffset + M20] = m02;
+		dst[dstOffset + M21] = m12;
+		dst[dstOffset + M22] = src[srcOffset + M22];
+		dst[dstOffset + M23] = m32;
+		dst[dstOffset + M30] = m03;
+		dst[dstOffset + M31] = m13;
+		dst[dstOffset + M32] = m23;
+		dst[dstOffset + M33] = src[srcOffset + M33];
+	}
+
+	/**
+	 * Inverts the 4x4 matrix in src into dst, through the 2x2 sub-determinants
+	 * of the upper and lower halves (Laplace expansion). This needs about half
+	 * the multiplications of expanding every cofactor separately. The source
+	 * and destination may be the same. If the matrix is singular dst is left
+	 * untouched.
+	 * 
+	 * @param src
+	 *            - the array holding the matrix
+	 * @param srcOffset
+	 *            - the index of the matrix in src
+	 * @param dst
+	 *            - the array receiving the inverted matrix
+	 * @param dstOffset
+	 *            - the index of the inverted matrix in dst
+	 * @return false if the matrix is singular (not invertible)
+	 */
+	public static boolean inverse(float[] src, int srcOffset, float[] dst,
+			int dstOffset) {
+		final int o = srcOffset;
+		final float a00 = src[o + M00], a01 = src[o + M01], a02 = src[o + M02], a03 = src[o + M03];
+		final float a10 = src[o + M10], a11 = src[o + M11], a12 = src[o + M12], a13 = src[o + M13];
+		final float a20 = src[o + M20], a21 = src[o + M21], a22 = src[o + M22], a23 = src[o + M23];
+		final float a30 = src[o + M30], a31 = src[o + M31], a32 = src[o + M32], a33 = src[o + M33];
+
+		final float s0 = a00 * a11 - a10 * a01;
+		final float s1 = a00 * a12 - a10 * a02;
+		final float s2 = a00 * a13 - a10 * a03;
+		final float s3 = a01 * a12 - a11 * a02;
+		final float s4 = a01 * a13 - a11 * a03;
+		final float s5 = a02 * a13 - a12 * a03;
+
+		final float c5 = a22 * a33 - a32 * a23;
+		final float c4 = a21 * a33 - a31 * a23;
+		final float c3 = a21 * a32 - a31 * a22;
+		final float c2 = a20 * a33 - a30 * a23;
+		final float c1 = a20 * a32 - a30 * a22;
+		final float c0 = a20 * a31 - a30 * a21;
+
+		final float det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5
+				* c0;
+		if (det == 0f)
+			return false;
+		final float invDet = 1.0f / det;
+
+		final int d = dstOffset;
+		dst[d + M00] = (a11 * c5 - a12 * c4 + a13 * c3) * invDet;
+		dst[d + M01] = (-a01 * c5 + a02 * c4 - a03 * c3) * invDet;
+		dst[d + M02] = (a31 * s5 - a32 * s4 + a33 * s3) * invDet;
+		dst[d + M03] = (-a21 * s5 + a22 * s4 - a23 * s3) * invDet;
+		dst[d + M10] = (-a10 * c5 + a12 * c2 - a13 * c1) * invDet;
+		dst[d + M11] = (a00 * c5 - a02 * c2 + a03 * c1) * invDet;
+		dst[d + M12] = (-a30 * s5 + a32 * s2 - a33 * s1) * invDet;
+		dst[d + M13] = (a20 * s5 - a22 * s2 + a23 * s1) * invDet;
+		dst[d + M20] = (a10 * c4 - a11 * c2 + a13 * c0) * invDet;
+		dst[d + M21] = (-a00 * c4 + a01 * c2 - a03 * c0) * invDet;
+		dst[d + M22] = (a30 * s4 - a31 * s2 + a33 * s0) * invDet;
+		dst[d + M23] = (-a20 * s4 + a21 * s2 - a23 * s0) * invDet;
+		dst[d + M30] = (-a10 * c3 + a11 * c1 - a12 * c0) * invDet;
+		dst[d + M31] = (a00 * c3 - a01 * c1 + a02 * c0) * invDet;
+		dst[d + M32] = (-a30 * s3 + a31 * s1 - a32 * s0) * invDet;
+		dst[d + M33] = (a20 * s3 - a21 * s1 + a22 * s0) * invDet;
+		return true;
+	}
+
+	/**
+	 * Inverts count 4x4 matrices. The i-th source matrix starts at srcOffset
+	 * + i * 16 and its inverse is written at dstOffset + i * 16. Singular
+	 * matrices are left untouched in dst.
+	 * 
+	 * @param src
+	 *            - the array holding the matrices
+	 * @param srcOffset
+	 *            - the index of the first matrix in src
+	 * @param dst
+	 *            - the array receiving the inverted matrices
+	 * @param dstOffset
+	 *            - the index of the first inverted matrix in dst
+	 * @param count
+	 *            - the amount of matrices
+	 * @return the amount of singular matrices that could not be inverted
+	 */
+	public static int inverseBatch(float[] src, int srcOffset, float[] dst,
+			int dstOffset, int count) {
+		int singular = 0;
+		for (int i = 0; i < count; i++)
+			if (!inverse(src, srcOffset + (i << 4), dst, dstOffset + (i << 4)))
+				singular++;
+		return singular;
 	}
 
 	/**
@@ -1794,6 +2125,195 @@ public class Mat4f {
 		return m;
 	}
 
+	/**
+	 * Writes this matrix in column major order at the current position of the
+	 * buffer and advances the position by 16. This is the layout expected by
+	 * glUniformMatrix4 and glLoadMatrix.
+	 * 
+	 * @param dst
+	 *            - The buffer, usually direct
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst) {
+		dst.put(m);
+		return dst;
+	}
+
+	/**
+	 * Writes this matrix in column major order starting at the given index.
+	 * The position of the buffer is left unchanged.
+	 * 
+	 * @param dst
+	 *            - The buffer, usually direct
+	 * @param index
+	 *            - The index of the first element in the buffer
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst, int index) {
+		for (int i = 0; i < 16; i++)
+			dst.put(index + i, m[i]);
+		return dst;
+	}
+
+	/**
+	 * Writes this matrix in column major order at the current position of the
+	 * buffer, in the byte order of the buffer, and advances the position by
+	 * 64.
+	 * 
+	 * @param dst
+	 *            - The buffer, usually direct and in native order
+	 * @return The provided buffer for chaining
+	 */
+	public ByteBuffer store(ByteBuffer dst) {
+		for (int i = 0; i < 16; i++)
+			dst.putFloat(m[i]);
+		return dst;
+	}
+
+	/**
+	 * Writes this matrix in column major order starting at the given byte
+	 * index, in the byte order of the buffer. The position of the buffer is
+	 * left unchanged.
+	 * 
+	 * @param dst
+	 *            - The buffer, usually direct and in native order
+	 * @param byteIndex
+	 *            - The index of the first byte in the buffer
+	 * @return The provided buffer for chaining
+	 */
+	public ByteBuffer store(ByteBuffer dst, int byteIndex) {
+		for (int i = 0; i < 16; i++)
+			dst.putFloat(byteIndex + (i << 2), m[i]);
+		return dst;
+	}
+
+	/**
+	 * Reads this matrix in column major order from the current position of
+	 * the buffer and advances the position by 16.
+	 * 
+	 * @param src
+	 *            - The buffer
+	 * @return This matrix for the purpose of chaining methods together.
+	 */
+	public Mat4f load(FloatBuffer src) {
+		src.get(m);
+		return this;
+	}
+
+	/**
+	 * Reads this matrix in column major order starting at the given index.
+	 * The position of the buffer is left unchanged.
+	 * 
+	 * @param src
+	 *            - The buffer
+	 * @param index
+	 *            - The index of the first element in the buffer
+	 * @return This matrix for the purpose of chaining methods together.
+	 */
+	public Mat4f load(FloatBuffer src, int index) {
+		for (int i = 0; i < 16; i++)
+			m[i] = src.get(index + i);
+		return this;
+	}
+
+	/**
+	 * Reads this matrix in column major order from the current position of
+	 * the buffer, in the byte order of the buffer, and advances the position
+	 * by 64.
+	 * 
+	 * @param src
+	 *            - The buffer
+	 * @return This matrix for the purpose of chaining methods together.
+	 */
+	public Mat4f load(ByteBuffer src) {
+		for (int i = 0; i < 16; i++)
+			m[i] = src.getFloat();
+		return this;
+	}
+
+	/**
+	 * Reads this matrix in column major order starting at the given byte
+	 * index, in the byte order of the buffer. The position of the buffer is
+	 * left unchanged.
+	 * 
+	 * @param src
+	 *            - The buffer
+	 * @param byteIndex
+	 *            - The index of the first byte in the buffer
+	 * @return This matrix for the purpose of chaining methods together.
+	 */
+	public Mat4f load(ByteBuffer src, int byteIndex) {
+		for (int i = 0; i < 16; i++)
+			m[i] = src.getFloat(byteIndex + (i << 2));
+		return this;
+	}
+
+	/**
+	 * Writes count matrices tightly packed in column major order at the
+	 * current position of the buffer in a single pass, for example to fill an
+	 * instance buffer, and advances the position by count * 16.
+	 * 
+	 * @param src
+	 *            - The matrices. (Not modified)
+	 * @param offset
+	 *            - The index of the first matrix in src
+	 * @param count
+	 *            - The amount of matrices
+	 * @param dst
+	 *            - The buffer, usually direct
+	 * @return The provided buffer for chaining
+	 */
+	public static FloatBuffer store(Mat4f[] src, int offset, int count,
+			FloatBuffer dst) {
+		for (int i = offset; i < offset + count; i++)
+			dst.put(src[i].m);
+		return dst;
+	}
+
+	/**
+	 * Writes count matrices tightly packed in column major order at the
+	 * current position of the buffer, in the byte order of the buffer, and
+	 * advances the position by count * 64.
+	 * 
+	 * @param src
+	 *            - The matrices. (Not modified)
+	 * @param offset
+	 *            - The index of the first matrix in src
+	 * @param count
+	 *            - The amount of matrices
+	 * @param dst
+	 *            - The buffer, usually direct and in native order
+	 * @return The provided buffer for chaining
+	 */
+	public static ByteBuffer store(Mat4f[] src, int offset, int count,
+			ByteBuffer dst) {
+		for (int i = offset; i < offset + count; i++) {
+			final float[] m = src[i].m;
+			for (int j = 0; j < 16; j++)
+				dst.putFloat(m[j]);
+		}
+		return dst;
+	}
+
+	/**
+	 * Reads count tightly packed matrices from the current position of the
+	 * buffer into existing matrices and advances the position by count * 16.
+	 * 
+	 * @param src
+	 *            - The buffer
+	 * @param dst
+	 *            - The matrices which receive the values
+	 * @param offset
+	 *            - The index of the first matrix in dst
+	 * @param count
+	 *            - The amount of matrices
+	 */
+	public static void load(FloatBuffer src, Mat4f[] dst, int offset,
+			int count) {
+		for (int i = offset; i < offset + count; i++)
+			src.get(dst[i].m);
+	}
+
 	/**
 	 * Returns the value of a component of the array, specified by x and y
 	 * 
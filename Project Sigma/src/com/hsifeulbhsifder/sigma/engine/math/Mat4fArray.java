@@ -0,0 +1,168 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Packs many column major 4 by 4 matrices into one float array, 16 floats
+ * apart. Compared to an array of {@link Mat4f} objects this saves the object
+ * header, the array header and the reference of every matrix, which is about
+ * a third of the footprint, and keeps neighbouring matrices contiguous for the
+ * batch kernels of {@link Mat4f}.
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Mat4fArray {
+
+	/** The packed matrices, matrix i starts at index i * 16 */
+	public final float[] m;
+
+	private final int size;
+
+	/**
+	 * Constructs an array of the given amount of identity matrices
+	 * @param size - the amount of matrices
+	 */
+	public Mat4fArray(int size) {
+		this.size = size;
+		this.m = new float[size << 4];
+		for (int i = 0; i < size; i++)
+			setIdentity(i);
+	}
+	/** @return the amount of matrices in this array */
+	public int size() {
+		return size;
+	}
+	/** @return the index of the first float of the given matrix */
+	public static int offset(int i) {
+		return i << 4;
+	}
+	/**
+	 * Sets the matrix at the given index to an identity matrix
+	 * @param i - The index
+	 * @return This array
+	 */
+	public Mat4fArray setIdentity(int i) {
+		final int o = i << 4;
+		for (int j = 0; j < 16; j++)
+			m[o + j] = 0f;
+		m[o + Mat4f.M00] = 1f;
+		m[o + Mat4f.M11] = 1f;
+		m[o + Mat4f.M22] = 1f;
+		m[o + Mat4f.M33] = 1f;
+		return this;
+	}
+	/**
+	 * Copies the given matrix into the given index
+	 * @param i - The index
+	 * @param matrix - The matrix. (The matrix is not modified)
+	 * @return This array
+	 */
+	public Mat4fArray set(int i, final Mat4f matrix) {
+		System.arraycopy(matrix.m, 0, m, i << 4, 16);
+		return this;
+	}
+	/**
+	 * Copies the given affine transform into the given index
+	 * @param i - The index
+	 * @param matrix - The transform. (The transform is not modified)
+	 * @return This array
+	 */
+	public Mat4fArray set(int i, final Mat4x3 matrix) {
+		final int o = i << 4;
+		final float[] s = matrix.m;
+		m[o + Mat4f.M00] = s[Mat4x3.M00];
+		m[o + Mat4f.M10] = s[Mat4x3.M10];
+		m[o + Mat4f.M20] = s[Mat4x3.M20];
+		m[o + Mat4f.M30] = 0f;
+		m[o + Mat4f.M01] = s[Mat4x3.M01];
+		m[o + Mat4f.M11] = s[Mat4x3.M11];
+		m[o + Mat4f.M21] = s[Mat4x3.M21];
+		m[o + Mat4f.M31] = 0f;
+		m[o + Mat4f.M02] = s[Mat4x3.M02];
+		m[o + Mat4f.M12] = s[Mat4x3.M12];
+		m[o + Mat4f.M22] = s[Mat4x3.M22];
+		m[o + Mat4f.M32] = 0f;
+		m[o + Mat4f.M03] = s[Mat4x3.M03];
+		m[o + Mat4f.M13] = s[Mat4x3.M13];
+		m[o + Mat4f.M23] = s[Mat4x3.M23];
+		m[o + Mat4f.M33] = 1f;
+		return this;
+	}
+	/**
+	 * Copies the matrix at the given index into the given matrix
+	 * @param i - The index
+	 * @param out - The matrix which receives the values
+	 * @return The provided matrix for chaining
+	 */
+	public Mat4f get(int i, Mat4f out) {
+		System.arraycopy(m, i << 4, out.m, 0, 16);
+		return out;
+	}
+	/**
+	 * Premultiplies the matrices in the range by the given matrix, so that
+	 * m_i := parent * m_i. This is how a parent transform is applied to its
+	 * children.
+	 * @param parent - The matrix to premultiply with. (Not modified)
+	 * @return This array
+	 */
+	public Mat4fArray mulLeft(final Mat4f parent, int from, int to) {
+		Mat4f.mulBatch(parent.m, 0, 0, m, from << 4, 16, m, from << 4, to
+				- from);
+		return this;
+	}
+	/**
+	 * Postmultiplies the matrices in the range by the given matrix, so that
+	 * m_i := m_i * matrix.
+	 * @param matrix - The matrix to postmultiply with. (Not modified)
+	 * @return This array
+	 */
+	public Mat4fArray mul(final Mat4f matrix, int from, int to) {
+		Mat4f.mulBatch(m, from << 4, 16, matrix.m, 0, 0, m, from << 4, to
+				- from);
+		return this;
+	}
+	/**
+	 * Inverts the matrices in the range. Singular matrices are left as they
+	 * are.
+	 * @return the amount of singular matrices in the range
+	 */
+	public int inverse(int from, int to) {
+		return Mat4f.inverseBatch(m, from << 4, m, from << 4, to - from);
+	}
+	/**
+	 * Writes the matrices in the range at the current position of the buffer
+	 * with one bulk copy and advances the position by (to - from) * 16
+	 * @param dst - The buffer, usually direct
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst, int from, int to) {
+		dst.put(m, from << 4, (to - from) << 4);
+		return dst;
+	}
+	/**
+	 * Writes the matrices in the range at the current position of the buffer,
+	 * in the byte order of the buffer, and advances the position by
+	 * (to - from) * 64. The copy goes through a float view of the buffer, so
+	 * a buffer in native order gets a single bulk copy.
+	 * @param dst - The buffer, usually direct and in native order
+	 * @return The provided buffer for chaining
+	 */
+	public ByteBuffer store(ByteBuffer dst, int from, int to) {
+		final int length = (to - from) << 4;
+		dst.asFloatBuffer().put(m, from << 4, length);
+		dst.position(dst.position() + (length << 2));
+		return dst;
+	}
+	/**
+	 * Reads the matrices in the range from the current position of the buffer
+	 * with one bulk copy and advances the position by (to - from) * 16
+	 * @param src - The buffer
+	 * @return This array
+	 */
+	public Mat4fArray load(FloatBuffer src, int from, int to) {
+		src.get(m, from << 4, (to - from) << 4);
+		return this;
+	}
+}
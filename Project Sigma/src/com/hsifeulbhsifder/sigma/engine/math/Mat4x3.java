@@ -0,0 +1,507 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * Encapsulates a column major affine transform, which is a {@link Mat4f}
+ * whose bottom row is always (0, 0, 0, 1). Only the upper 3 rows are stored,
+ * in the same 12 float layout as {@link Mat4f#extract4x3Matrix(float[])}, so
+ * it takes a quarter less memory and the multiply and inverse skip all work on
+ * the constant row. Like the {@link Mat4f} class it allows the chaining of
+ * methods by returning a reference to itself.
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Mat4x3 {
+
+	/** XX: The unrotated X component for scaling */
+	public static final int M00 = 0;
+	/** YX */
+	public static final int M10 = 1;
+	/** ZX */
+	public static final int M20 = 2;
+	/** XY */
+	public static final int M01 = 3;
+	/** YY: The unrotated Y component for scaling */
+	public static final int M11 = 4;
+	/** ZY */
+	public static final int M21 = 5;
+	/** XZ */
+	public static final int M02 = 6;
+	/** YZ */
+	public static final int M12 = 7;
+	/** ZZ: The unrotated Z component for scaling */
+	public static final int M22 = 8;
+	/** XW: The translation of the X component */
+	public static final int M03 = 9;
+	/** YW: The translation of the Y component */
+	public static final int M13 = 10;
+	/** ZW: The translation of the Z component */
+	public static final int M23 = 11;
+
+	public final float m[] = new float[12];
+
+	/** Constructs an identity transform */
+	public Mat4x3() {
+		m[M00] = 1f;
+		m[M11] = 1f;
+		m[M22] = 1f;
+	}
+
+	/**
+	 * Constructs a transform from the given transform.
+	 *
+	 * @param m
+	 *            - The transform to copy. (This transform is not modified)
+	 */
+	public Mat4x3(Mat4x3 m) {
+		this.set(m);
+	}
+
+	/**
+	 * Constructs a transform from the upper 3 rows of the given matrix.
+	 *
+	 * @param m
+	 *            - The matrix to copy, must be affine. (This matrix is not
+	 *            modified)
+	 */
+	public Mat4x3(Mat4f m) {
+		this.set(m);
+	}
+
+	/**
+	 * Construct a transform from the given translation, rotation and scale.
+	 *
+	 * @param pos
+	 *            - The translation
+	 * @param rot
+	 *            - The rotation, must be normalized
+	 * @param scl
+	 *            - The scale
+	 */
+	public Mat4x3(Vec3f pos, Quat rot, Vec3f scl) {
+		this.set(pos, rot, scl);
+	}
+
+	/**
+	 * Sets the transform to the given transform.
+	 *
+	 * @param matrix
+	 *            - The transform that is to be copied. (The given transform is
+	 *            not modified)
+	 * @return This transform for the purpose of chaining methods together.
+	 */
+	public Mat4x3 set(Mat4x3 matrix) {
+		System.arraycopy(matrix.m, 0, m, 0, 12);
+		return this;
+	}
+
+	/**
+	 * Sets the transform to the upper 3 rows of the given matrix. This is
+	 * lossless for affine matrices, which is everything built through
+	 * {@link Mat4f#set(Vec3f, Quat, Vec3f)},
+	 * {@link Mat4f#setToWorld(Vec3f, Vec3f, Vec3f)} or
+	 * {@link Mat4f#setToTranslationAndScaling(Vec3f, Vec3f)}.
+	 *
+	 * @param matrix
+	 *            - The matrix that is to be copied. (The given matrix is not
+	 *            modified)
+	 * @return This transform for the purpose of chaining methods together.
+	 */
+	public Mat4x3 set(Mat4f matrix) {
+		matrix.extract4x3Matrix(m);
+		return this;
+	}
+
+	/**
+	 * Sets the transform from a float array in the layout of
+	 * {@link Mat4f#extract4x3Matrix(float[])}. The array must have at least 12
+	 * elements; the first 12 will be copied.
+	 *
+	 * @param values
+	 *            - The transform in float form
+	 * @return This transform for the purpose of chaining methods together.
+	 */
+	public Mat4x3 set(float[] values) {
+		System.arraycopy(values, 0, m, 0, 12);
+		return this;
+	}
+
+	/**
+	 * Set this transform to the specified translation, rotation and scale.
+	 *
+	 * @param position
+	 *            - The translation
+	 * @param orientation
+	 *            - The rotation, must be normalized
+	 * @param scale
+	 *            - The scale
+	 * @return This transform for chaining
+	 */
+	public Mat4x3 set(Vec3f position, Quat orientation, Vec3f scale) {
+		return set(position.x(), position.y(), position.z(), orientation.x(),
+				orientation.y(), orientation.z(), orientation.w(), scale.x(),
+				scale.y(), scale.z());
+	}
+
+	/**
+	 * Set this transform to the specified translation, rotation and scale.
+	 * Produces the same values as
+	 * {@link Mat4f#set(float, float, float, float, float, float, float, float, float, float)}
+	 *
+	 * @return This transform for the purpose of chaining methods together.
+	 */
+	public Mat4x3 set(float translationX, float translationY,
+			float translationZ, float quaternionX, float quaternionY,
+			float quaternionZ, float quaternionW, float scaleX, float scaleY,
+			float scaleZ) {
+		final float xs = quaternionX * 2f, ys = quaternionY * 2f, zs = quaternionZ * 2f;
+		final float wx = quaternionW * xs, wy = quaternionW * ys, wz = quaternionW
+				* zs;
+		final float xx = quaternionX * xs, xy = quaternionX * ys, xz = quaternionX
+				* zs;
+		final float yy = quaternionY * ys, yz = quaternionY * zs, zz = quaternionZ
+				* zs;
+
+		m[M00] = scaleX * (1.0f - (yy + zz));
+		m[M01] = scaleY * (xy - wz);
+		m[M02] = scaleZ * (xz + wy);
+		m[M03] = translationX;
+
+		m[M10] = scaleX * (xy + wz);
+		m[M11] = scaleY * (1.0f - (xx + zz));
+		m[M12] = scaleZ * (yz - wx);
+		m[M13] = translationY;
+
+		m[M20] = scaleX * (xz - wy);
+		m[M21] = scaleY * (yz + wx);
+		m[M22] = scaleZ * (1.0f - (xx + yy));
+		m[M23] = translationZ;
+		return this;
+	}
+
+	/**
+	 * Writes this transform into the given matrix, setting the bottom row to
+	 * (0, 0, 0, 1).
+	 *
+	 * @param out
+	 *            - The matrix which receives this transform
+	 * @return The provided matrix for chaining
+	 */
+	public Mat4f toMat4f(Mat4f out) {
+		final float[] d = out.m;
+		d[Mat4f.M00] = m[M00];
+		d[Mat4f.M10] = m[M10];
+		d[Mat4f.M20] = m[M20];
+		d[Mat4f.M30] = 0f;
+		d[Mat4f.M01] = m[M01];
+		d[Mat4f.M11] = m[M11];
+		d[Mat4f.M21] = m[M21];
+		d[Mat4f.M31] = 0f;
+		d[Mat4f.M02] = m[M02];
+		d[Mat4f.M12] = m[M12];
+		d[Mat4f.M22] = m[M22];
+		d[Mat4f.M32] = 0f;
+		d[Mat4f.M03] = m[M03];
+		d[Mat4f.M13] = m[M13];
+		d[Mat4f.M23] = m[M23];
+		d[Mat4f.M33] = 1f;
+		return out;
+	}
+
+	/**
+	 * Copies this transform into the float array, in the same layout as
+	 * {@link Mat4f#extract4x3Matrix(float[])}.
+	 *
+	 * @param dst
+	 *            - the destination array
+	 */
+	public void extract4x3Matrix(float[] dst) {
+		System.arraycopy(m, 0, dst, 0, 12);
+	}
+
+	/** @return a copy of this transform */
+	public Mat4x3 copy() {
+		return new Mat4x3(this);
+	}
+
+	/**
+	 * Sets the transform to an identity transform.
+	 *
+	 * @return This transform for the purpose of chaining methods together.
+	 */
+	public Mat4x3 initIdentity() {
+		m[M00] = 1f;
+		m[M10] = 0f;
+		m[M20] = 0f;
+		m[M01] = 0f;
+		m[M11] = 1f;
+		m[M21] = 0f;
+		m[M02] = 0f;
+		m[M12] = 0f;
+		m[M22] = 1f;
+		m[M03] = 0f;
+		m[M13] = 0f;
+		m[M23] = 0f;
+		return this;
+	}
+
+	/**
+	 * Sets the 4th column to the translation vector.
+	 *
+	 * @return This transform for the purpose of chaining methods together.
+	 */
+	public Mat4x3 setTranslation(float x, float y, float z) {
+		m[M03] = x;
+		m[M13] = y;
+		m[M23] = z;
+		return this;
+	}
+
+	public Vec3f getTranslation(Vec3f pos) {
+		return pos.set(m[M03], m[M13], m[M23]);
+	}
+
+	/** @return The determinant of this transform */
+	public float determinant() {
+		return m[M00] * (m[M11] * m[M22] - m[M21] * m[M12]) - m[M01]
+				* (m[M10] * m[M22] - m[M20] * m[M12]) + m[M02]
+				* (m[M10] * m[M21] - m[M20] * m[M11]);
+	}
+
+	/**
+	 * Postmultiplies this transform with the given transform, storing the
+	 * result in this transform. For example:
+	 *
+	 * <pre>
+	 * A.mul(B) results in A := AB.
+	 * </pre>
+	 *
+	 * @param matrix
+	 *            - The other transform to multiply by.
+	 * @return This transform for the purpose of chaining operations together.
+	 */
+	public Mat4x3 mul(Mat4x3 matrix) {
+		mul(m, 0, matrix.m, 0, m, 0);
+		return this;
+	}
+
+	/**
+	 * Premultiplies this transform with the given transform, storing the
+	 * result in this transform. For example:
+	 *
+	 * <pre>
+	 * A.mulLeft(B) results in A := BA.
+	 * </pre>
+	 *
+	 * @param matrix
+	 *            - The other transform to multiply by.
+	 * @return This transform for the purpose of chaining operations together.
+	 */
+	public Mat4x3 mulLeft(Mat4x3 matrix) {
+		mul(matrix.m, 0, m, 0, m, 0);
+		return this;
+	}
+
+	/**
+	 * Multiplies the affine transform a with b, storing the result in dst.
+	 * The arrays hold 4x3 transforms in the layout of {@link Mat4x3#m}
+	 * starting at the given offsets. The destination may overlap either
+	 * source. This takes 36 multiplications, against 64 for a full
+	 * {@link Mat4f} product.
+	 *
+	 * @param a
+	 *            - the array holding the first transform
+	 * @param aOffset
+	 *            - the index of the first transform in a
+	 * @param b
+	 *            - the array holding the second transform
+	 * @param bOffset
+	 *            - the index of the second transform in b
+	 * @param dst
+	 *            - the array receiving the product
+	 * @param dstOffset
+	 *            - the index of the product in dst
+	 */
+	public static void mul(float[] a, int aOffset, float[] b, int bOffset,
+			float[] dst, int dstOffset) {
+		final float a00 = a[aOffset + M00], a10 = a[aOffset + M10], a20 = a[aOffset + M20];
+		final float a01 = a[aOffset + M01], a11 = a[aOffset + M11], a21 = a[aOffset + M21];
+		final float a02 = a[aOffset + M02], a12 = a[aOffset + M12], a22 = a[aOffset + M22];
+		final float a03 = a[aOffset + M03], a13 = a[aOffset + M13], a23 = a[aOffset + M23];
+		final float b00 = b[bOffset + M00], b10 = b[bOffset + M10], b20 = b[bOffset + M20];
+		final float b01 = b[bOffset + M01], b11 = b[bOffset + M11], b21 = b[bOffset + M21];
+		final float b02 = b[bOffset + M02], b12 = b[bOffset + M12], b22 = b[bOffset + M22];
+		final float b03 = b[bOffset + M03], b13 = b[bOffset + M13], b23 = b[bOffset + M23];
+
+		dst[dstOffset + M00] = a00 * b00 + a01 * b10 + a02 * b20;
+		dst[dstOffset + M10] = a10 * b00 + a11 * b10 + a12 * b20;
+		dst[dstOffset + M20] = a20 * b00 + a21 * b10 + a22 * b20;
+
+		dst[dstOffset + M01] = a00 * b01 + a01 * b11 + a02 * b21;
+		dst[dstOffset + M11] = a10 * b01 + a11 * b11 + a12 * b21;
+		dst[dstOffset + M21] = a20 * b01 + a21 * b11 + a22 * b21;
+
+		dst[dstOffset + M02] = a00 * b02 + a01 * b12 + a02 * b22;
+		dst[dstOffset + M12] = a10 * b02 + a11 * b12 + a12 * b22;
+		dst[dstOffset + M22] = a20 * b02 + a21 * b12 + a22 * b22;
+
+		dst[dstOffset + M03] = a00 * b03 + a01 * b13 + a02 * b23 + a03;
+		dst[dstOffset + M13] = a10 * b03 + a11 * b13 + a12 * b23 + a13;
+		dst[dstOffset + M23] = a20 * b03 + a21 * b13 + a22 * b23 + a23;
+	}
+
+	/**
+	 * Inverts this transform assuming it is rigid, meaning it only contains a
+	 * rotation and a translation. The inverse is then the transposed rotation
+	 * and the negated, rotated translation. The result is wrong for transforms
+	 * which contain scaling, use {@link #inverseScaled()} or
+	 * {@link #inverse()} for those.
+	 *
+	 * @return This transform for the purpose of chaining methods together.
+	 */
+	public Mat4x3 inverseRigid() {
+		final float m01 = m[M01], m02 = m[M02], m12 = m[M12];
+		final float tx = m[M03], ty = m[M13], tz = m[M23];
+
+		m[M01] = m[M10];
+		m[M02] = m[M20];
+		m[M12] = m[M21];
+		m[M10] = m01;
+		m[M20] = m02;
+		m[M21] = m12;
+
+		m[M03] = -(m[M00] * tx + m[M01] * ty + m[M02] * tz);
+		m[M13] = -(m[M10] * tx + m[M11] * ty + m[M12] * tz);
+		m[M23] = -(m[M20] * tx + m[M21] * ty + m[M22] * tz);
+		return this;
+	}
+
+	/**
+	 * Inverts this transform assuming its axes are orthogonal, which holds
+	 * for any translation, rotation and (non-uniform) scale composition such
+	 * as {@link #set(Vec3f, Quat, Vec3f)}. Each axis is divided by its squared
+	 * length before transposing, which is much cheaper than the general
+	 * {@link #inverse()}.
+	 *
+	 * @return This transform for the purpose of chaining methods together.
+	 * @throws SigmaException
+	 *             if an axis has zero length
+	 */
+	public Mat4x3 inverseScaled() {
+		final float lx = m[M00] * m[M00] + m[M10] * m[M10] + m[M20] * m[M20];
+		final float ly = m[M01] * m[M01] + m[M11] * m[M11] + m[M21] * m[M21];
+		final float lz = m[M02] * m[M02] + m[M12] * m[M12] + m[M22] * m[M22];
+		if (lx == 0f || ly == 0f || lz == 0f)
+			throw new SigmaException("non-invertible matrix");
+		final float ix = 1f / lx, iy = 1f / ly, iz = 1f / lz;
+		final float tx = m[M03], ty = m[M13], tz = m[M23];
+
+		final float r00 = m[M00] * ix, r01 = m[M10] * ix, r02 = m[M20] * ix;
+		final float r10 = m[M01] * iy, r11 = m[M11] * iy, r12 = m[M21] * iy;
+		final float r20 = m[M02] * iz, r21 = m[M12] * iz, r22 = m[M22] * iz;
+
+		m[M00] = r00;
+		m[M01] = r01;
+		m[M02] = r02;
+		m[M10] = r10;
+		m[M11] = r11;
+		m[M12] = r12;
+		m[M20] = r20;
+		m[M21] = r21;
+		m[M22] = r22;
+
+		m[M03] = -(r00 * tx + r01 * ty + r02 * tz);
+		m[M13] = -(r10 * tx + r11 * ty + r12 * tz);
+		m[M23] = -(r20 * tx + r21 * ty + r22 * tz);
+		return this;
+	}
+
+	/**
+	 * Inverts this transform, which may contain any affine combination of
+	 * rotation, scale, shear and translation. Only the 3x3 part is inverted
+	 * through its cofactors; the translation follows from it.
+	 *
+	 * @return This transform for the purpose of chaining methods together.
+	 * @throws SigmaException
+	 *             if the transform is singular (not invertible)
+	 */
+	public Mat4x3 inverse() {
+		final float a00 = m[M00], a01 = m[M01], a02 = m[M02];
+		final float a10 = m[M10], a11 = m[M11], a12 = m[M12];
+		final float a20 = m[M20], a21 = m[M21], a22 = m[M22];
+		final float tx = m[M03], ty = m[M13], tz = m[M23];
+
+		final float c00 = a11 * a22 - a21 * a12;
+		final float c01 = a20 * a12 - a10 * a22;
+		final float c02 = a10 * a21 - a20 * a11;
+		final float det = a00 * c00 + a01 * c01 + a02 * c02;
+		if (det == 0f)
+			throw new SigmaException("non-invertible matrix");
+		final float invDet = 1f / det;
+
+		final float r00 = c00 * invDet;
+		final float r01 = (a21 * a02 - a01 * a22) * invDet;
+		final float r02 = (a01 * a12 - a11 * a02) * invDet;
+		final float r10 = c01 * invDet;
+		final float r11 = (a00 * a22 - a20 * a02) * invDet;
+		final float r12 = (a10 * a02 - a00 * a12) * invDet;
+		final float r20 = c02 * invDet;
+		final float r21 = (a20 * a01 - a00 * a21) * invDet;
+		final float r22 = (a00 * a11 - a10 * a01) * invDet;
+
+		m[M00] = r00;
+		m[M01] = r01;
+		m[M02] = r02;
+		m[M10] = r10;
+		m[M11] = r11;
+		m[M12] = r12;
+		m[M20] = r20;
+		m[M21] = r21;
+		m[M22] = r22;
+
+		m[M03] = -(r00 * tx + r01 * ty + r02 * tz);
+		m[M13] = -(r10 * tx + r11 * ty + r12 * tz);
+		m[M23] = -(r20 * tx + r21 * ty + r22 * tz);
+		return this;
+	}
+
+	/**
+	 * Transforms the given point by this transform.
+	 *
+	 * @param v
+	 *            - The point, receives the result
+	 * @return The provided vector for chaining
+	 */
+	public Vec3f transformPoint(Vec3f v) {
+		final float x = v.x(), y = v.y(), z = v.z();
+		return v.set(m[M00] * x + m[M01] * y + m[M02] * z + m[M03], m[M10]
+				* x + m[M11] * y + m[M12] * z + m[M13], m[M20] * x + m[M21]
+				* y + m[M22] * z + m[M23]);
+	}
+
+	/**
+	 * Transforms the given direction by the 3x3 part of this transform, so
+	 * translation is not applied.
+	 *
+	 * @param v
+	 *            - The direction, receives the result
+	 * @return The provided vector for chaining
+	 */
+	public Vec3f transformDirection(Vec3f v) {
+		final float x = v.x(), y = v.y(), z = v.z();
+		return v.set(m[M00] * x + m[M01] * y + m[M02] * z, m[M10] * x
+				+ m[M11] * y + m[M12] * z, m[M20] * x + m[M21] * y + m[M22]
+				* z);
+	}
+
+	@Override
+	public String toString() {
+		return "[" + m[M00] + "|" + m[M01] + "|" + m[M02] + "|" + m[M03]
+				+ "]\n" + "[" + m[M10] + "|" + m[M11] + "|" + m[M12] + "|"
+				+ m[M13] + "]\n" + "[" + m[M20] + "|" + m[M21] + "|" + m[M22]
+				+ "|" + m[M23] + "]\n";
+	}
+
+}
@@ -0,0 +1,273 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import java.nio.FloatBuffer;
+
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * A stack of column major 4 by 4 matrices for walking transform hierarchies,
+ * in the manner of OpenGL's glPushMatrix/glPopMatrix. All matrices live in one
+ * float array which is allocated up front, so pushing, popping and
+ * transforming the top never allocates. For example:
+ *
+ * <pre>
+ * stack.push().translate(pos).rotate(rot);
+ * stack.store(buffer, 0);
+ * // ... visit children ...
+ * stack.pop();
+ * </pre>
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class MatrixStack {
+
+	private final float[] stack;
+	private final int capacity;
+	private int top;
+
+	/**
+	 * Constructs a stack which can hold the given amount of matrices. The
+	 * stack starts out holding a single identity matrix.
+	 *
+	 * @param depth
+	 *            - the maximum amount of matrices on the stack
+	 */
+	public MatrixStack(int depth) {
+		this.capacity = depth;
+		this.stack = new float[depth << 4];
+		loadIdentity();
+	}
+
+	/** Constructs a stack which can hold 32 matrices */
+	public MatrixStack() {
+		this(32);
+	}
+
+	/** @return the amount of matrices on the stack */
+	public int depth() {
+		return (top >> 4) + 1;
+	}
+
+	/** @return the maximum amount of matrices on the stack */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Duplicates the top matrix, so that it can be changed and restored later
+	 * by {@link #pop()}.
+	 *
+	 * @return This stack for the purpose of chaining methods together.
+	 * @throws SigmaException
+	 *             if the stack is full
+	 */
+	public MatrixStack push() {
+		if (top + 16 >= stack.length)
+			throw new SigmaException("matrix stack overflow");
+		System.arraycopy(stack, top, stack, top + 16, 16);
+		top += 16;
+		return this;
+	}
+
+	/**
+	 * Removes the top matrix, restoring the one below it.
+	 *
+	 * @return This stack for the purpose of chaining methods together.
+	 * @throws SigmaException
+	 *             if only the bottom matrix is left
+	 */
+	public MatrixStack pop() {
+		if (top == 0)
+			throw new SigmaException("matrix stack underflow");
+		top -= 16;
+		return this;
+	}
+
+	/**
+	 * Removes all matrices but the bottom one and sets it to identity.
+	 *
+	 * @return This stack for the purpose of chaining methods together.
+	 */
+	public MatrixStack clear() {
+		top = 0;
+		return loadIdentity();
+	}
+
+	/**
+	 * Sets the top matrix to an identity matrix.
+	 *
+	 * @return This stack for the purpose of chaining methods together.
+	 */
+	public MatrixStack loadIdentity() {
+		for (int i = top; i < top + 16; i++)
+			stack[i] = 0f;
+		stack[top + Mat4f.M00] = 1f;
+		stack[top + Mat4f.M11] = 1f;
+		stack[top + Mat4f.M22] = 1f;
+		stack[top + Mat4f.M33] = 1f;
+		return this;
+	}
+
+	/**
+	 * Sets the top matrix to the given matrix.
+	 *
+	 * @param matrix
+	 *            - The matrix. (The matrix is not modified)
+	 * @return This stack for the purpose of chaining methods together.
+	 */
+	public MatrixStack load(Mat4f matrix) {
+		System.arraycopy(matrix.m, 0, stack, top, 16);
+		return this;
+	}
+
+	/**
+	 * Postmultiplies the top matrix with the given matrix.
+	 *
+	 * @param matrix
+	 *            - The matrix. (The matrix is not modified)
+	 * @return This stack for the purpose of chaining methods together.
+	 */
+	public MatrixStack mulTop(Mat4f matrix) {
+		Mat4f.mul(stack, top, matrix.m, 0, stack, top);
+		return this;
+	}
+
+	/**
+	 * Postmultiplies the top matrix with the given affine transform.
+	 *
+	 * @param matrix
+	 *            - The transform. (The transform is not modified)
+	 * @return This stack for the purpose of chaining methods together.
+	 */
+	public MatrixStack mulTop(Mat4x3 matrix) {
+		final float[] b = matrix.m;
+		final float b00 = b[Mat4x3.M00], b10 = b[Mat4x3.M10], b20 = b[Mat4x3.M20];
+		final float b01 = b[Mat4x3.M01], b11 = b[Mat4x3.M11], b21 = b[Mat4x3.M21];
+		final float b02 = b[Mat4x3.M02], b12 = b[Mat4x3.M12], b22 = b[Mat4x3.M22];
+		final float b03 = b[Mat4x3.M03], b13 = b[Mat4x3.M13], b23 = b[Mat4x3.M23];
+		for (int i = top; i < top + 4; i++) {
+			final float a0 = stack[Mat4f.M00 + i], a1 = stack[Mat4f.M01 + i];
+			final float a2 = stack[Mat4f.M02 + i], a3 = stack[Mat4f.M03 + i];
+			stack[Mat4f.M00 + i] = a0 * b00 + a1 * b10 + a2 * b20;
+			stack[Mat4f.M01 + i] = a0 * b01 + a1 * b11 + a2 * b21;
+			stack[Mat4f.M02 + i] = a0 * b02 + a1 * b12 + a2 * b22;
+			stack[Mat4f.M03 + i] = a0 * b03 + a1 * b13 + a2 * b23 + a3;
+		}
+		return this;
+	}
+
+	/**
+	 * Postmultiplies the top matrix by a translation matrix.
+	 *
+	 * @return This stack for the purpose of chaining methods together.
+	 */
+	public MatrixStack translate(float x, float y, float z) {
+		Mat4f.translate(stack, top, x, y, z);
+		return this;
+	}
+
+	/**
+	 * Postmultiplies the top matrix by a translation matrix.
+	 *
+	 * @param translation
+	 *            - The translation vector. (Not modified)
+	 * @return This stack for the purpose of chaining methods together.
+	 */
+	public MatrixStack translate(Vec3f translation) {
+		return translate(translation.x(), translation.y(), translation.z());
+	}
+
+	/**
+	 * Postmultiplies the top matrix with the rotation of the given quaternion.
+	 *
+	 * @param rotation
+	 *            - The rotation, must be normalized. (Not modified)
+	 * @return This stack for the purpose of chaining methods together.
+	 */
+	public MatrixStack rotate(Quat rotation) {
+		Mat4f.rotate(stack, top, rotation.x(), rotation.y(), rotation.z(),
+				rotation.w());
+		return this;
+	}
+
+	/**
+	 * Postmultiplies the top matrix with a scale matrix.
+	 *
+	 * @return This stack for the purpose of chaining methods together.
+	 */
+	public MatrixStack scale(float x, float y, float z) {
+		Mat4f.scale(stack, top, x, y, z);
+		return this;
+	}
+
+	/**
+	 * Postmultiplies the top matrix with a scale matrix.
+	 *
+	 * @param scale
+	 *            - The scale vector. (Not modified)
+	 * @return This stack for the purpose of chaining methods together.
+	 */
+	public MatrixStack scale(Vec3f scale) {
+		return scale(scale.x(), scale.y(), scale.z());
+	}
+
+	/**
+	 * Copies the top matrix into the given matrix.
+	 *
+	 * @param out
+	 *            - The matrix which receives the top matrix
+	 * @return The provided matrix for chaining
+	 */
+	public Mat4f get(Mat4f out) {
+		System.arraycopy(stack, top, out.m, 0, 16);
+		return out;
+	}
+
+	/**
+	 * @return the array backing this stack; the top matrix starts at
+	 *         {@link #topOffset()}
+	 */
+	public float[] array() {
+		return stack;
+	}
+
+	/** @return the index of the top matrix in {@link #array()} */
+	public int topOffset() {
+		return top;
+	}
+
+	/**
+	 * Writes the top matrix in column major order at the current position of
+	 * the buffer and advances the position by 16, like
+	 * {@link Mat4f#store(FloatBuffer)}. This is the layout expected by
+	 * glUniformMatrix4 and glLoadMatrix.
+	 *
+	 * @param dst
+	 *            - The buffer, usually direct, with at least 16 floats
+	 *            remaining
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst) {
+		dst.put(stack, top, 16);
+		return dst;
+	}
+
+	/**
+	 * Writes the top matrix in column major order starting at the given
+	 * index. The position of the buffer is left unchanged, so a buffer kept
+	 * at position 0 can be refilled and uploaded for every node without a
+	 * flip.
+	 *
+	 * @param dst
+	 *            - The buffer, usually direct
+	 * @param index
+	 *            - The index of the first element in the buffer
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst, int index) {
+		for (int i = 0; i < 16; i++)
+			dst.put(index + i, stack[top + i]);
+		return dst;
+	}
+}
@@ -0,0 +1,230 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * An oriented bounding box given by its center, three orthonormal axes and
+ * the half size along each axis. The box tests follow Ericson's "Real-Time
+ * Collision Detection", chapter 4.4.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class OBB {
+
+	// a small bias for the separating axis test so that nearly parallel edges
+	// do not produce cross products of zero length which separate everything
+	private static final float EPSILON = 1e-6f;
+
+	/** The center */
+	public final Vec3f center = new Vec3f();
+	/** The local x axis, normalized */
+	public final Vec3f axisX = new Vec3f(1, 0, 0);
+	/** The local y axis, normalized */
+	public final Vec3f axisY = new Vec3f(0, 1, 0);
+	/** The local z axis, normalized */
+	public final Vec3f axisZ = new Vec3f(0, 0, 1);
+	/** The half size along each local axis */
+	public final Vec3f extents = new Vec3f();
+
+	/** Constructs an empty box at the origin */
+	public OBB() {
+	}
+
+	/**
+	 * @param center - The center. (Not modified)
+	 * @param extents - The half size along each local axis. (Not modified)
+	 * @param rotation - The rotation of the axes, must be normalized. (Not
+	 *            modified)
+	 */
+	public OBB(Vec3f center, Vec3f extents, Quat rotation) {
+		set(center, extents, rotation);
+	}
+
+	/**
+	 * @param center - The center. (Not modified)
+	 * @param extents - The half size along each local axis. (Not modified)
+	 * @param rotation - The rotation of the axes, must be normalized. (Not
+	 *            modified)
+	 * @return This box for chaining
+	 */
+	public OBB set(Vec3f center, Vec3f extents, Quat rotation) {
+		this.center.set(center);
+		this.extents.set(extents);
+		axisX.set(1, 0, 0).rotate(rotation);
+		axisY.set(0, 1, 0).rotate(rotation);
+		axisZ.set(0, 0, 1).rotate(rotation);
+		return this;
+	}
+
+	/**
+	 * Sets this box to the given axis aligned box transformed by the given
+	 * matrix. The matrix may scale but must not shear.
+	 * @param box - The box. (Not modified)
+	 * @param matrix - The matrix. (Not modified)
+	 * @return This box for chaining
+	 */
+	public OBB set(AABB box, Mat4f matrix) {
+		final float[] m = matrix.m;
+		final float cx = (box.min.x() + box.max.x()) * 0.5f;
+		final float cy = (box.min.y() + box.max.y()) * 0.5f;
+		final float cz = (box.min.z() + box.max.z()) * 0.5f;
+		center.set(m[Mat4f.M00] * cx + m[Mat4f.M01] * cy + m[Mat4f.M02] * cz + m[Mat4f.M03], m[Mat4f.M10] * cx
+				+ m[Mat4f.M11] * cy + m[Mat4f.M12] * cz + m[Mat4f.M13], m[Mat4f.M20] * cx + m[Mat4f.M21] * cy
+				+ m[Mat4f.M22] * cz + m[Mat4f.M23]);
+		axisX.set(m[Mat4f.M00], m[Mat4f.M10], m[Mat4f.M20]);
+		axisY.set(m[Mat4f.M01], m[Mat4f.M11], m[Mat4f.M21]);
+		axisZ.set(m[Mat4f.M02], m[Mat4f.M12], m[Mat4f.M22]);
+		final float sx = axisX.length(), sy = axisY.length(), sz = axisZ.length();
+		axisX.normalize();
+		axisY.normalize();
+		axisZ.normalize();
+		extents.set((box.max.x() - box.min.x()) * 0.5f * sx, (box.max.y() - box.min.y()) * 0.5f * sy,
+				(box.max.z() - box.min.z()) * 0.5f * sz);
+		return this;
+	}
+
+	/** @return This box set to a copy of the given box */
+	public OBB set(OBB other) {
+		center.set(other.center);
+		axisX.set(other.axisX);
+		axisY.set(other.axisY);
+		axisZ.set(other.axisZ);
+		extents.set(other.extents);
+		return this;
+	}
+
+	/** @return This box set to the given axis aligned box */
+	public OBB set(AABB box) {
+		box.getCenter(center);
+		box.getExtents(extents);
+		axisX.set(1, 0, 0);
+		axisY.set(0, 1, 0);
+		axisZ.set(0, 0, 1);
+		return this;
+	}
+
+	/**
+	 * Moves the given point to the closest point inside or on the box
+	 * @param point - The point, which receives the result
+	 * @return The provided vector for chaining
+	 */
+	public Vec3f closestPoint(Vec3f point) {
+		final float dx = point.x() - center.x(), dy = point.y() - center.y(), dz = point.z() - center.z();
+		final float u = MC.clamp(axisX.dot(dx, dy, dz), -extents.x(), extents.x());
+		final float v = MC.clamp(axisY.dot(dx, dy, dz), -extents.y(), extents.y());
+		final float w = MC.clamp(axisZ.dot(dx, dy, dz), -extents.z(), extents.z());
+		return point.set(center).mulAdd(axisX, u).mulAdd(axisY, v).mulAdd(axisZ, w);
+	}
+
+	/** @return true if the point is inside or on the box */
+	public boolean contains(float x, float y, float z) {
+		final float dx = x - center.x(), dy = y - center.y(), dz = z - center.z();
+		return Math.abs(axisX.dot(dx, dy, dz)) <= extents.x() && Math.abs(axisY.dot(dx, dy, dz)) <= extents.y()
+				&& Math.abs(axisZ.dot(dx, dy, dz)) <= extents.z();
+	}
+
+	/** @return true if the point is inside or on the box */
+	public boolean contains(Vec3f point) {
+		return contains(point.x(), point.y(), point.z());
+	}
+
+	/** @return true if the sphere overlaps or touches this box */
+	public boolean intersects(Sphere sphere) {
+		final Vec3f c = sphere.center;
+		final float dx = c.x() - center.x(), dy = c.y() - center.y(), dz = c.z() - center.z();
+		final float u = Math.abs(axisX.dot(dx, dy, dz)) - extents.x();
+		final float v = Math.abs(axisY.dot(dx, dy, dz)) - extents.y();
+		final float w = Math.abs(axisZ.dot(dx, dy, dz)) - extents.z();
+		final float d2 = (u > 0f ? u * u : 0f) + (v > 0f ? v * v : 0f) + (w > 0f ? w * w : 0f);
+		return d2 <= sphere.radius * sphere.radius;
+	}
+
+	/**
+	 * Tests the boxes for overlap with the separating axis test over the 3
+	 * axes of each box and the 9 cross products of their axes
+	 * @return true if the boxes overlap or touch
+	 */
+	public boolean intersects(OBB other) {
+		final Vec3f a0 = axisX, a1 = axisY, a2 = axisZ;
+		final Vec3f b0 = other.axisX, b1 = other.axisY, b2 = other.axisZ;
+		final float ea0 = extents.x(), ea1 = extents.y(), ea2 = extents.z();
+		final float eb0 = other.extents.x(), eb1 = other.extents.y(), eb2 = other.extents.z();
+		// rotation expressing the other box in the frame of this box
+		final float r00 = a0.dot(b0), r01 = a0.dot(b1), r02 = a0.dot(b2);
+		final float r10 = a1.dot(b0), r11 = a1.dot(b1), r12 = a1.dot(b2);
+		final float r20 = a2.dot(b0), r21 = a2.dot(b1), r22 = a2.dot(b2);
+		final float q00 = Math.abs(r00) + EPSILON, q01 = Math.abs(r01) + EPSILON, q02 = Math.abs(r02) + EPSILON;
+		final float q10 = Math.abs(r10) + EPSILON, q11 = Math.abs(r11) + EPSILON, q12 = Math.abs(r12) + EPSILON;
+		final float q20 = Math.abs(r20) + EPSILON, q21 = Math.abs(r21) + EPSILON, q22 = Math.abs(r22) + EPSILON;
+		// translation in the frame of this box
+		final float dx = other.center.x() - center.x(), dy = other.center.y() - center.y(), dz = other.center.z()
+				- center.z();
+		final float t0 = a0.dot(dx, dy, dz), t1 = a1.dot(dx, dy, dz), t2 = a2.dot(dx, dy, dz);
+
+		if (Math.abs(t0) > ea0 + eb0 * q00 + eb1 * q01 + eb2 * q02)
+			return false;
+		if (Math.abs(t1) > ea1 + eb0 * q10 + eb1 * q11 + eb2 * q12)
+			return false;
+		if (Math.abs(t2) > ea2 + eb0 * q20 + eb1 * q21 + eb2 * q22)
+			return false;
+
+		if (Math.abs(t0 * r00 + t1 * r10 + t2 * r20) > ea0 * q00 + ea1 * q10 + ea2 * q20 + eb0)
+			return false;
+		if (Math.abs(t0 * r01 + t1 * r11 + t2 * r21) > ea0 * q01 + ea1 * q11 + ea2 * q21 + eb1)
+			return false;
+		if (Math.abs(t0 * r02 + t1 * r12 + t2 * r22) > ea0 * q02 + ea1 * q12 + ea2 * q22 + eb2)
+			return false;
+
+		// a0 x b0, a0 x b1, a0 x b2
+		if (Math.abs(t2 * r10 - t1 * r20) > ea1 * q20 + ea2 * q10 + eb1 * q02 + eb2 * q01)
+			return false;
+		if (Math.abs(t2 * r11 - t1 * r21) > ea1 * q21 + ea2 * q11 + eb0 * q02 + eb2 * q00)
+			return false;
+		if (Math.abs(t2 * r12 - t1 * r22) > ea1 * q22 + ea2 * q12 + eb0 * q01 + eb1 * q00)
+			return false;
+		// a1 x b0, a1 x b1, a1 x b2
+		if (Math.abs(t0 * r20 - t2 * r00) > ea0 * q20 + ea2 * q00 + eb1 * q12 + eb2 * q11)
+			return false;
+		if (Math.abs(t0 * r21 - t2 * r01) > ea0 * q21 + ea2 * q01 + eb0 * q12 + eb2 * q10)
+			return false;
+		if (Math.abs(t0 * r22 - t2 * r02) > ea0 * q22 + ea2 * q02 + eb0 * q11 + eb1 * q10)
+			return false;
+		// a2 x b0, a2 x b1, a2 x b2
+		if (Math.abs(t1 * r00 - t0 * r10) > ea0 * q10 + ea1 * q00 + eb1 * q22 + eb2 * q21)
+			return false;
+		if (Math.abs(t1 * r01 - t0 * r11) > ea0 * q11 + ea1 * q01 + eb0 * q22 + eb2 * q20)
+			return false;
+		if (Math.abs(t1 * r02 - t0 * r12) > ea0 * q12 + ea1 * q02 + eb0 * q21 + eb1 * q20)
+			return false;
+		return true;
+	}
+
+	/** @return true if the axis aligned box overlaps or touches this box */
+	public boolean intersects(AABB box) {
+		return intersects(TMP.get().set(box));
+	}
+
+	/**
+	 * Sets the given axis aligned box to the bounds of this box
+	 * @param out - The box which receives the bounds
+	 * @return The provided box for chaining
+	 */
+	public AABB getBounds(AABB out) {
+		final float ex = extents.x(), ey = extents.y(), ez = extents.z();
+		final float fx = Math.abs(axisX.x()) * ex + Math.abs(axisY.x()) * ey + Math.abs(axisZ.x()) * ez;
+		final float fy = Math.abs(axisX.y()) * ex + Math.abs(axisY.y()) * ey + Math.abs(axisZ.y()) * ez;
+		final float fz = Math.abs(axisX.z()) * ex + Math.abs(axisY.z()) * ey + Math.abs(axisZ.z()) * ez;
+		return out.set(center.x() - fx, center.y() - fy, center.z() - fz, center.x() + fx, center.y() + fy,
+				center.z() + fz);
+	}
+
+	private static final ThreadLocal<OBB> TMP = new ThreadLocal<OBB>() {
+		@Override
+		protected OBB initialValue() {
+			return new OBB();
+		}
+	};
+
+	@Override
+	public String toString() {
+		return "[" + center + ", " + extents + " | " + axisX + ", " + axisY + ", " + axisZ + "]";
+	}
+}
@@ -0,0 +1,143 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * A plane given by a unit normal and a distance: the points p for which
+ * normal . p + d = 0. The signed distance of a point is positive on the side
+ * the normal points to, which for the planes of a {@link Frustum} is inside.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Plane {
+
+	/** The unit normal */
+	public final Vec3f normal = new Vec3f(0, 1, 0);
+	/** The signed distance of the origin from the plane */
+	public float d;
+
+	/** Constructs the xz plane, facing +y */
+	public Plane() {
+	}
+
+	/**
+	 * @param normal - The normal, must be normalized. (Not modified)
+	 * @param d - The signed distance of the origin from the plane
+	 */
+	public Plane(Vec3f normal, float d) {
+		this.normal.set(normal);
+		this.d = d;
+	}
+
+	/**
+	 * @param normal - The normal, must be normalized. (Not modified)
+	 * @param point - A point on the plane. (Not modified)
+	 */
+	public Plane(Vec3f normal, Vec3f point) {
+		set(normal, point);
+	}
+
+	/**
+	 * Sets the plane to ax + by + cz + d = 0, normalizing the equation so that
+	 * (a, b, c) is a unit normal. A zero normal is left unnormalized.
+	 * @return This plane for chaining
+	 */
+	public Plane set(float a, float b, float c, float d) {
+		final float len2 = a * a + b * b + c * c;
+		final float inv = len2 == 0f ? 1f : 1f / (float) Math.sqrt(len2);
+		normal.set(a * inv, b * inv, c * inv);
+		this.d = d * inv;
+		return this;
+	}
+
+	/**
+	 * @param normal - The normal, must be normalized. (Not modified)
+	 * @param point - A point on the plane. (Not modified)
+	 * @return This plane for chaining
+	 */
+	public Plane set(Vec3f normal, Vec3f point) {
+		this.normal.set(normal);
+		d = -normal.dot(point);
+		return this;
+	}
+
+	/**
+	 * Sets the plane through three points, facing the side from which they
+	 * appear counter-clockwise
+	 * @return This plane for chaining
+	 */
+	public Plane set(Vec3f p1, Vec3f p2, Vec3f p3) {
+		final float ux = p2.x() - p1.x(), uy = p2.y() - p1.y(), uz = p2.z() - p1.z();
+		final float vx = p3.x() - p1.x(), vy = p3.y() - p1.y(), vz = p3.z() - p1.z();
+		final float a = uy * vz - uz * vy, b = uz * vx - ux * vz, c = ux * vy - uy * vx;
+		return set(a, b, c, -(a * p1.x() + b * p1.y() + c * p1.z()));
+	}
+
+	/**
+	 * Copies the given plane
+	 * @return This plane for chaining
+	 */
+	public Plane set(Plane other) {
+		normal.set(other.normal);
+		d = other.d;
+		return this;
+	}
+
+	/** @return the signed distance of the point from the plane */
+	public float distance(float x, float y, float z) {
+		return normal.x() * x + normal.y() * y + normal.z() * z + d;
+	}
+
+	/** @return the signed distance of the point from the plane */
+	public float distance(Vec3f point) {
+		return distance(point.x(), point.y(), point.z());
+	}
+
+	/**
+	 * Moves the given point onto the plane along the normal
+	 * @param point - The point, which receives the result
+	 * @return The provided vector for chaining
+	 */
+	public Vec3f project(Vec3f point) {
+		return point.mulAdd(normal, -distance(point));
+	}
+
+	/** @return the plane facing the other way */
+	public Plane flip() {
+		normal.mul(-1f);
+		d = -d;
+		return this;
+	}
+
+	/**
+	 * Transforms this plane by the given affine matrix. The normal is
+	 * transformed by the cofactor matrix, which is the inverse transpose up to
+	 * scale, so this works for non-uniform scale without inverting the matrix.
+	 * @param matrix - The matrix. (Not modified)
+	 * @return This plane for chaining
+	 */
+	public Plane mul(Mat4f matrix) {
+		final float[] m = matrix.m;
+		final float a00 = m[Mat4f.M00], a01 = m[Mat4f.M01], a02 = m[Mat4f.M02];
+		final float a10 = m[Mat4f.M10], a11 = m[Mat4f.M11], a12 = m[Mat4f.M12];
+		final float a20 = m[Mat4f.M20], a21 = m[Mat4f.M21], a22 = m[Mat4f.M22];
+		final float c00 = a11 * a22 - a12 * a21, c01 = a12 * a20 - a10 * a22, c02 = a10 * a21 - a11 * a20;
+		final float c10 = a02 * a21 - a01 * a22, c11 = a00 * a22 - a02 * a20, c12 = a01 * a20 - a00 * a21;
+		final float c20 = a01 * a12 - a02 * a11, c21 = a02 * a10 - a00 * a12, c22 = a00 * a11 - a01 * a10;
+		final float det = a00 * c00 + a01 * c01 + a02 * c02;
+		final float s = det < 0f ? -1f : 1f;
+		final float nx = normal.x(), ny = normal.y(), nz = normal.z();
+		// a point on the plane, moved by the matrix
+		final float px = -d * nx, py = -d * ny, pz = -d * nz;
+		final float qx = a00 * px + a01 * py + a02 * pz + m[Mat4f.M03];
+		final float qy = a10 * px + a11 * py + a12 * pz + m[Mat4f.M13];
+		final float qz = a20 * px + a21 * py + a22 * pz + m[Mat4f.M23];
+		final float a = s * (c00 * nx + c01 * ny + c02 * nz);
+		final float b = s * (c10 * nx + c11 * ny + c12 * nz);
+		final float c = s * (c20 * nx + c21 * ny + c22 * nz);
+		return set(a, b, c, -(a * qx + b * qy + c * qz));
+	}
+
+	@Override
+	public String toString() {
+		return "[" + normal + ", " + d + "]";
+	}
+}
@@ -0,0 +1,571 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * Encoders and decoders for compact vertex and animation data: IEEE 754 half
+ * floats, 16 bit signed and unsigned normalized integers and normals packed
+ * into 10-10-10-2 integers, the layout of GL_INT_2_10_10_10_REV, as well as
+ * quaternions packed into 32 or 48 bits with the smallest three method. Each
+ * format documents the largest error a value picks up by being encoded and
+ * decoded again, so that tests can check against it.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Quantize {
+
+	// Half floats
+
+	/** The largest finite half float */
+	static public final float HALF_MAX = 65504f;
+	/** The smallest positive normal half float, 2^-14 */
+	static public final float HALF_MIN_NORMAL = 6.1035156e-5f;
+	/**
+	 * The largest relative error of a round trip through a half float for
+	 * magnitudes between {@link #HALF_MIN_NORMAL} and {@link #HALF_MAX}, 2^-11
+	 */
+	static public final float HALF_EPSILON = 1f / 2048f;
+	/**
+	 * The largest absolute error of a round trip through a half float for
+	 * magnitudes below {@link #HALF_MIN_NORMAL}, 2^-25
+	 */
+	static public final float HALF_SUBNORMAL_ERROR = 1f / 33554432f;
+
+	/**
+	 * Encodes a float as a half float, rounding to the nearest even value.
+	 * Magnitudes above {@link #HALF_MAX} become infinity, NaN stays NaN.
+	 * @return the bits of the half float
+	 */
+	static public short toHalf(float value) {
+		final int bits = Float.floatToRawIntBits(value);
+		final int sign = (bits >>> 16) & 0x8000;
+		final int abs = bits & 0x7fffffff;
+		if (abs >= 0x7f800000)
+			return (short) (sign | (abs > 0x7f800000 ? 0x7e00 : 0x7c00));
+		if (abs >= 0x477ff000)
+			return (short) (sign | 0x7c00);
+		if (abs >= 0x38800000) {
+			int h = (abs - 0x38000000) >>> 13;
+			final int rem = abs & 0x1fff;
+			if (rem > 0x1000 || (rem == 0x1000 && (h & 1) != 0))
+				h++;
+			return (short) (sign | h);
+		}
+		if (abs < 0x33000000)
+			return (short) sign;
+		final int shift = 126 - (abs >>> 23);
+		final int mantissa = (abs & 0x7fffff) | 0x800000;
+		int h = mantissa >>> shift;
+		final int rem = mantissa & ((1 << shift) - 1);
+		final int half = 1 << (shift - 1);
+		if (rem > half || (rem == half && (h & 1) != 0))
+			h++;
+		return (short) (sign | h);
+	}
+
+	/** @return the float value of the given half float bits, exactly */
+	static public float fromHalf(short half) {
+		final int h = half & 0xffff;
+		final int sign = (h & 0x8000) << 16;
+		final int exponent = h & 0x7c00;
+		final int mantissa = h & 0x3ff;
+		if (exponent == 0x7c00)
+			return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+		if (exponent != 0)
+			return Float.intBitsToFloat(sign | (((h & 0x7fff) << 13) + 0x38000000));
+		final float f = mantissa * (1f / 16777216f);
+		return sign != 0 ? -f : f;
+	}
+
+	/**
+	 * Encodes count floats as half floats
+	 * @param src - The floats. (Not modified)
+	 * @param dst - The array which receives the half floats
+	 */
+	static public void toHalf(float[] src, int srcOffset, short[] dst,
+			int dstOffset, int count) {
+		for (int i = 0; i < count; i++)
+			dst[dstOffset + i] = toHalf(src[srcOffset + i]);
+	}
+
+	/**
+	 * Decodes count half floats
+	 * @param src - The half floats. (Not modified)
+	 * @param dst - The array which receives the floats
+	 */
+	static public void fromHalf(short[] src, int srcOffset, float[] dst,
+			int dstOffset, int count) {
+		for (int i = 0; i < count; i++)
+			dst[dstOffset + i] = fromHalf(src[srcOffset + i]);
+	}
+
+	/**
+	 * Encodes count vectors as x, y, z triples of half floats
+	 * @param src - The vectors. (Not modified)
+	 * @param offset - The index of the first vector in src
+	 * @param dst - The array which receives count * 3 half floats
+	 */
+	static public void toHalf(Vec3f[] src, int offset, int count, short[] dst,
+			int dstOffset) {
+		for (int i = offset; i < offset + count; i++, dstOffset += 3) {
+			final Vec3f v = src[i];
+			dst[dstOffset] = toHalf(v.x());
+			dst[dstOffset + 1] = toHalf(v.y());
+			dst[dstOffset + 2] = toHalf(v.z());
+		}
+	}
+
+	/**
+	 * Decodes x, y, z triples of half floats into existing vectors
+	 * @param src - The half floats. (Not modified)
+	 * @param dst - The vectors which receive the values
+	 * @param offset - The index of the first vector in dst
+	 */
+	static public void fromHalf(short[] src, int srcOffset, Vec3f[] dst,
+			int offset, int count) {
+		for (int i = offset; i < offset + count; i++, srcOffset += 3)
+			dst[i].set(fromHalf(src[srcOffset]), fromHalf(src[srcOffset + 1]),
+					fromHalf(src[srcOffset + 2]));
+	}
+
+	// Normalized integers
+
+	/**
+	 * The largest absolute error of a round trip through a snorm16 for values
+	 * in [-1, 1], half a step of 1 / 32767 plus float rounding
+	 */
+	static public final float SNORM16_ERROR = 0.5f / 32767f + 0x1p-23f;
+	/**
+	 * The largest absolute error of a round trip through a unorm16 for values
+	 * in [0, 1], half a step of 1 / 65535 plus float rounding
+	 */
+	static public final float UNORM16_ERROR = 0.5f / 65535f + 0x1p-23f;
+	/**
+	 * The largest absolute error of a round trip through a 10 bit signed
+	 * normalized component for values in [-1, 1], half a step of 1 / 511
+	 * plus float rounding
+	 */
+	static public final float SNORM10_ERROR = 0.5f / 511f + 0x1p-23f;
+
+	/** @return the value clamped to [-1, 1] as a 16 bit signed normalized integer */
+	static public short toSnorm16(float value) {
+		if (value >= 1f)
+			return 32767;
+		if (value <= -1f)
+			return -32767;
+		return (short) Math.round(value * 32767f);
+	}
+
+	/** @return the value of a 16 bit signed normalized integer, in [-1, 1] */
+	static public float fromSnorm16(short value) {
+		return Math.max(value / 32767f, -1f);
+	}
+
+	/** @return the value clamped to [0, 1] as a 16 bit unsigned normalized integer */
+	static public short toUnorm16(float value) {
+		if (value >= 1f)
+			return (short) 65535;
+		if (!(value > 0f))
+			return 0;
+		return (short) Math.round(value * 65535f);
+	}
+
+	/** @return the value of a 16 bit unsigned normalized integer, in [0, 1] */
+	static public float fromUnorm16(short value) {
+		return (value & 0xffff) / 65535f;
+	}
+
+	/**
+	 * Encodes count floats as 16 bit signed normalized integers
+	 * @param src - The floats, clamped to [-1, 1]. (Not modified)
+	 * @param dst - The array which receives the integers
+	 */
+	static public void toSnorm16(float[] src, int srcOffset, short[] dst,
+			int dstOffset, int count) {
+		for (int i = 0; i < count; i++)
+			dst[dstOffset + i] = toSnorm16(src[srcOffset + i]);
+	}
+
+	/**
+	 * Decodes count 16 bit signed normalized integers
+	 * @param src - The integers. (Not modified)
+	 * @param dst - The array which receives the floats
+	 */
+	static public void fromSnorm16(short[] src, int srcOffset, float[] dst,
+			int dstOffset, int count) {
+		for (int i = 0; i < count; i++)
+			dst[dstOffset + i] = fromSnorm16(src[srcOffset + i]);
+	}
+
+	/**
+	 * Encodes count floats as 16 bit unsigned normalized integers
+	 * @param src - The floats, clamped to [0, 1]. (Not modified)
+	 * @param dst - The array which receives the integers
+	 */
+	static public void toUnorm16(float[] src, int srcOffset, short[] dst,
+			int dstOffset, int count) {
+		for (int i = 0; i < count; i++)
+			dst[dstOffset + i] = toUnorm16(src[srcOffset + i]);
+	}
+
+	/**
+	 * Decodes count 16 bit unsigned normalized integers
+	 * @param src - The integers. (Not modified)
+	 * @param dst - The array which receives the floats
+	 */
+	static public void fromUnorm16(short[] src, int srcOffset, float[] dst,
+			int dstOffset, int count) {
+		for (int i = 0; i < count; i++)
+			dst[dstOffset + i] = fromUnorm16(src[srcOffset + i]);
+	}
+
+	/**
+	 * Encodes count vectors as x, y, z triples of 16 bit signed normalized
+	 * integers, for unit vectors such as normals and tangents
+	 * @param src - The vectors, components clamped to [-1, 1]. (Not modified)
+	 * @param offset - The index of the first vector in src
+	 * @param dst - The array which receives count * 3 integers
+	 */
+	static public void toSnorm16(Vec3f[] src, int offset, int count,
+			short[] dst, int dstOffset) {
+		for (int i = offset; i < offset + count; i++, dstOffset += 3) {
+			final Vec3f v = src[i];
+			dst[dstOffset] = toSnorm16(v.x());
+			dst[dstOffset + 1] = toSnorm16(v.y());
+			dst[dstOffset + 2] = toSnorm16(v.z());
+		}
+	}
+
+	/**
+	 * Decodes x, y, z triples of 16 bit signed normalized integers into
+	 * existing vectors
+	 * @param src - The integers. (Not modified)
+	 * @param dst - The vectors which receive the values
+	 * @param offset - The index of the first vector in dst
+	 */
+	static public void fromSnorm16(short[] src, int srcOffset, Vec3f[] dst,
+			int offset, int count) {
+		for (int i = offset; i < offset + count; i++, srcOffset += 3)
+			dst[i].set(fromSnorm16(src[srcOffset]),
+					fromSnorm16(src[srcOffset + 1]),
+					fromSnorm16(src[srcOffset + 2]));
+	}
+
+	// 10-10-10-2
+
+	/**
+	 * Packs a normal into 10 bit signed normalized x, y and z components and
+	 * a 2 bit w component, with x in the lowest bits. This is the layout of
+	 * GL_INT_2_10_10_10_REV, so the result can be uploaded as is.
+	 * @param x - The x-component, clamped to [-1, 1]
+	 * @param y - The y-component, clamped to [-1, 1]
+	 * @param z - The z-component, clamped to [-1, 1]
+	 * @param w - The w-component, a signed integer in [-2, 1], commonly the
+	 *            handedness of a tangent frame
+	 * @return the packed normal
+	 */
+	static public int packNormal(float x, float y, float z, int w) {
+		return (snorm10(x) & 0x3ff) | (snorm10(y) & 0x3ff) << 10
+				| (snorm10(z) & 0x3ff) << 20 | w << 30;
+	}
+
+	/** @return the normal packed into 10-10-10-2 bits, with w = 0 */
+	static public int packNormal(Vec3f normal) {
+		return packNormal(normal.x(), normal.y(), normal.z(), 0);
+	}
+
+	/**
+	 * Unpacks the x, y and z components of a 10-10-10-2 normal
+	 * @param packed - The packed normal
+	 * @param out - The vector which receives the normal
+	 * @return The provided vector for chaining
+	 */
+	static public Vec3f unpackNormal(int packed, Vec3f out) {
+		return out.set(fromSnorm10((packed << 22) >> 22),
+				fromSnorm10((packed << 12) >> 22),
+				fromSnorm10((packed << 2) >> 22));
+	}
+
+	/** @return the signed 2 bit w-component of a 10-10-10-2 normal */
+	static public int unpackW(int packed) {
+		return packed >> 30;
+	}
+
+	/**
+	 * Packs count normals into 10-10-10-2 integers, with w = 0
+	 * @param src - The normals. (Not modified)
+	 * @param offset - The index of the first normal in src
+	 * @param dst - The array which receives the packed normals
+	 */
+	static public void packNormals(Vec3f[] src, int offset, int count,
+			int[] dst, int dstOffset) {
+		for (int i = 0; i < count; i++)
+			dst[dstOffset + i] = packNormal(src[offset + i]);
+	}
+
+	/**
+	 * Unpacks count 10-10-10-2 normals into existing vectors
+	 * @param src - The packed normals. (Not modified)
+	 * @param dst - The vectors which receive the normals
+	 * @param offset - The index of the first vector in dst
+	 */
+	static public void unpackNormals(int[] src, int srcOffset, Vec3f[] dst,
+			int offset, int count) {
+		for (int i = 0; i < count; i++)
+			unpackNormal(src[srcOffset + i], dst[offset + i]);
+	}
+
+	/**
+	 * Packs count normals from a float stream into 10-10-10-2 integers, with
+	 * w = 0. The i-th normal is read from the three floats starting at
+	 * srcOffset + i * srcStride, so the normals may be interleaved with other
+	 * vertex attributes.
+	 * @param src - The float stream. (Not modified)
+	 * @param dst - The array which receives the packed normals
+	 */
+	static public void packNormals(float[] src, int srcOffset, int srcStride,
+			int[] dst, int dstOffset, int count) {
+		for (int i = 0, s = srcOffset; i < count; i++, s += srcStride)
+			dst[dstOffset + i] = packNormal(src[s], src[s + 1], src[s + 2], 0);
+	}
+
+	/**
+	 * Unpacks count 10-10-10-2 normals into a float stream. The i-th normal
+	 * is written to the three floats starting at dstOffset + i * dstStride.
+	 * @param src - The packed normals. (Not modified)
+	 * @param dst - The float stream which receives the normals
+	 */
+	static public void unpackNormals(int[] src, int srcOffset, float[] dst,
+			int dstOffset, int dstStride, int count) {
+		for (int i = 0, d = dstOffset; i < count; i++, d += dstStride) {
+			final int packed = src[srcOffset + i];
+			dst[d] = fromSnorm10((packed << 22) >> 22);
+			dst[d + 1] = fromSnorm10((packed << 12) >> 22);
+			dst[d + 2] = fromSnorm10((packed << 2) >> 22);
+		}
+	}
+
+	// Smallest three quaternions
+
+	/**
+	 * The largest angle in radians between a normalized quaternion and its
+	 * round trip through {@link #packQuat32(Quat)}, about 0.28 degrees
+	 */
+	static public final float QUAT32_MAX_ANGLE = maxQuatAngle(10);
+	/**
+	 * The largest angle in radians between a normalized quaternion and its
+	 * round trip through {@link #packQuat48(Quat)}, about 0.009 degrees
+	 */
+	static public final float QUAT48_MAX_ANGLE = maxQuatAngle(15);
+
+	static private final float SQRT1_2 = 0.70710678118654752440f;
+
+	/**
+	 * Packs a normalized quaternion into 32 bits with the smallest three
+	 * method: the index of the largest component takes 2 bits and the other
+	 * three components, which lie in [-1/sqrt(2), 1/sqrt(2)], take 10 bits
+	 * each. The largest component is restored from the unit length, and its
+	 * sign is made positive, as q and -q are the same rotation.
+	 * @param q - The quaternion, must be normalized. (Not modified)
+	 * @return the packed quaternion
+	 * @see #QUAT32_MAX_ANGLE
+	 */
+	static public int packQuat32(Quat q) {
+		return (int) packSmallestThree(q.x(), q.y(), q.z(), q.w(), 10);
+	}
+
+	/**
+	 * Unpacks a quaternion packed by {@link #packQuat32(Quat)}
+	 * @param packed - The packed quaternion
+	 * @param out - The quaternion which receives the rotation
+	 * @return The provided quaternion for chaining
+	 */
+	static public Quat unpackQuat32(int packed, Quat out) {
+		return unpackSmallestThree(packed & 0xffffffffL, 10, out);
+	}
+
+	/**
+	 * Packs a normalized quaternion into the lower 48 bits of a long, like
+	 * {@link #packQuat32(Quat)} but with 15 bits for each of the smallest
+	 * three components. One bit is left unused.
+	 * @param q - The quaternion, must be normalized. (Not modified)
+	 * @return the packed quaternion
+	 * @see #QUAT48_MAX_ANGLE
+	 */
+	static public long packQuat48(Quat q) {
+		return packSmallestThree(q.x(), q.y(), q.z(), q.w(), 15);
+	}
+
+	/**
+	 * Unpacks a quaternion packed by {@link #packQuat48(Quat)}
+	 * @param packed - The packed quaternion
+	 * @param out - The quaternion which receives the rotation
+	 * @return The provided quaternion for chaining
+	 */
+	static public Quat unpackQuat48(long packed, Quat out) {
+		return unpackSmallestThree(packed, 15, out);
+	}
+
+	/**
+	 * Packs count normalized quaternions into 32 bits each
+	 * @param src - The quaternions. (Not modified)
+	 * @param offset - The index of the first quaternion in src
+	 * @param dst - The array which receives the packed quaternions
+	 */
+	static public void packQuats32(Quat[] src, int offset, int count,
+			int[] dst, int dstOffset) {
+		for (int i = 0; i < count; i++)
+			dst[dstOffset + i] = packQuat32(src[offset + i]);
+	}
+
+	/**
+	 * Unpacks count quaternions packed into 32 bits into existing quaternions
+	 * @param src - The packed quaternions. (Not modified)
+	 * @param dst - The quaternions which receive the rotations
+	 * @param offset - The index of the first quaternion in dst
+	 */
+	static public void unpackQuats32(int[] src, int srcOffset, Quat[] dst,
+			int offset, int count) {
+		for (int i = 0; i < count; i++)
+			unpackQuat32(src[srcOffset + i], dst[offset + i]);
+	}
+
+	/**
+	 * Packs count normalized quaternions into 48 bits each, stored as three
+	 * shorts per quaternion with the most significant short first, so that a
+	 * clip or a network packet holds no padding
+	 * @param src - The quaternions. (Not modified)
+	 * @param offset - The index of the first quaternion in src
+	 * @param dst - The array which receives count * 3 shorts
+	 */
+	static public void packQuats48(Quat[] src, int offset, int count,
+			short[] dst, int dstOffset) {
+		for (int i = offset; i < offset + count; i++, dstOffset += 3) {
+			final long packed = packQuat48(src[i]);
+			dst[dstOffset] = (short) (packed >>> 32);
+			dst[dstOffset + 1] = (short) (packed >>> 16);
+			dst[dstOffset + 2] = (short) packed;
+		}
+	}
+
+	/**
+	 * Unpacks count quaternions stored by
+	 * {@link #packQuats48(Quat[], int, int, short[], int)} into existing
+	 * quaternions
+	 * @param src - The shorts, three per quaternion. (Not modified)
+	 * @param dst - The quaternions which receive the rotations
+	 * @param offset - The index of the first quaternion in dst
+	 */
+	static public void unpackQuats48(short[] src, int srcOffset, Quat[] dst,
+			int offset, int count) {
+		for (int i = offset; i < offset + count; i++, srcOffset += 3) {
+			final long packed = (src[srcOffset] & 0xffffL) << 32
+					| (src[srcOffset + 1] & 0xffffL) << 16
+					| (src[srcOffset + 2] & 0xffffL);
+			unpackQuat48(packed, dst[i]);
+		}
+	}
+
+	static private long packSmallestThree(float x, float y, float z, float w,
+			int bits) {
+		int largest = 0;
+		float max = Math.abs(x);
+		if (Math.abs(y) > max) {
+			largest = 1;
+			max = Math.abs(y);
+		}
+		if (Math.abs(z) > max) {
+			largest = 2;
+			max = Math.abs(z);
+		}
+		if (Math.abs(w) > max)
+			largest = 3;
+		float a, b, c, l;
+		switch (largest) {
+		case 0:
+			a = y;
+			b = z;
+			c = w;
+			l = x;
+			break;
+		case 1:
+			a = x;
+			b = z;
+			c = w;
+			l = y;
+			break;
+		case 2:
+			a = x;
+			b = y;
+			c = w;
+			l = z;
+			break;
+		default:
+			a = x;
+			b = y;
+			c = z;
+			l = w;
+		}
+		if (l < 0f) {
+			a = -a;
+			b = -b;
+			c = -c;
+		}
+		final int steps = (1 << bits) - 1;
+		return (long) largest << (3 * bits)
+				| (long) smallest(a, steps) << (bits << 1)
+				| (long) smallest(b, steps) << bits | smallest(c, steps);
+	}
+
+	static private Quat unpackSmallestThree(long packed, int bits, Quat out) {
+		final int steps = (1 << bits) - 1;
+		final float a = smallest((int) (packed >>> (bits << 1)) & steps, steps);
+		final float b = smallest((int) (packed >>> bits) & steps, steps);
+		final float c = smallest((int) packed & steps, steps);
+		final float l = (float) Math.sqrt(Math.max(0f, 1f - a * a - b * b - c
+				* c));
+		switch ((int) (packed >>> (3 * bits)) & 3) {
+		case 0:
+			return out.set(l, a, b, c);
+		case 1:
+			return out.set(a, l, b, c);
+		case 2:
+			return out.set(a, b, l, c);
+		default:
+			return out.set(a, b, c, l);
+		}
+	}
+
+	/** @return a component in [-1/sqrt(2), 1/sqrt(2)] quantized to [0, steps] */
+	static private int smallest(float value, int steps) {
+		final int q = Math.round((value * SQRT1_2 + 0.5f) * steps);
+		return q < 0 ? 0 : q > steps ? steps : q;
+	}
+
+	/** @return the component in [-1/sqrt(2), 1/sqrt(2)] of a quantized value */
+	static private float smallest(int value, int steps) {
+		return (value * (2f / steps) - 1f) * SQRT1_2;
+	}
+
+	/**
+	 * Each of the smallest three is off by at most e, half a step. The
+	 * largest component then moves by at most 3e, since it is at least as
+	 * large as each of the others, so the decoded quaternion is within
+	 * sqrt(12) e of the original. For unit quaternions a distance d is a
+	 * rotation of 4 asin(d / 2).
+	 */
+	static private float maxQuatAngle(int bits) {
+		final double e = Math.sqrt(0.5) / ((1 << bits) - 1);
+		return (float) (4 * Math.asin(Math.sqrt(3) * e));
+	}
+
+	static private int snorm10(float value) {
+		if (value >= 1f)
+			return 511;
+		if (value <= -1f)
+			return -511;
+		return Math.round(value * 511f);
+	}
+
+	static private float fromSnorm10(int value) {
+		return Math.max(value / 511f, -1f);
+	}
+}
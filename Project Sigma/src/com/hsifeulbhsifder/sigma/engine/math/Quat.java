@@ -1,5 +1,8 @@
 package com.hsifeulbhsifder.sigma.engine.math;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
 /**
  * A pretty elaborate quaternion class
  * @author Zaeem
@@ -414,8 +417,8 @@ public class Quat {
 		if (d == 0f) return identity();
 		d = 1f / d;
 		float l_ang = radians;
-		float l_sin = (float)Math.sin(l_ang / 2);
-		float l_cos = (float)Math.cos(l_ang / 2);
+		float l_sin = MC.sinPoly(l_ang / 2);
+		float l_cos = MC.cosPoly(l_ang / 2);
 		return this.set(d * x * l_sin, d * y * l_sin, d * z * l_sin, l_cos).normalize();
 	}
 	/** Get the axis angle representation of the rotation in degrees. The supplied vector will receive the axis (x, y and z values)
@@ -579,7 +582,7 @@ public class Quat {
 			xx *= lx;
 			xy *= lx;
 			xz *= lx;
-			yz *= ly;
+			yx *= ly;
 			yy *= ly;
 			yz *= ly;
 			zx *= lz;
@@ -685,11 +688,20 @@ public class Quat {
 		float scale1 = alpha;
 
 		if ((1 - absDot) > 0.1) {
-			final double angle = Math.acos(absDot);
-			final double invSinTheta = 1f / Math.sin(angle);
+			final boolean fast = MC.fastMath;
+			if (fast) {
+				final float angle = MC.acosPoly(absDot);
+				final float invSinTheta = 1f / MC.sinPoly(angle);
+
+				scale0 = MC.sinPoly((1 - alpha) * angle) * invSinTheta;
+				scale1 = MC.sinPoly(alpha * angle) * invSinTheta;
+			} else {
+				final double angle = Math.acos(absDot);
+				final double invSinTheta = 1f / Math.sin(angle);
 
-			scale0 = (float)(Math.sin((1 - alpha) * angle) * invSinTheta);
-			scale1 = (float)(Math.sin((alpha * angle)) * invSinTheta);
+				scale0 = (float)(Math.sin((1 - alpha) * angle) * invSinTheta);
+				scale1 = (float)(Math.sin((alpha * angle)) * invSinTheta);
+			}
 		}
 
 		if (dot < 0.f) scale1 = -scale1;
@@ -708,18 +720,21 @@ public class Quat {
 	 * @return this quaternion */
 	public Quat exp (float alpha) {
 
+		final boolean fast = MC.fastMath;
 		float norm = length();
-		float normExp = (float)Math.pow(norm, alpha);
+		float normExp = fast ? MC.expPoly(alpha * MC.logPoly(norm)) : (float)Math.pow(norm, alpha);
 
-		float theta = (float)Math.acos(w / norm);
+		float theta = fast ? MC.acosPoly(w / norm) : (float)Math.acos(w / norm);
 
 		float coeff = 0;
 		if(Math.abs(theta) < 0.001) 
 			coeff = normExp*alpha / norm;
+		else if (fast)
+			coeff = normExp*MC.sinPoly(alpha*theta) / (norm*MC.sinPoly(theta));
 		else
 			coeff = (float)(normExp*Math.sin(alpha*theta) / (norm*Math.sin(theta)));
 
-		w = (float)(normExp*Math.cos(alpha*theta));
+		w = fast ? normExp*MC.cosPoly(alpha*theta) : (float)(normExp*Math.cos(alpha*theta));
 		x *= coeff;
 		y *= coeff;
 		z *= coeff;
@@ -745,6 +760,193 @@ public class Quat {
 		return w;
 	}
 
+	/**
+	 * Writes x, y, z and w at the current position of the buffer and advances
+	 * the position by 4
+	 * @param dst - The buffer, usually direct
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst) {
+		dst.put(x).put(y).put(z).put(w);
+		return dst;
+	}
+
+	/**
+	 * Writes x, y, z and w starting at the given index. The position of the
+	 * buffer is left unchanged.
+	 * @param dst - The buffer, usually direct
+	 * @param index - The index of the x-component in the buffer
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst, int index) {
+		dst.put(index, x).put(index + 1, y).put(index + 2, z).put(index + 3, w);
+		return dst;
+	}
+
+	/**
+	 * Writes x, y, z and w at the current position of the buffer, in the byte
+	 * order of the buffer, and advances the position by 16
+	 * @param dst - The buffer, usually direct and in native order
+	 * @return The provided buffer for chaining
+	 */
+	public ByteBuffer store(ByteBuffer dst) {
+		dst.putFloat(x).putFloat(y).putFloat(z).putFloat(w);
+		return dst;
+	}
+
+	/**
+	 * Writes x, y, z and w starting at the given byte index, in the byte order of
+	 * the buffer. The position of the buffer is left unchanged.
+	 * @param dst - The buffer, usually direct and in native order
+	 * @param byteIndex - The index of the first byte of the x-component
+	 * @return The provided buffer for chaining
+	 */
+	public ByteBuffer store(ByteBuffer dst, int byteIndex) {
+		dst.putFloat(byteIndex, x).putFloat(byteIndex + 4, y).putFloat(byteIndex + 8, z).putFloat(byteIndex + 12, w);
+		return dst;
+	}
+
+	/**
+	 * Reads x, y, z and w from the current position of the buffer and advances
+	 * the position by 4
+	 * @param src - The buffer
+	 * @return This quaternion for chaining
+	 */
+	public Quat load(FloatBuffer src) {
+		x = src.get();
+		y = src.get();
+		z = src.get();
+		w = src.get();
+		return this;
+	}
+
+	/**
+	 * Reads x, y, z and w starting at the given index. The position of the buffer
+	 * is left unchanged.
+	 * @param src - The buffer
+	 * @param index - The index of the x-component in the buffer
+	 * @return This quaternion for chaining
+	 */
+	public Quat load(FloatBuffer src, int index) {
+		x = src.get(index);
+		y = src.get(index + 1);
+		z = src.get(index + 2);
+		w = src.get(index + 3);
+		return this;
+	}
+
+	/**
+	 * Reads x, y, z and w from the current position of the buffer, in the byte
+	 * order of the buffer, and advances the position by 16
+	 * @param src - The buffer
+	 * @return This quaternion for chaining
+	 */
+	public Quat load(ByteBuffer src) {
+		x = src.getFloat();
+		y = src.getFloat();
+		z = src.getFloat();
+		w = src.getFloat();
+		return this;
+	}
+
+	/**
+	 * Reads x, y, z and w starting at the given byte index, in the byte order of
+	 * the buffer. The position of the buffer is left unchanged.
+	 * @param src - The buffer
+	 * @param byteIndex - The index of the first byte of the x-component
+	 * @return This quaternion for chaining
+	 */
+	public Quat load(ByteBuffer src, int byteIndex) {
+		x = src.getFloat(byteIndex);
+		y = src.getFloat(byteIndex + 4);
+		z = src.getFloat(byteIndex + 8);
+		w = src.getFloat(byteIndex + 12);
+		return this;
+	}
+
+	/**
+	 * Rotates packed vectors by this quaternion, the same as
+	 * {@link Vec3f#rotate(Quat)} on each of them. The source and destination
+	 * may be the same array.
+	 * @param src - The source vectors as x, y, z. (Not modified)
+	 * @param srcOffset - The index of the first source vector
+	 * @param srcStride - The amount of floats between the starts of two source
+	 *            vectors, at least 3
+	 * @param dst - The destination for the rotated vectors
+	 * @param dstOffset - The index of the first destination vector
+	 * @param dstStride - The amount of floats between the starts of two
+	 *            destination vectors, at least 3
+	 * @param count - The amount of vectors to rotate
+	 */
+	public void transformPoints(float[] src, int srcOffset, int srcStride,
+			float[] dst, int dstOffset, int dstStride, int count) {
+		final float qx = x, qy = y, qz = z, qw = w;
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += srcStride, d += dstStride) {
+			final float vx = src[s], vy = src[s + 1], vz = src[s + 2];
+			final float tx = 2f * (qy * vz - qz * vy);
+			final float ty = 2f * (qz * vx - qx * vz);
+			final float tz = 2f * (qx * vy - qy * vx);
+			dst[d] = vx + qw * tx + qy * tz - qz * ty;
+			dst[d + 1] = vy + qw * ty + qz * tx - qx * tz;
+			dst[d + 2] = vz + qw * tz + qx * ty - qy * tx;
+		}
+	}
+
+	/**
+	 * Writes count quaternions tightly packed at the current position of the
+	 * buffer in a single pass and advances the position by count * 4
+	 * @param src - The quaternions. (Not modified)
+	 * @param offset - The index of the first quaternion in src
+	 * @param count - The amount of quaternions
+	 * @param dst - The buffer, usually direct
+	 * @return The provided buffer for chaining
+	 */
+	public static FloatBuffer store(Quat[] src, int offset, int count,
+			FloatBuffer dst) {
+		for (int i = offset; i < offset + count; i++) {
+			final Quat v = src[i];
+			dst.put(v.x).put(v.y).put(v.z).put(v.w);
+		}
+		return dst;
+	}
+
+	/**
+	 * Writes count quaternions tightly packed at the current position of the
+	 * buffer, in the byte order of the buffer, and advances the position by
+	 * count * 16
+	 * @param src - The quaternions. (Not modified)
+	 * @param offset - The index of the first quaternion in src
+	 * @param count - The amount of quaternions
+	 * @param dst - The buffer, usually direct and in native order
+	 * @return The provided buffer for chaining
+	 */
+	public static ByteBuffer store(Quat[] src, int offset, int count,
+			ByteBuffer dst) {
+		for (int i = offset; i < offset + count; i++) {
+			final Quat v = src[i];
+			dst.putFloat(v.x).putFloat(v.y).putFloat(v.z).putFloat(v.w);
+		}
+		return dst;
+	}
+
+	/**
+	 * Reads count tightly packed quaternions from the current position of the
+	 * buffer into existing quaternions and advances the position by count * 4
+	 * @param src - The buffer
+	 * @param dst - The quaternions which receive the values
+	 * @param offset - The index of the first quaternion in dst
+	 * @param count - The amount of quaternions
+	 */
+	public static void load(FloatBuffer src, Quat[] dst, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			final Quat v = dst[i];
+			v.x = src.get();
+			v.y = src.get();
+			v.z = src.get();
+			v.w = src.get();
+		}
+	}
+
 	@Override
 	public String toString () {
 		return "(" + x + ", " + y + ", " + z + ", " + w + ")";
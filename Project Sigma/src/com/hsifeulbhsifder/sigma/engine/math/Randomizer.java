@@ -3,11 +3,20 @@ package com.hsifeulbhsifder.sigma.engine.math;
 import java.util.Random;
 
 /**
- * A numerical randomizer which operates on 128 bit xor shifts
+ * A numerical randomizer which operates on 128 bit xor shifts (xorshift128+).
+ * The period is 2^128 - 1, and {@link #jump()} advances a generator by 2^64
+ * steps at once, so a stream can be cut into 2^64 independent, non
+ * overlapping streams with {@link #split()}. Give each worker thread or job
+ * its own split stream: a single generator is not thread safe, and the
+ * results stay reproducible regardless of scheduling.
  * @author Zaeem
  * @version 1.0
  */
 public class Randomizer extends Random{
+	/** The jump polynomial for 2^64 steps */
+	private static final long JUMP0 = 0x8a5cd789635d2dffL;
+	private static final long JUMP1 = 0x121fd2155c472f96L;
+
 	long seed0, seed1;
 	/**
 	 * Creates a randomizer with two specified seeds
@@ -15,26 +24,406 @@ public class Randomizer extends Random{
 	 * @param seed1
 	 */
 	public Randomizer(long seed0, long seed1) {
-		this.seed0 = seed0;
-		this.seed1 = seed1;
+		setState(seed0, seed1);
+	}
+	/**
+	 * Creates a randomizer whose state is derived from a single seed
+	 * @param seed
+	 */
+	public Randomizer(long seed) {
+		setSeed(seed);
 	}
 	/**
 	 * Creates a randomizer
 	 */
 	public Randomizer() {
 		Random random = new Random();
-		seed0 = random.nextLong();
-		seed1 = random.nextLong();
+		setState(random.nextLong(), random.nextLong());
 	}
 
 	@Override
 	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public long nextLong() {
 		long s1 = seed0;
-		long s0 = seed1;
+		final long s0 = seed1;
 		seed0 = s0;
 		s1 ^= s1 << 23; // a
-		s1 = (s1 ^ s0 ^ (s1 >> 17) ^ (s0 >> 26)) + s0; // b, c
+		seed1 = s1 ^ s0 ^ (s1 >>> 18) ^ (s0 >>> 5); // b, c
+		return seed1 + s0;
+	}
+
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	/**
+	 * @return a uniformly distributed value between 0 (inclusive) and the
+	 *         bound (exclusive)
+	 */
+	@Override
+	public int nextInt(int bound) {
+		return (int) nextLong(bound);
+	}
+
+	/**
+	 * @return a uniformly distributed value between 0 (inclusive) and the
+	 *         bound (exclusive)
+	 */
+	public long nextLong(long bound) {
+		if (bound <= 0)
+			throw new IllegalArgumentException("bound must be positive");
+		for (;;) {
+			final long bits = nextLong() >>> 1;
+			final long value = bits % bound;
+			if (bits - value + (bound - 1) >= 0)
+				return value;
+		}
+	}
+
+	@Override
+	public float nextFloat() {
+		return (nextLong() >>> 40) * 0x1.0p-24f;
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+
+	/**
+	 * Fills the range with random numbers between 0.0 (inclusive) and 1.0
+	 * (exclusive). The state is kept in locals for the whole loop.
+	 * @param dst - The array which receives the numbers
+	 * @param offset - The index of the first number in dst
+	 * @param count - The amount of numbers
+	 */
+	public void nextFloats(float[] dst, int offset, int count) {
+		long state0 = seed0, state1 = seed1;
+		for (int i = offset; i < offset + count; i++) {
+			long s1 = state0;
+			final long s0 = state1;
+			state0 = s0;
+			s1 ^= s1 << 23;
+			state1 = s1 ^ s0 ^ (s1 >>> 18) ^ (s0 >>> 5);
+			dst[i] = ((state1 + s0) >>> 40) * 0x1.0p-24f;
+		}
+		seed0 = state0;
+		seed1 = state1;
+	}
+
+	/**
+	 * Fills the range with random numbers between min (inclusive) and max
+	 * (exclusive)
+	 * @param dst - The array which receives the numbers
+	 */
+	public void nextFloats(float[] dst, int offset, int count, float min,
+			float max) {
+		nextFloats(dst, offset, count);
+		final float range = max - min;
+		for (int i = offset; i < offset + count; i++)
+			dst[i] = min + dst[i] * range;
+	}
+
+	/**
+	 * @return a normally distributed number with a mean of 0 and a standard
+	 *         deviation of 1, from the ziggurat method. Unlike
+	 *         {@link #nextGaussian()} this usually costs a single call to
+	 *         {@link #nextLong()}.
+	 */
+	public float nextGaussianFloat() {
+		final long bits = nextLong();
+		final int hz = (int) (bits >>> 32);
+		final int iz = (int) bits & 127;
+		if (Math.abs(hz) < Ziggurat.kn[iz])
+			return hz * Ziggurat.wn[iz];
+		return gaussianTail(hz, iz);
+	}
+
+	/**
+	 * Marsaglia's polar method like {@link Random#nextGaussian()}, but the
+	 * second number of each pair is thrown away instead of kept for the next
+	 * call. That way the numbers only depend on the state of
+	 * {@link #setState(long, long)}, so a reseed, {@link #copy()} or
+	 * {@link #split()} continues exactly like a fresh generator would.
+	 * @return a normally distributed number with a mean of 0 and a standard
+	 *         deviation of 1
+	 */
+	@Override
+	public double nextGaussian() {
+		double v1, v2, s;
+		do {
+			v1 = 2 * nextDouble() - 1;
+			v2 = 2 * nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		} while (s >= 1 || s == 0);
+		return v1 * StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+	}
+
+	/**
+	 * Fills the range with normally distributed numbers, see
+	 * {@link #nextGaussianFloat()}
+	 * @param dst - The array which receives the numbers
+	 * @param mean - The mean of the distribution
+	 * @param deviation - The standard deviation of the distribution
+	 */
+	public void nextGaussians(float[] dst, int offset, int count, float mean,
+			float deviation) {
+		for (int i = offset; i < offset + count; i++)
+			dst[i] = mean + nextGaussianFloat() * deviation;
+	}
+
+	/**
+	 * Fills the range with triangularly distributed numbers between min
+	 * (inclusive) and max (exclusive), where values around mode are more
+	 * likely, as {@link MC#randomTriangular(float, float, float)}
+	 * @param dst - The array which receives the numbers
+	 */
+	public void nextTriangular(float[] dst, int offset, int count, float min,
+			float max, float mode) {
+		nextFloats(dst, offset, count);
+		final float d = max - min;
+		final float split = (mode - min) / d;
+		final float low = d * (mode - min), high = d * (max - mode);
+		for (int i = offset; i < offset + count; i++) {
+			final float u = dst[i];
+			dst[i] = u <= split ? min + (float) Math.sqrt(u * low) : max
+					- (float) Math.sqrt((1 - u) * high);
+		}
+	}
+
+	/**
+	 * Fills the range with unit vectors uniformly distributed over the
+	 * sphere, for example for particle directions
+	 * @param dst - The array which receives the vectors
+	 */
+	public void nextOnSphere(Vec3fArray dst, int from, int to) {
+		for (int i = from; i < to; i++) {
+			final float z = nextFloat() * 2 - 1;
+			final float phi = nextFloat() * MC.PI2;
+			final float r = (float) Math.sqrt(1 - z * z);
+			dst.set(i, r * MC.cosPoly(phi), r * MC.sinPoly(phi), z);
+		}
+	}
+
+	/**
+	 * Writes count unit vectors uniformly distributed over the sphere as x,
+	 * y, z triples. The i-th vector starts at offset + i * stride, so the
+	 * vectors may be interleaved with other attributes.
+	 * @param dst - The array which receives the vectors
+	 */
+	public void nextOnSphere(float[] dst, int offset, int stride, int count) {
+		for (int i = 0, d = offset; i < count; i++, d += stride) {
+			final float z = nextFloat() * 2 - 1;
+			final float phi = nextFloat() * MC.PI2;
+			final float r = (float) Math.sqrt(1 - z * z);
+			dst[d] = r * MC.cosPoly(phi);
+			dst[d + 1] = r * MC.sinPoly(phi);
+			dst[d + 2] = z;
+		}
+	}
+
+	/**
+	 * Writes count points uniformly distributed inside the unit disk as x, y
+	 * pairs. The i-th point starts at offset + i * stride.
+	 * @param dst - The array which receives the points
+	 */
+	public void nextInDisk(float[] dst, int offset, int stride, int count) {
+		for (int i = 0, d = offset; i < count; i++, d += stride) {
+			final float r = (float) Math.sqrt(nextFloat());
+			final float phi = nextFloat() * MC.PI2;
+			dst[d] = r * MC.cosPoly(phi);
+			dst[d + 1] = r * MC.sinPoly(phi);
+		}
+	}
+
+	/**
+	 * Fills the range with unit vectors uniformly distributed inside a cone,
+	 * for example for the spray of an emitter
+	 * @param dst - The array which receives the vectors
+	 * @param axis - The axis of the cone. (Not modified)
+	 * @param halfAngle - The angle between the axis and the side of the cone
+	 *            in radians
+	 */
+	public void nextInCone(Vec3fArray dst, int from, int to, Vec3f axis,
+			float halfAngle) {
+		float ax = axis.x(), ay = axis.y(), az = axis.z();
+		final float l = 1f / (float) Math.sqrt(ax * ax + ay * ay + az * az);
+		ax *= l;
+		ay *= l;
+		az *= l;
+		// u is perpendicular to the axis, v completes the basis
+		float ux, uy, uz;
+		if (Math.abs(ax) < 0.9f) {
+			ux = 0;
+			uy = az;
+			uz = -ay;
+		} else {
+			ux = -az;
+			uy = 0;
+			uz = ax;
+		}
+		final float lu = 1f / (float) Math.sqrt(ux * ux + uy * uy + uz * uz);
+		ux *= lu;
+		uy *= lu;
+		uz *= lu;
+		final float vx = ay * uz - az * uy, vy = az * ux - ax * uz, vz = ax
+				* uy - ay * ux;
+		final float span = 1 - MC.cosPoly(halfAngle);
+		for (int i = from; i < to; i++) {
+			final float z = 1 - nextFloat() * span;
+			final float phi = nextFloat() * MC.PI2;
+			final float r = (float) Math.sqrt(1 - z * z);
+			final float c = r * MC.cosPoly(phi), s = r * MC.sinPoly(phi);
+			dst.set(i, ux * c + vx * s + ax * z, uy * c + vy * s + ay * z, uz
+					* c + vz * s + az * z);
+		}
+	}
+
+	/**
+	 * Derives the whole state from the given seed with the MurmurHash3
+	 * finalizer, so that similar seeds still give unrelated streams
+	 */
+	@Override
+	public void setSeed(long seed) {
+		// also resets the state kept by Random itself
+		super.setSeed(seed);
+		final long s0 = murmurHash3(seed == 0 ? Long.MIN_VALUE : seed);
+		setState(s0, murmurHash3(s0));
+	}
+
+	/**
+	 * Sets the internal state directly. The state must not be all zero, in
+	 * which case seed1 is replaced by 1.
+	 * @param seed0
+	 * @param seed1
+	 */
+	public void setState(long seed0, long seed1) {
+		this.seed0 = seed0;
+		this.seed1 = seed0 == 0 && seed1 == 0 ? 1 : seed1;
+	}
+
+	/**
+	 * @param seed - 0 for the first, 1 for the second half of the state
+	 * @return a half of the internal state, to be restored with
+	 *         {@link #setState(long, long)}
+	 */
+	public long getState(int seed) {
+		return seed == 0 ? seed0 : seed1;
+	}
+
+	/**
+	 * Advances this randomizer by 2^64 calls to {@link #nextLong()}
+	 * @return This randomizer
+	 */
+	public Randomizer jump() {
+		long s0 = 0, s1 = 0;
+		for (int b = 0; b < 64; b++) {
+			if ((JUMP0 & 1L << b) != 0) {
+				s0 ^= seed0;
+				s1 ^= seed1;
+			}
+			nextLong();
+		}
+		for (int b = 0; b < 64; b++) {
+			if ((JUMP1 & 1L << b) != 0) {
+				s0 ^= seed0;
+				s1 ^= seed1;
+			}
+			nextLong();
+		}
+		seed0 = s0;
 		seed1 = s1;
-		return (int) (s1 & ((1L << bits) - 1));
+		return this;
+	}
+
+	/**
+	 * Returns a randomizer which continues the stream of this one, and jumps
+	 * this one 2^64 steps ahead. The two streams do not overlap for the next
+	 * 2^64 numbers, and the same sequence of splits from the same seed always
+	 * hands out the same streams.
+	 * @return a new randomizer
+	 */
+	public Randomizer split() {
+		final Randomizer split = new Randomizer(seed0, seed1);
+		jump();
+		return split;
+	}
+
+	/** @return a copy of this randomizer, which produces the same numbers */
+	public Randomizer copy() {
+		return new Randomizer(seed0, seed1);
+	}
+
+	/** Handles the rare cases of the ziggurat outside the rectangles */
+	private float gaussianTail(int hz, int iz) {
+		for (;;) {
+			final float x = hz * Ziggurat.wn[iz];
+			if (iz == 0) {
+				float tx, ty;
+				do {
+					tx = (float) -Math.log(1 - nextFloat()) * Ziggurat.INV_R;
+					ty = (float) -Math.log(1 - nextFloat());
+				} while (ty + ty < tx * tx);
+				return hz > 0 ? Ziggurat.R + tx : -Ziggurat.R - tx;
+			}
+			if (Ziggurat.fn[iz] + nextFloat()
+					* (Ziggurat.fn[iz - 1] - Ziggurat.fn[iz]) < Math.exp(-.5
+					* x * x))
+				return x;
+			final long bits = nextLong();
+			hz = (int) (bits >>> 32);
+			iz = (int) bits & 127;
+			if (Math.abs(hz) < Ziggurat.kn[iz])
+				return hz * Ziggurat.wn[iz];
+		}
+	}
+
+	/**
+	 * The tables of the 128 layer ziggurat for the normal distribution, after
+	 * Marsaglia and Tsang
+	 */
+	private static class Ziggurat {
+		static final float R = 3.442620f;
+		static final float INV_R = 1f / R;
+		static final int[] kn = new int[128];
+		static final float[] wn = new float[128];
+		static final float[] fn = new float[128];
+		static {
+			final double m1 = 2147483648.0, vn = 9.91256303526217e-3;
+			double dn = 3.442619855899, tn = dn;
+			final double q = vn / Math.exp(-.5 * dn * dn);
+			kn[0] = (int) ((dn / q) * m1);
+			kn[1] = 0;
+			wn[0] = (float) (q / m1);
+			wn[127] = (float) (dn / m1);
+			fn[0] = 1f;
+			fn[127] = (float) Math.exp(-.5 * dn * dn);
+			for (int i = 126; i >= 1; i--) {
+				dn = Math.sqrt(-2 * Math.log(vn / dn + Math.exp(-.5 * dn * dn)));
+				kn[i + 1] = (int) ((dn / tn) * m1);
+				tn = dn;
+				fn[i] = (float) Math.exp(-.5 * dn * dn);
+				wn[i] = (float) (dn / m1);
+			}
+		}
+	}
+
+	private static long murmurHash3(long x) {
+		x ^= x >>> 33;
+		x *= 0xff51afd7ed558ccdL;
+		x ^= x >>> 33;
+		x *= 0xc4ceb9fe1a85ec53L;
+		x ^= x >>> 33;
+		return x;
 	}
 }
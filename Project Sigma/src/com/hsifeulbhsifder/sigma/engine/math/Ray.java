@@ -0,0 +1,197 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * A ray given by its origin and direction. The intersection methods return
+ * the distance t along the ray to the first hit, in units of the direction's
+ * length, so that the hit point is origin + direction * t. A miss, or a hit
+ * only behind the origin, returns {@link #MISS}.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Ray {
+
+	/** Returned by the intersection methods when the ray misses */
+	public static final float MISS = -1f;
+
+	/** The origin */
+	public final Vec3f origin = new Vec3f();
+	/** The direction */
+	public final Vec3f direction = new Vec3f(0, 0, -1);
+
+	/** Constructs a ray from the origin along -z */
+	public Ray() {
+	}
+
+	/**
+	 * @param origin - The origin. (Not modified)
+	 * @param direction - The direction. (Not modified)
+	 */
+	public Ray(Vec3f origin, Vec3f direction) {
+		set(origin, direction);
+	}
+
+	/**
+	 * @param origin - The origin. (Not modified)
+	 * @param direction - The direction. (Not modified)
+	 * @return This ray for chaining
+	 */
+	public Ray set(Vec3f origin, Vec3f direction) {
+		this.origin.set(origin);
+		this.direction.set(direction);
+		return this;
+	}
+
+	/** @return This ray set to a copy of the given ray */
+	public Ray set(Ray other) {
+		return set(other.origin, other.direction);
+	}
+
+	/** @return the point origin + direction * t copied into the given vector */
+	public Vec3f getPoint(float t, Vec3f out) {
+		return out.set(origin).mulAdd(direction, t);
+	}
+
+	/**
+	 * Transforms the origin as a point and the direction as a direction by the
+	 * given affine matrix
+	 * @param matrix - The matrix. (Not modified)
+	 * @return This ray for chaining
+	 */
+	public Ray mul(Mat4f matrix) {
+		final float[] m = matrix.m;
+		final float ox = origin.x(), oy = origin.y(), oz = origin.z();
+		final float dx = direction.x(), dy = direction.y(), dz = direction.z();
+		origin.set(m[Mat4f.M00] * ox + m[Mat4f.M01] * oy + m[Mat4f.M02] * oz + m[Mat4f.M03], m[Mat4f.M10] * ox
+				+ m[Mat4f.M11] * oy + m[Mat4f.M12] * oz + m[Mat4f.M13], m[Mat4f.M20] * ox + m[Mat4f.M21] * oy
+				+ m[Mat4f.M22] * oz + m[Mat4f.M23]);
+		direction.set(m[Mat4f.M00] * dx + m[Mat4f.M01] * dy + m[Mat4f.M02] * dz, m[Mat4f.M10] * dx + m[Mat4f.M11]
+				* dy + m[Mat4f.M12] * dz, m[Mat4f.M20] * dx + m[Mat4f.M21] * dy + m[Mat4f.M22] * dz);
+		return this;
+	}
+
+	/** @return the distance to the plane, or {@link #MISS} if the ray is parallel to or points away from it */
+	public float intersect(Plane plane) {
+		final float denom = plane.normal.dot(direction);
+		if (denom == 0f)
+			return MISS;
+		final float t = -plane.distance(origin) / denom;
+		return t >= 0f ? t : MISS;
+	}
+
+	/** @return the distance to the sphere, 0 if the origin is inside, or {@link #MISS} */
+	public float intersect(Sphere sphere) {
+		final Vec3f c = sphere.center;
+		return intersectSphere(c.x(), c.y(), c.z(), sphere.radius);
+	}
+
+	/** @return the distance to the box, 0 if the origin is inside, or {@link #MISS} */
+	public float intersect(AABB box) {
+		return intersectBox((box.min.x() + box.max.x()) * 0.5f, (box.min.y() + box.max.y()) * 0.5f,
+				(box.min.z() + box.max.z()) * 0.5f, (box.max.x() - box.min.x()) * 0.5f,
+				(box.max.y() - box.min.y()) * 0.5f, (box.max.z() - box.min.z()) * 0.5f);
+	}
+
+	/**
+	 * Intersects the ray with the box by moving the ray into the frame of the
+	 * box and using the slab test there
+	 * @return the distance to the box, 0 if the origin is inside, or {@link #MISS}
+	 */
+	public float intersect(OBB box) {
+		final float px = origin.x() - box.center.x(), py = origin.y() - box.center.y(), pz = origin.z()
+				- box.center.z();
+		final float dx = direction.x(), dy = direction.y(), dz = direction.z();
+		return slab(box.axisX.dot(px, py, pz), box.axisY.dot(px, py, pz), box.axisZ.dot(px, py, pz),
+				box.axisX.dot(dx, dy, dz), box.axisY.dot(dx, dy, dz), box.axisZ.dot(dx, dy, dz), box.extents.x(),
+				box.extents.y(), box.extents.z());
+	}
+
+	/**
+	 * Intersects the ray with boxes kept as centers and half extents.
+	 * @param centers - The centers of the boxes. (Not modified)
+	 * @param extents - The half extents of the boxes. (Not modified)
+	 * @param t - Receives the distance to box i at t[i], or {@link #MISS}
+	 * @return the index of the closest box hit, or -1 if all were missed
+	 */
+	public int intersectBoxes(Vec3fArray centers, Vec3fArray extents, int from, int to, float[] t) {
+		final float ox = origin.x(), oy = origin.y(), oz = origin.z();
+		final float ix = 1f / direction.x(), iy = 1f / direction.y(), iz = 1f / direction.z();
+		int closest = -1;
+		float best = Float.POSITIVE_INFINITY;
+		for (int i = from; i < to; i++) {
+			final float cx = centers.x(i) - ox, cy = centers.y(i) - oy, cz = centers.z(i) - oz;
+			final float ex = extents.x(i), ey = extents.y(i), ez = extents.z(i);
+			final float x0 = (cx - ex) * ix, x1 = (cx + ex) * ix;
+			final float y0 = (cy - ey) * iy, y1 = (cy + ey) * iy;
+			final float z0 = (cz - ez) * iz, z1 = (cz + ez) * iz;
+			final float near = Math.max(Math.max(Math.min(x0, x1), Math.min(y0, y1)), Math.max(Math.min(z0, z1), 0f));
+			final float far = Math.min(Math.min(Math.max(x0, x1), Math.max(y0, y1)), Math.max(z0, z1));
+			if (near <= far) {
+				t[i] = near;
+				if (near < best) {
+					best = near;
+					closest = i;
+				}
+			} else
+				t[i] = MISS;
+		}
+		return closest;
+	}
+
+	/**
+	 * Intersects the ray with spheres kept as centers and radii.
+	 * @param centers - The centers of the spheres. (Not modified)
+	 * @param radii - The radii of the spheres. (Not modified)
+	 * @param t - Receives the distance to sphere i at t[i], or {@link #MISS}
+	 * @return the index of the closest sphere hit, or -1 if all were missed
+	 */
+	public int intersectSpheres(Vec3fArray centers, float[] radii, int from, int to, float[] t) {
+		int closest = -1;
+		float best = Float.POSITIVE_INFINITY;
+		for (int i = from; i < to; i++) {
+			final float d = intersectSphere(centers.x(i), centers.y(i), centers.z(i), radii[i]);
+			t[i] = d;
+			if (d != MISS && d < best) {
+				best = d;
+				closest = i;
+			}
+		}
+		return closest;
+	}
+
+	private float intersectSphere(float cx, float cy, float cz, float r) {
+		final float mx = origin.x() - cx, my = origin.y() - cy, mz = origin.z() - cz;
+		final float c = mx * mx + my * my + mz * mz - r * r;
+		if (c <= 0f)
+			return 0f;
+		final float a = direction.length2();
+		final float b = direction.dot(mx, my, mz);
+		if (b > 0f || a == 0f)
+			return MISS;
+		final float disc = b * b - a * c;
+		if (disc < 0f)
+			return MISS;
+		return (-b - (float) Math.sqrt(disc)) / a;
+	}
+
+	private float intersectBox(float cx, float cy, float cz, float ex, float ey, float ez) {
+		return slab(origin.x() - cx, origin.y() - cy, origin.z() - cz, direction.x(), direction.y(),
+				direction.z(), ex, ey, ez);
+	}
+
+	/** The slab test of a ray from p along d against the box of half extents e at the origin */
+	private static float slab(float px, float py, float pz, float dx, float dy, float dz, float ex, float ey,
+			float ez) {
+		final float ix = 1f / dx, iy = 1f / dy, iz = 1f / dz;
+		final float x0 = (-ex - px) * ix, x1 = (ex - px) * ix;
+		final float y0 = (-ey - py) * iy, y1 = (ey - py) * iy;
+		final float z0 = (-ez - pz) * iz, z1 = (ez - pz) * iz;
+		final float near = Math.max(Math.max(Math.min(x0, x1), Math.min(y0, y1)), Math.max(Math.min(z0, z1), 0f));
+		final float far = Math.min(Math.min(Math.max(x0, x1), Math.max(y0, y1)), Math.max(z0, z1));
+		return near <= far ? near : MISS;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + origin + " -> " + direction + "]";
+	}
+}
@@ -0,0 +1,103 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * A bounding sphere given by its center and radius
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Sphere {
+
+	/** The center */
+	public final Vec3f center = new Vec3f();
+	/** The radius */
+	public float radius;
+
+	/** Constructs a sphere of radius 0 at the origin */
+	public Sphere() {
+	}
+
+	/**
+	 * @param center - The center. (Not modified)
+	 * @param radius - The radius
+	 */
+	public Sphere(Vec3f center, float radius) {
+		set(center, radius);
+	}
+
+	/**
+	 * @param center - The center. (Not modified)
+	 * @param radius - The radius
+	 * @return This sphere for chaining
+	 */
+	public Sphere set(Vec3f center, float radius) {
+		this.center.set(center);
+		this.radius = radius;
+		return this;
+	}
+
+	/** @return This sphere for chaining */
+	public Sphere set(float x, float y, float z, float radius) {
+		center.set(x, y, z);
+		this.radius = radius;
+		return this;
+	}
+
+	/** @return This sphere set to a copy of the given sphere */
+	public Sphere set(Sphere other) {
+		return set(other.center, other.radius);
+	}
+
+	/** @return This sphere set to the smallest sphere around the given box */
+	public Sphere set(AABB box) {
+		box.getCenter(center);
+		radius = 0.5f * box.min.distance(box.max);
+		return this;
+	}
+
+	/** @return true if the point is inside or on the sphere */
+	public boolean contains(float x, float y, float z) {
+		return center.distance2(x, y, z) <= radius * radius;
+	}
+
+	/** @return true if the point is inside or on the sphere */
+	public boolean contains(Vec3f point) {
+		return contains(point.x(), point.y(), point.z());
+	}
+
+	/** @return true if the spheres overlap or touch */
+	public boolean intersects(Sphere other) {
+		final float r = radius + other.radius;
+		return center.distance2(other.center) <= r * r;
+	}
+
+	/** @return true if the box overlaps or touches this sphere */
+	public boolean intersects(AABB box) {
+		return box.intersects(this);
+	}
+
+	/**
+	 * Transforms this sphere by the given affine matrix. The radius is scaled
+	 * by the longest axis of the matrix, so the result still bounds the
+	 * transformed sphere under non-uniform scale.
+	 * @param matrix - The matrix. (Not modified)
+	 * @return This sphere for chaining
+	 */
+	public Sphere mul(Mat4f matrix) {
+		final float[] m = matrix.m;
+		final float x = center.x(), y = center.y(), z = center.z();
+		center.set(m[Mat4f.M00] * x + m[Mat4f.M01] * y + m[Mat4f.M02] * z + m[Mat4f.M03], m[Mat4f.M10] * x
+				+ m[Mat4f.M11] * y + m[Mat4f.M12] * z + m[Mat4f.M13], m[Mat4f.M20] * x + m[Mat4f.M21] * y
+				+ m[Mat4f.M22] * z + m[Mat4f.M23]);
+		final float sx = Vec3f.length2(m[Mat4f.M00], m[Mat4f.M10], m[Mat4f.M20]);
+		final float sy = Vec3f.length2(m[Mat4f.M01], m[Mat4f.M11], m[Mat4f.M21]);
+		final float sz = Vec3f.length2(m[Mat4f.M02], m[Mat4f.M12], m[Mat4f.M22]);
+		final float s2 = Math.max(sx, Math.max(sy, sz));
+		radius *= (float) Math.sqrt(s2);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + center + ", " + radius + "]";
+	}
+}
@@ -0,0 +1,330 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * A translation, rotation and scale together with the matrices composed from
+ * them. The matrix, its inverse and the normal matrix are only rebuilt when
+ * they are asked for after a component changed, so a transform which does
+ * not move costs nothing per frame. The components can only be changed
+ * through the setters of this class, which is how it knows what is stale.
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Transform {
+
+	private static final int MATRIX = 1;
+	private static final int INVERSE = 2;
+	private static final int NORMAL = 4;
+	private static final int ALL = MATRIX | INVERSE | NORMAL;
+
+	private final Vec3f position = new Vec3f();
+	private final Quat rotation = new Quat(0, 0, 0, 1);
+	private final Vec3f scale = new Vec3f(1f);
+
+	private final Mat4f matrix = new Mat4f();
+	private final Mat4f inverse = new Mat4f();
+	private final Mat4f normal = new Mat4f();
+
+	private int dirty = ALL;
+	private int version;
+	private long hits;
+	private long misses;
+
+	/** Constructs an identity transform */
+	public Transform() {
+	}
+
+	/**
+	 * Constructs a transform from the given components
+	 * @param pos - The translation. (Not modified)
+	 * @param rot - The rotation, must be normalized. (Not modified)
+	 * @param scl - The scale. (Not modified)
+	 */
+	public Transform(Vec3f pos, Quat rot, Vec3f scl) {
+		set(pos, rot, scl);
+	}
+
+	/**
+	 * Sets all components at once
+	 * @param pos - The translation. (Not modified)
+	 * @param rot - The rotation, must be normalized. (Not modified)
+	 * @param scl - The scale. (Not modified)
+	 * @return This transform for chaining
+	 */
+	public Transform set(Vec3f pos, Quat rot, Vec3f scl) {
+		position.set(pos);
+		rotation.set(rot);
+		scale.set(scl);
+		return changed();
+	}
+
+	/**
+	 * Copies the components of the given transform
+	 * @param other - The transform. (Not modified)
+	 * @return This transform for chaining
+	 */
+	public Transform set(Transform other) {
+		return set(other.position, other.rotation, other.scale);
+	}
+
+	/**
+	 * Resets this transform to the identity
+	 * @return This transform for chaining
+	 */
+	public Transform setIdentity() {
+		position.set(0f);
+		rotation.set(0, 0, 0, 1);
+		scale.set(1f);
+		return changed();
+	}
+
+	/**
+	 * Sets the translation. Setting the current value again does not
+	 * invalidate the cached matrices.
+	 * @return This transform for chaining
+	 */
+	public Transform setPosition(float x, float y, float z) {
+		if (x == position.x() && y == position.y() && z == position.z())
+			return this;
+		position.set(x, y, z);
+		return changed();
+	}
+
+	/**
+	 * Sets the translation
+	 * @param pos - The translation. (Not modified)
+	 * @return This transform for chaining
+	 */
+	public Transform setPosition(Vec3f pos) {
+		return setPosition(pos.x(), pos.y(), pos.z());
+	}
+
+	/**
+	 * Sets the rotation
+	 * @return This transform for chaining
+	 */
+	public Transform setRotation(float x, float y, float z, float w) {
+		if (x == rotation.x() && y == rotation.y() && z == rotation.z()
+				&& w == rotation.w())
+			return this;
+		rotation.set(x, y, z, w);
+		return changed();
+	}
+
+	/**
+	 * Sets the rotation
+	 * @param rot - The rotation, must be normalized. (Not modified)
+	 * @return This transform for chaining
+	 */
+	public Transform setRotation(Quat rot) {
+		return setRotation(rot.x(), rot.y(), rot.z(), rot.w());
+	}
+
+	/**
+	 * Sets the scale on each axis
+	 * @return This transform for chaining
+	 */
+	public Transform setScale(float x, float y, float z) {
+		if (x == scale.x() && y == scale.y() && z == scale.z())
+			return this;
+		scale.set(x, y, z);
+		return changed();
+	}
+
+	/**
+	 * Sets the scale
+	 * @param scl - The scale. (Not modified)
+	 * @return This transform for chaining
+	 */
+	public Transform setScale(Vec3f scl) {
+		return setScale(scl.x(), scl.y(), scl.z());
+	}
+
+	/** Sets the same scale on all axes */
+	public Transform setScale(float s) {
+		return setScale(s, s, s);
+	}
+
+	/** Moves the transform by the given offset in world space */
+	public Transform translate(float x, float y, float z) {
+		return setPosition(position.x() + x, position.y() + y, position.z() + z);
+	}
+
+	/** Moves the transform by the given offset in world space */
+	public Transform translate(Vec3f offset) {
+		return translate(offset.x(), offset.y(), offset.z());
+	}
+
+	/**
+	 * Postmultiplies the rotation by the given rotation, so that it is applied
+	 * in local space
+	 * @param rot - The rotation, must be normalized. (Not modified)
+	 * @return This transform for chaining
+	 */
+	public Transform rotate(Quat rot) {
+		rotation.mul(rot);
+		return changed();
+	}
+
+	/** @return the translation copied into the given vector */
+	public Vec3f getPosition(Vec3f out) {
+		return out.set(position);
+	}
+
+	/** @return the rotation copied into the given quaternion */
+	public Quat getRotation(Quat out) {
+		return out.set(rotation);
+	}
+
+	/** @return the scale copied into the given vector */
+	public Vec3f getScale(Vec3f out) {
+		return out.set(scale);
+	}
+
+	/**
+	 * Returns the composed matrix translation * rotation * scale. The returned
+	 * matrix is owned by this transform and must not be modified; it stays
+	 * valid until a component changes.
+	 * @return the cached matrix
+	 */
+	public Mat4f getMatrix() {
+		if ((dirty & MATRIX) == 0) {
+			hits++;
+			return matrix;
+		}
+		misses++;
+		return composeMatrix();
+	}
+
+	/**
+	 * Returns the inverse of {@link #getMatrix()}. Because the matrix is a
+	 * rotation and scale, the inverse is built from the transposed rotation
+	 * instead of a general 4x4 inversion. The returned matrix is owned by this
+	 * transform and must not be modified.
+	 * @return the cached inverse
+	 * @throws SigmaException if a scale component is zero
+	 */
+	public Mat4f getInverse() {
+		if ((dirty & INVERSE) == 0) {
+			hits++;
+			return inverse;
+		}
+		misses++;
+		final float[] a = composeMatrix().m;
+		final float sx = 1f / scale2(a, Mat4f.M00), sy = 1f / scale2(a,
+				Mat4f.M01), sz = 1f / scale2(a, Mat4f.M02);
+		final float[] m = inverse.m;
+		m[Mat4f.M00] = a[Mat4f.M00] * sx;
+		m[Mat4f.M01] = a[Mat4f.M10] * sx;
+		m[Mat4f.M02] = a[Mat4f.M20] * sx;
+		m[Mat4f.M10] = a[Mat4f.M01] * sy;
+		m[Mat4f.M11] = a[Mat4f.M11] * sy;
+		m[Mat4f.M12] = a[Mat4f.M21] * sy;
+		m[Mat4f.M20] = a[Mat4f.M02] * sz;
+		m[Mat4f.M21] = a[Mat4f.M12] * sz;
+		m[Mat4f.M22] = a[Mat4f.M22] * sz;
+		final float x = a[Mat4f.M03], y = a[Mat4f.M13], z = a[Mat4f.M23];
+		m[Mat4f.M03] = -(m[Mat4f.M00] * x + m[Mat4f.M01] * y + m[Mat4f.M02] * z);
+		m[Mat4f.M13] = -(m[Mat4f.M10] * x + m[Mat4f.M11] * y + m[Mat4f.M12] * z);
+		m[Mat4f.M23] = -(m[Mat4f.M20] * x + m[Mat4f.M21] * y + m[Mat4f.M22] * z);
+		m[Mat4f.M30] = 0f;
+		m[Mat4f.M31] = 0f;
+		m[Mat4f.M32] = 0f;
+		m[Mat4f.M33] = 1f;
+		dirty &= ~INVERSE;
+		return inverse;
+	}
+
+	/**
+	 * Returns the matrix for transforming normals, the same as
+	 * {@link Mat4f#toNormalMatrix()} on a copy of {@link #getMatrix()}. For a
+	 * rotation and scale this is the matrix with each column divided by its
+	 * squared scale. The returned matrix is owned by this transform and must
+	 * not be modified.
+	 * @return the cached normal matrix
+	 * @throws SigmaException if a scale component is zero
+	 */
+	public Mat4f getNormalMatrix() {
+		if ((dirty & NORMAL) == 0) {
+			hits++;
+			return normal;
+		}
+		misses++;
+		final float[] a = composeMatrix().m;
+		final float[] m = normal.m;
+		for (int j = Mat4f.M00; j <= Mat4f.M02; j += 4) {
+			final float s = 1f / scale2(a, j);
+			m[j] = a[j] * s;
+			m[j + 1] = a[j + 1] * s;
+			m[j + 2] = a[j + 2] * s;
+			m[j + 3] = 0f;
+		}
+		m[Mat4f.M03] = 0f;
+		m[Mat4f.M13] = 0f;
+		m[Mat4f.M23] = 0f;
+		m[Mat4f.M33] = 1f;
+		dirty &= ~NORMAL;
+		return normal;
+	}
+
+	/**
+	 * The version is increased every time a component changes. A cache built
+	 * from this transform can remember the version it was built at and
+	 * compare it later instead of comparing the matrices.
+	 * @return the current version
+	 */
+	public int version() {
+		return version;
+	}
+
+	/** @return true if the matrix must be rebuilt on the next call to {@link #getMatrix()} */
+	public boolean isDirty() {
+		return (dirty & MATRIX) != 0;
+	}
+
+	/** @return how many times a cached matrix was returned without rebuilding it */
+	public long hits() {
+		return hits;
+	}
+
+	/** @return how many times a matrix had to be rebuilt */
+	public long misses() {
+		return misses;
+	}
+
+	/** Resets the hit and miss counters */
+	public void resetStats() {
+		hits = 0;
+		misses = 0;
+	}
+
+	private Transform changed() {
+		dirty = ALL;
+		version++;
+		return this;
+	}
+
+	private Mat4f composeMatrix() {
+		if ((dirty & MATRIX) != 0) {
+			matrix.set(position, rotation, scale);
+			dirty &= ~MATRIX;
+		}
+		return matrix;
+	}
+
+	/** @return the squared length of the column starting at the given index */
+	private static float scale2(float[] a, int column) {
+		final float x = a[column], y = a[column + 1], z = a[column + 2];
+		final float s = x * x + y * y + z * z;
+		if (s == 0f)
+			throw new SigmaException("non-invertible matrix");
+		return s;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + position + " | " + rotation + " | " + scale + "]";
+	}
+}
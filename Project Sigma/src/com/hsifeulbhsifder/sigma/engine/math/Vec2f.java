@@ -1,5 +1,8 @@
 package com.hsifeulbhsifder.sigma.engine.math;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
 /**\
  * Class representing a two dimensional vector
  * @author Zaeem
@@ -130,6 +133,69 @@ public class Vec2f implements Vector<Vec2f> {
 		return Math.min(x, y);
 	}
 
+	/** Sets each component of this vector to the smaller of it and the given vector's
+	 * @return This vector */
+	public Vec2f min(final Vec2f v) {
+		return set(Math.min(x, v.x), Math.min(y, v.y));
+	}
+
+	/** Sets each component of this vector to the larger of it and the given vector's
+	 * @return This vector */
+	public Vec2f max(final Vec2f v) {
+		return set(Math.max(x, v.x), Math.max(y, v.y));
+	}
+
+	/** Sets each component of this vector to its absolute value
+	 * @return This vector */
+	public Vec2f abs() {
+		return set(Math.abs(x), Math.abs(y));
+	}
+
+	/** Rounds each component of this vector down to an integer
+	 * @return This vector */
+	public Vec2f floor() {
+		return set((float) Math.floor(x), (float) Math.floor(y));
+	}
+
+	/** Clamps each component of this vector between the components of min and max, unlike {@link #clamp(float, float)}
+	 * which clamps the length
+	 * @param min - The lower bounds. (Not modified)
+	 * @param max - The upper bounds. (Not modified)
+	 * @return This vector */
+	public Vec2f clampComponents(final Vec2f min, final Vec2f max) {
+		return set(MC.clamp(x, min.x, max.x), MC.clamp(y, min.y, max.y));
+	}
+
+	/** Stores the component-wise minimum of a and b in out, which may be a or b
+	 * @return The provided output vector */
+	public static Vec2f min(final Vec2f a, final Vec2f b, Vec2f out) {
+		return out.set(Math.min(a.x, b.x), Math.min(a.y, b.y));
+	}
+
+	/** Stores the component-wise maximum of a and b in out, which may be a or b
+	 * @return The provided output vector */
+	public static Vec2f max(final Vec2f a, final Vec2f b, Vec2f out) {
+		return out.set(Math.max(a.x, b.x), Math.max(a.y, b.y));
+	}
+
+	/** Stores the component-wise absolute value of v in out, which may be v
+	 * @return The provided output vector */
+	public static Vec2f abs(final Vec2f v, Vec2f out) {
+		return out.set(Math.abs(v.x), Math.abs(v.y));
+	}
+
+	/** Stores v with each component rounded down in out, which may be v
+	 * @return The provided output vector */
+	public static Vec2f floor(final Vec2f v, Vec2f out) {
+		return out.set((float) Math.floor(v.x), (float) Math.floor(v.y));
+	}
+
+	/** Stores v with each component clamped between the components of min and max in out, which may be v
+	 * @return The provided output vector */
+	public static Vec2f clamp(final Vec2f v, final Vec2f min, final Vec2f max, Vec2f out) {
+		return out.set(MC.clamp(v.x, min.x, max.x), MC.clamp(v.y, min.y, max.y));
+	}
+
 	@Override
 	public Vec2f normalize() {
 		float length = length();
@@ -289,7 +355,7 @@ public class Vec2f implements Vector<Vec2f> {
 	 * Angles are towards the positive y-axis (typically
 	 *         counter-clockwise) and between 0 and 360. */
 	public float angle() {
-		float angle = MC.toR((float) MC.atan2(y, x));
+		float angle = MC.toD(angleRad());
 		if (angle < 0)
 			angle += 360;
 		return angle;
@@ -298,19 +364,20 @@ public class Vec2f implements Vector<Vec2f> {
 	 *  Angles are towards the positive y-axis
 	 *         (typically counter-clockwise.) between -180 and +180 */
 	public float angle(final Vec2f v) {
-		return MC.toR((float) MC.atan2(cross(v), dot(v)));
+		return MC.toD(angleRad(v));
 	}
 	/** @return the angle in radians of this vector (point) relative to the x-axis.
 	 *  Angles are towards the positive y-axis.
 	 *         (typically counter-clockwise) */
 	public float angleRad() {
-		return (float) MC.atan2(y, x);
+		return MC.fastMath ? MC.atan2Poly(y, x) : MC.atan2(y, x);
 	}
 	/** @return the angle in radians of this vector (point) relative to the given vector
 	 * . Angles are towards the positive y-axis.
 	 *         (typically counter-clockwise.) */
 	public float angleRad(final Vec2f reference) {
-		return (float) MC.atan2(cross(reference), dot(reference));
+		final float cross = cross(reference), dot = dot(reference);
+		return MC.fastMath ? MC.atan2Poly(cross, dot) : MC.atan2(cross, dot);
 	}
 	/** Sets the angle of the vector in degrees relative to the x-axis,
 	 *  towards the positive y-axis (typically counter-clockwise).
@@ -337,8 +404,8 @@ public class Vec2f implements Vector<Vec2f> {
 	 *  assuming the y-axis points up.
 	 * @param radians the angle in radians */
 	public Vec2f rotateRad(float radians) {
-		float cos = (float) MC.cos(radians);
-		float sin = (float) MC.sin(radians);
+		float cos = MC.cosPoly(radians);
+		float sin = MC.sinPoly(radians);
 
 		float newX = this.x * cos - this.y * sin;
 		float newY = this.x * sin + this.y * cos;
@@ -475,6 +542,155 @@ public class Vec2f implements Vector<Vec2f> {
 		return dot(other) < 0;
 	}
 
+	/**
+	 * Writes x and y at the current position of the buffer and advances
+	 * the position by 2
+	 * @param dst - The buffer, usually direct
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst) {
+		dst.put(x).put(y);
+		return dst;
+	}
+
+	/**
+	 * Writes x and y starting at the given index. The position of the
+	 * buffer is left unchanged.
+	 * @param dst - The buffer, usually direct
+	 * @param index - The index of the x-component in the buffer
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst, int index) {
+		dst.put(index, x).put(index + 1, y);
+		return dst;
+	}
+
+	/**
+	 * Writes x and y at the current position of the buffer, in the byte
+	 * order of the buffer, and advances the position by 8
+	 * @param dst - The buffer, usually direct and in native order
+	 * @return The provided buffer for chaining
+	 */
+	public ByteBuffer store(ByteBuffer dst) {
+		dst.putFloat(x).putFloat(y);
+		return dst;
+	}
+
+	/**
+	 * Writes x and y starting at the given byte index, in the byte order of
+	 * the buffer. The position of the buffer is left unchanged.
+	 * @param dst - The buffer, usually direct and in native order
+	 * @param byteIndex - The index of the first byte of the x-component
+	 * @return The provided buffer for chaining
+	 */
+	public ByteBuffer store(ByteBuffer dst, int byteIndex) {
+		dst.putFloat(byteIndex, x).putFloat(byteIndex + 4, y);
+		return dst;
+	}
+
+	/**
+	 * Reads x and y from the current position of the buffer and advances
+	 * the position by 2
+	 * @param src - The buffer
+	 * @return This vector for chaining
+	 */
+	public Vec2f load(FloatBuffer src) {
+		x = src.get();
+		y = src.get();
+		return this;
+	}
+
+	/**
+	 * Reads x and y starting at the given index. The position of the buffer
+	 * is left unchanged.
+	 * @param src - The buffer
+	 * @param index - The index of the x-component in the buffer
+	 * @return This vector for chaining
+	 */
+	public Vec2f load(FloatBuffer src, int index) {
+		x = src.get(index);
+		y = src.get(index + 1);
+		return this;
+	}
+
+	/**
+	 * Reads x and y from the current position of the buffer, in the byte
+	 * order of the buffer, and advances the position by 8
+	 * @param src - The buffer
+	 * @return This vector for chaining
+	 */
+	public Vec2f load(ByteBuffer src) {
+		x = src.getFloat();
+		y = src.getFloat();
+		return this;
+	}
+
+	/**
+	 * Reads x and y starting at the given byte index, in the byte order of
+	 * the buffer. The position of the buffer is left unchanged.
+	 * @param src - The buffer
+	 * @param byteIndex - The index of the first byte of the x-component
+	 * @return This vector for chaining
+	 */
+	public Vec2f load(ByteBuffer src, int byteIndex) {
+		x = src.getFloat(byteIndex);
+		y = src.getFloat(byteIndex + 4);
+		return this;
+	}
+
+	/**
+	 * Writes count vectors tightly packed at the current position of the
+	 * buffer in a single pass and advances the position by count * 2
+	 * @param src - The vectors. (Not modified)
+	 * @param offset - The index of the first vector in src
+	 * @param count - The amount of vectors
+	 * @param dst - The buffer, usually direct
+	 * @return The provided buffer for chaining
+	 */
+	public static FloatBuffer store(Vec2f[] src, int offset, int count,
+			FloatBuffer dst) {
+		for (int i = offset; i < offset + count; i++) {
+			final Vec2f v = src[i];
+			dst.put(v.x).put(v.y);
+		}
+		return dst;
+	}
+
+	/**
+	 * Writes count vectors tightly packed at the current position of the
+	 * buffer, in the byte order of the buffer, and advances the position by
+	 * count * 8
+	 * @param src - The vectors. (Not modified)
+	 * @param offset - The index of the first vector in src
+	 * @param count - The amount of vectors
+	 * @param dst - The buffer, usually direct and in native order
+	 * @return The provided buffer for chaining
+	 */
+	public static ByteBuffer store(Vec2f[] src, int offset, int count,
+			ByteBuffer dst) {
+		for (int i = offset; i < offset + count; i++) {
+			final Vec2f v = src[i];
+			dst.putFloat(v.x).putFloat(v.y);
+		}
+		return dst;
+	}
+
+	/**
+	 * Reads count tightly packed vectors from the current position of the
+	 * buffer into existing vectors and advances the position by count * 2
+	 * @param src - The buffer
+	 * @param dst - The vectors which receive the values
+	 * @param offset - The index of the first vector in dst
+	 * @param count - The amount of vectors
+	 */
+	public static void load(FloatBuffer src, Vec2f[] dst, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			final Vec2f v = dst[i];
+			v.x = src.get();
+			v.y = src.get();
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "(" + x + ", " + y + ")";
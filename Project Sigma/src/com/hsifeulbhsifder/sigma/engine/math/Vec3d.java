@@ -0,0 +1,187 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+/**
+ * A double precision companion of {@link Vec3f} for positions in large
+ * worlds. A float only has 24 bits of mantissa, so a few kilometers from the
+ * origin positions snap to steps of a millimeter or more and moving objects
+ * jitter; a double keeps sub-micrometer steps across the solar system. Only
+ * the operations needed to keep and move world positions are provided; for
+ * rendering, positions are brought near the camera with
+ * {@link CameraRelative} and handled as floats from there.
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Vec3d {
+
+	private double x;
+	private double y;
+	private double z;
+
+	/** Constructs a new vector at (0,0,0) */
+	public Vec3d() {
+	}
+	/** Constructs a vector with the given components
+	 * @param x - The x-component
+	 * @param y - The y-component
+	 * @param z - The z-component */
+	public Vec3d(double x, double y, double z) {
+		this.set(x, y, z);
+	}
+	/** Constructs a vector from the given vector
+	 * @param v - The vector */
+	public Vec3d(final Vec3d v) {
+		this.set(v);
+	}
+	/** Constructs a vector from the given float vector
+	 * @param v - The vector */
+	public Vec3d(final Vec3f v) {
+		this.set(v);
+	}
+	/** Sets the vector to the given components
+	 * @param x - The x-component
+	 * @param y - The y-component
+	 * @param z - The z-component
+	 * @return This vector */
+	public Vec3d set(double x, double y, double z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+	/** @return This vector set to a copy of the given vector */
+	public Vec3d set(final Vec3d v) {
+		return this.set(v.x, v.y, v.z);
+	}
+	/** @return This vector set to the given float vector */
+	public Vec3d set(final Vec3f v) {
+		return this.set(v.x(), v.y(), v.z());
+	}
+
+	public double x() {
+		return x;
+	}
+
+	public double y() {
+		return y;
+	}
+
+	public double z() {
+		return z;
+	}
+
+	public Vec3d add(final Vec3d v) {
+		return this.add(v.x, v.y, v.z);
+	}
+	/** Adds the given float vector, for example a velocity times a time step */
+	public Vec3d add(final Vec3f v) {
+		return this.add(v.x(), v.y(), v.z());
+	}
+
+	public Vec3d add(double x, double y, double z) {
+		return this.set(this.x + x, this.y + y, this.z + z);
+	}
+
+	public Vec3d sub(final Vec3d v) {
+		return this.sub(v.x, v.y, v.z);
+	}
+
+	public Vec3d sub(double x, double y, double z) {
+		return this.set(this.x - x, this.y - y, this.z - z);
+	}
+
+	public Vec3d mul(double s) {
+		return this.set(x * s, y * s, z * s);
+	}
+	/** Adds the given vector times the given scalar
+	 * @param v - The vector to add. (Not modified)
+	 * @param s - The scalar
+	 * @return This vector */
+	public Vec3d mulAdd(final Vec3f v, double s) {
+		return this.add(v.x() * s, v.y() * s, v.z() * s);
+	}
+
+	public double dot(final Vec3d v) {
+		return x * v.x + y * v.y + z * v.z;
+	}
+
+	public double length() {
+		return Math.sqrt(x * x + y * y + z * z);
+	}
+
+	public double length2() {
+		return x * x + y * y + z * z;
+	}
+
+	public Vec3d normalize() {
+		final double len2 = this.length2();
+		if (len2 == 0.0 || len2 == 1.0)
+			return this;
+		return this.mul(1.0 / Math.sqrt(len2));
+	}
+
+	public double distance(final Vec3d v) {
+		return Math.sqrt(distance2(v));
+	}
+
+	public double distance2(final Vec3d v) {
+		final double dx = v.x - x, dy = v.y - y, dz = v.z - z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	public Vec3d lerp(final Vec3d target, double alpha) {
+		return this.set(x + (target.x - x) * alpha, y + (target.y - y) * alpha, z + (target.z - z) * alpha);
+	}
+	/**
+	 * Rounds this vector to floats, which loses precision far from the origin,
+	 * see {@link #sub(Vec3d, Vec3f)}
+	 * @param out - The vector which receives the components
+	 * @return The provided vector for chaining
+	 */
+	public Vec3f get(Vec3f out) {
+		return out.set((float) x, (float) y, (float) z);
+	}
+	/**
+	 * Subtracts the given origin in double precision and rounds the small
+	 * difference to floats, which keeps the precision near the origin
+	 * @param origin - The origin. (Not modified)
+	 * @param out - The vector which receives this vector relative to the
+	 *            origin
+	 * @return The provided vector for chaining
+	 */
+	public Vec3f sub(final Vec3d origin, Vec3f out) {
+		return out.set((float) (x - origin.x), (float) (y - origin.y), (float) (z - origin.z));
+	}
+
+	@Override
+	public String toString() {
+		return "(" + x + ", " + y + ", " + z + ")";
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 17;
+		long bits = Double.doubleToLongBits(x);
+		result = prime * result + (int) (bits ^ (bits >>> 32));
+		bits = Double.doubleToLongBits(y);
+		result = prime * result + (int) (bits ^ (bits >>> 32));
+		bits = Double.doubleToLongBits(z);
+		result = prime * result + (int) (bits ^ (bits >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		final Vec3d other = (Vec3d) obj;
+		return Double.doubleToLongBits(x) == Double.doubleToLongBits(other.x)
+				&& Double.doubleToLongBits(y) == Double.doubleToLongBits(other.y)
+				&& Double.doubleToLongBits(z) == Double.doubleToLongBits(other.z);
+	}
+}
@@ -1,5 +1,8 @@
 package com.hsifeulbhsifder.sigma.engine.math;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
 public class Vec3f implements Vector<Vec3f> {
 
 	/**
@@ -108,7 +111,7 @@ public class Vec3f implements Vector<Vec3f> {
 	 * @param z - The z-component
 	 * @return This vector */
 	public Vec3f set(final Vec2f v, float z) {
-		return this.set(v.z(), v.y(), z);
+		return this.set(v.x(), v.y(), z);
 	}
 
 	@Override
@@ -357,26 +360,33 @@ public class Vec3f implements Vector<Vec3f> {
 		return a * a + b * b + c * c;
 	}
 
+	/** Rotates this vector by the given quaternion, the same as q * v * q^-1
+	 * but in the fused form v + w * t + q x t with t = 2 * (q x v), which
+	 * takes 15 multiplications instead of two quaternion products. Neither
+	 * allocates nor modifies the quaternion.
+	 * @param rotation - The rotation, must be normalized. (Not modified)
+	 * @return This vector for chaining */
 	public Vec3f rotate(final Quat rotation) {
-		Quat conjugate = rotation.conjugate();
-		Quat w = rotation.mul(this).mul(conjugate);
-
-		x = w.x();
-		y = w.y();
-		z = w.z();
-
-		return this;
-	}
-
+		final float qx = rotation.x(), qy = rotation.y(), qz = rotation.z(), qw = rotation.w();
+		final float tx = 2f * (qy * z - qz * y);
+		final float ty = 2f * (qz * x - qx * z);
+		final float tz = 2f * (qx * y - qy * x);
+		return set(x + qw * tx + qy * tz - qz * ty, y + qw * ty + qz * tx - qx * tz, z + qw * tz + qx * ty - qy
+				* tx);
+	}
+
+	/** Rotates this vector counter-clockwise around the given axis by Rodrigues' formula
+	 * v * cos + (k x v) * sin + k * (k . v) * (1 - cos), without allocating.
+	 * @param axis - The axis, must be normalized. (Not modified)
+	 * @param angle - The angle in radians
+	 * @return This vector for chaining */
 	public Vec3f rotate(final Vec3f axis, float angle) {
-		float sinAngle = (float) MC.sin(-angle);
-		float cosAngle = (float) MC.cos(-angle);
-
-		Vec3f rotVector = new Vec3f(axis);
-
-		return this.cross(rotVector.mul(sinAngle))
-				.add((this.mul(cosAngle)).add(rotVector.mul(this.dot(rotVector
-						.mul(1 - cosAngle)))));
+		final float sin = MC.sinPoly(angle);
+		final float cos = MC.cosPoly(angle);
+		final float kx = axis.x, ky = axis.y, kz = axis.z;
+		final float d = (kx * x + ky * y + kz * z) * (1f - cos);
+		return set(x * cos + (ky * z - kz * y) * sin + kx * d, y * cos + (kz * x - kx * z) * sin + ky * d, z * cos
+				+ (kx * y - ky * x) * sin + kz * d);
 	}
 
 	@Override
@@ -397,10 +407,11 @@ public class Vec3f implements Vector<Vec3f> {
 		if (dot > 0.9995 || dot < -0.9995)
 			return lerp(target, alpha);
 
-		final float theta0 = (float) Math.acos(dot);
+		final boolean fast = MC.fastMath;
+		final float theta0 = fast ? MC.acosPoly(dot) : (float) Math.acos(dot);
 		final float theta = theta0 * alpha;
 
-		final float st = (float) Math.sin(theta);
+		final float st = fast ? MC.sinPoly(theta) : (float) Math.sin(theta);
 		final float tx = target.x - x * dot;
 		final float ty = target.y - y * dot;
 		final float tz = target.z - z * dot;
@@ -408,7 +419,7 @@ public class Vec3f implements Vector<Vec3f> {
 		final float dl = st
 				* ((l2 < 0.0001f) ? 1f : 1f / (float) Math.sqrt(l2));
 
-		return mul((float) Math.cos(theta)).add(tx * dl, ty * dl, tz * dl)
+		return mul(fast ? MC.cosPoly(theta) : (float) Math.cos(theta)).add(tx * dl, ty * dl, tz * dl)
 				.normalize();
 	}
 
@@ -419,7 +430,7 @@ public class Vec3f implements Vector<Vec3f> {
 
 	@Override
 	public float min() {
-		return Math.max(x, Math.max(y, z));
+		return Math.min(x, Math.min(y, z));
 	}
 
 	public static Vec3f max(Vec3f a, Vec3f b) {
@@ -427,6 +438,137 @@ public class Vec3f implements Vector<Vec3f> {
 				b.z));
 	}
 
+	/** Sets each component of this vector to the smaller of it and the given vector's
+	 * @return This vector */
+	public Vec3f min(final Vec3f v) {
+		return set(Math.min(x, v.x), Math.min(y, v.y), Math.min(z, v.z));
+	}
+
+	/** Sets each component of this vector to the larger of it and the given vector's
+	 * @return This vector */
+	public Vec3f max(final Vec3f v) {
+		return set(Math.max(x, v.x), Math.max(y, v.y), Math.max(z, v.z));
+	}
+
+	/** Sets each component of this vector to its absolute value
+	 * @return This vector */
+	public Vec3f abs() {
+		return set(Math.abs(x), Math.abs(y), Math.abs(z));
+	}
+
+	/** Rounds each component of this vector down to an integer
+	 * @return This vector */
+	public Vec3f floor() {
+		return set((float) Math.floor(x), (float) Math.floor(y), (float) Math.floor(z));
+	}
+
+	/** Clamps each component of this vector between the components of min and max, unlike {@link #clamp(float, float)}
+	 * which clamps the length
+	 * @param min - The lower bounds. (Not modified)
+	 * @param max - The upper bounds. (Not modified)
+	 * @return This vector */
+	public Vec3f clampComponents(final Vec3f min, final Vec3f max) {
+		return set(MC.clamp(x, min.x, max.x), MC.clamp(y, min.y, max.y), MC.clamp(z, min.z, max.z));
+	}
+
+	/** Stores the component-wise minimum of a and b in out, which may be a or b
+	 * @return The provided output vector */
+	public static Vec3f min(final Vec3f a, final Vec3f b, Vec3f out) {
+		return out.set(Math.min(a.x, b.x), Math.min(a.y, b.y), Math.min(a.z, b.z));
+	}
+
+	/** Stores the component-wise maximum of a and b in out, which may be a or b
+	 * @return The provided output vector */
+	public static Vec3f max(final Vec3f a, final Vec3f b, Vec3f out) {
+		return out.set(Math.max(a.x, b.x), Math.max(a.y, b.y), Math.max(a.z, b.z));
+	}
+
+	/** Stores the component-wise absolute value of v in out, which may be v
+	 * @return The provided output vector */
+	public static Vec3f abs(final Vec3f v, Vec3f out) {
+		return out.set(Math.abs(v.x), Math.abs(v.y), Math.abs(v.z));
+	}
+
+	/** Stores v with each component rounded down in out, which may be v
+	 * @return The provided output vector */
+	public static Vec3f floor(final Vec3f v, Vec3f out) {
+		return out.set((float) Math.floor(v.x), (float) Math.floor(v.y), (float) Math.floor(v.z));
+	}
+
+	/** Stores v with each component clamped between the components of min and max in out, which may be v
+	 * @return The provided output vector */
+	public static Vec3f clamp(final Vec3f v, final Vec3f min, final Vec3f max, Vec3f out) {
+		return out.set(MC.clamp(v.x, min.x, max.x), MC.clamp(v.y, min.y, max.y), MC.clamp(v.z, min.z, max.z));
+	}
+
+	/** Component-wise minimum of count packed x, y, z vectors: dst[i] = min(a[i], b[i]). The destination may be either
+	 * source.
+	 * @param count - The amount of vectors */
+	public static void min(final float[] a, int aOffset, final float[] b, int bOffset, float[] dst, int dstOffset,
+			int count) {
+		for (int i = 0, n = count * 3; i < n; i++)
+			dst[dstOffset + i] = Math.min(a[aOffset + i], b[bOffset + i]);
+	}
+
+	/** Component-wise maximum of count packed x, y, z vectors: dst[i] = max(a[i], b[i]). The destination may be either
+	 * source.
+	 * @param count - The amount of vectors */
+	public static void max(final float[] a, int aOffset, final float[] b, int bOffset, float[] dst, int dstOffset,
+			int count) {
+		for (int i = 0, n = count * 3; i < n; i++)
+			dst[dstOffset + i] = Math.max(a[aOffset + i], b[bOffset + i]);
+	}
+
+	/** Component-wise absolute value of count packed x, y, z vectors. The destination may be the source.
+	 * @param count - The amount of vectors */
+	public static void abs(final float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+		for (int i = 0, n = count * 3; i < n; i++)
+			dst[dstOffset + i] = Math.abs(src[srcOffset + i]);
+	}
+
+	/** Rounds the components of count packed x, y, z vectors down. The destination may be the source.
+	 * @param count - The amount of vectors */
+	public static void floor(final float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+		for (int i = 0, n = count * 3; i < n; i++)
+			dst[dstOffset + i] = (float) Math.floor(src[srcOffset + i]);
+	}
+
+	/** Clamps the components of count packed x, y, z vectors between the components of min and max. The destination may
+	 * be the source.
+	 * @param min - The lower bounds. (Not modified)
+	 * @param max - The upper bounds. (Not modified)
+	 * @param count - The amount of vectors */
+	public static void clamp(final float[] src, int srcOffset, final Vec3f min, final Vec3f max, float[] dst,
+			int dstOffset, int count) {
+		final float minX = min.x, minY = min.y, minZ = min.z;
+		final float maxX = max.x, maxY = max.y, maxZ = max.z;
+		for (int i = 0, s = srcOffset, d = dstOffset; i < count; i++, s += 3, d += 3) {
+			dst[d] = MC.clamp(src[s], minX, maxX);
+			dst[d + 1] = MC.clamp(src[s + 1], minY, maxY);
+			dst[d + 2] = MC.clamp(src[s + 2], minZ, maxZ);
+		}
+	}
+
+	/** Calculates the bounding box of count packed x, y, z points
+	 * @param min - Receives the smallest components
+	 * @param max - Receives the largest components
+	 * @param count - The amount of points, at least 1 */
+	public static void bounds(final float[] src, int srcOffset, int count, Vec3f min, Vec3f max) {
+		float minX = src[srcOffset], minY = src[srcOffset + 1], minZ = src[srcOffset + 2];
+		float maxX = minX, maxY = minY, maxZ = minZ;
+		for (int i = 1, s = srcOffset + 3; i < count; i++, s += 3) {
+			final float x = src[s], y = src[s + 1], z = src[s + 2];
+			if (x < minX) minX = x;
+			if (x > maxX) maxX = x;
+			if (y < minY) minY = y;
+			if (y > maxY) maxY = y;
+			if (z < minZ) minZ = z;
+			if (z > maxZ) maxZ = z;
+		}
+		min.set(minX, minY, minZ);
+		max.set(maxX, maxY, maxZ);
+	}
+
 	@Override
 	public boolean isUnit() {
 		return isUnit(0.000000001f);
@@ -506,7 +648,7 @@ public class Vec3f implements Vector<Vec3f> {
 
 	@Override
 	public float y() {
-		return z;
+		return y;
 	}
 
 	@Override
@@ -518,26 +660,210 @@ public class Vec3f implements Vector<Vec3f> {
 		return new Vec2f(x, y);
 	}
 
+	/** @return the provided vector set to (x, y) */
+	public Vec2f xy(Vec2f out) {
+		return out.set(x, y);
+	}
+
 	public Vec2f yz() {
 		return new Vec2f(y, z);
 	}
 
+	/** @return the provided vector set to (y, z) */
+	public Vec2f yz(Vec2f out) {
+		return out.set(y, z);
+	}
+
 	public Vec2f zx() {
 		return new Vec2f(z, x);
 	}
 
+	/** @return the provided vector set to (z, x) */
+	public Vec2f zx(Vec2f out) {
+		return out.set(z, x);
+	}
+
 	public Vec2f yx() {
 		return new Vec2f(y, x);
 	}
 
+	/** @return the provided vector set to (y, x) */
+	public Vec2f yx(Vec2f out) {
+		return out.set(y, x);
+	}
+
 	public Vec2f zy() {
 		return new Vec2f(z, y);
 	}
 
+	/** @return the provided vector set to (z, y) */
+	public Vec2f zy(Vec2f out) {
+		return out.set(z, y);
+	}
+
 	public Vec2f xz() {
 		return new Vec2f(x, z);
 	}
 
+	/** @return the provided vector set to (x, z) */
+	public Vec2f xz(Vec2f out) {
+		return out.set(x, z);
+	}
+
+	/**
+	 * Writes x, y and z at the current position of the buffer and advances
+	 * the position by 3
+	 * @param dst - The buffer, usually direct
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst) {
+		dst.put(x).put(y).put(z);
+		return dst;
+	}
+
+	/**
+	 * Writes x, y and z starting at the given index. The position of the
+	 * buffer is left unchanged.
+	 * @param dst - The buffer, usually direct
+	 * @param index - The index of the x-component in the buffer
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst, int index) {
+		dst.put(index, x).put(index + 1, y).put(index + 2, z);
+		return dst;
+	}
+
+	/**
+	 * Writes x, y and z at the current position of the buffer, in the byte
+	 * order of the buffer, and advances the position by 12
+	 * @param dst - The buffer, usually direct and in native order
+	 * @return The provided buffer for chaining
+	 */
+	public ByteBuffer store(ByteBuffer dst) {
+		dst.putFloat(x).putFloat(y).putFloat(z);
+		return dst;
+	}
+
+	/**
+	 * Writes x, y and z starting at the given byte index, in the byte order of
+	 * the buffer. The position of the buffer is left unchanged.
+	 * @param dst - The buffer, usually direct and in native order
+	 * @param byteIndex - The index of the first byte of the x-component
+	 * @return The provided buffer for chaining
+	 */
+	public ByteBuffer store(ByteBuffer dst, int byteIndex) {
+		dst.putFloat(byteIndex, x).putFloat(byteIndex + 4, y).putFloat(byteIndex + 8, z);
+		return dst;
+	}
+
+	/**
+	 * Reads x, y and z from the current position of the buffer and advances
+	 * the position by 3
+	 * @param src - The buffer
+	 * @return This vector for chaining
+	 */
+	public Vec3f load(FloatBuffer src) {
+		x = src.get();
+		y = src.get();
+		z = src.get();
+		return this;
+	}
+
+	/**
+	 * Reads x, y and z starting at the given index. The position of the buffer
+	 * is left unchanged.
+	 * @param src - The buffer
+	 * @param index - The index of the x-component in the buffer
+	 * @return This vector for chaining
+	 */
+	public Vec3f load(FloatBuffer src, int index) {
+		x = src.get(index);
+		y = src.get(index + 1);
+		z = src.get(index + 2);
+		return this;
+	}
+
+	/**
+	 * Reads x, y and z from the current position of the buffer, in the byte
+	 * order of the buffer, and advances the position by 12
+	 * @param src - The buffer
+	 * @return This vector for chaining
+	 */
+	public Vec3f load(ByteBuffer src) {
+		x = src.getFloat();
+		y = src.getFloat();
+		z = src.getFloat();
+		return this;
+	}
+
+	/**
+	 * Reads x, y and z starting at the given byte index, in the byte order of
+	 * the buffer. The position of the buffer is left unchanged.
+	 * @param src - The buffer
+	 * @param byteIndex - The index of the first byte of the x-component
+	 * @return This vector for chaining
+	 */
+	public Vec3f load(ByteBuffer src, int byteIndex) {
+		x = src.getFloat(byteIndex);
+		y = src.getFloat(byteIndex + 4);
+		z = src.getFloat(byteIndex + 8);
+		return this;
+	}
+
+	/**
+	 * Writes count vectors tightly packed at the current position of the
+	 * buffer in a single pass and advances the position by count * 3
+	 * @param src - The vectors. (Not modified)
+	 * @param offset - The index of the first vector in src
+	 * @param count - The amount of vectors
+	 * @param dst - The buffer, usually direct
+	 * @return The provided buffer for chaining
+	 */
+	public static FloatBuffer store(Vec3f[] src, int offset, int count,
+			FloatBuffer dst) {
+		for (int i = offset; i < offset + count; i++) {
+			final Vec3f v = src[i];
+			dst.put(v.x).put(v.y).put(v.z);
+		}
+		return dst;
+	}
+
+	/**
+	 * Writes count vectors tightly packed at the current position of the
+	 * buffer, in the byte order of the buffer, and advances the position by
+	 * count * 12
+	 * @param src - The vectors. (Not modified)
+	 * @param offset - The index of the first vector in src
+	 * @param count - The amount of vectors
+	 * @param dst - The buffer, usually direct and in native order
+	 * @return The provided buffer for chaining
+	 */
+	public static ByteBuffer store(Vec3f[] src, int offset, int count,
+			ByteBuffer dst) {
+		for (int i = offset; i < offset + count; i++) {
+			final Vec3f v = src[i];
+			dst.putFloat(v.x).putFloat(v.y).putFloat(v.z);
+		}
+		return dst;
+	}
+
+	/**
+	 * Reads count tightly packed vectors from the current position of the
+	 * buffer into existing vectors and advances the position by count * 3
+	 * @param src - The buffer
+	 * @param dst - The vectors which receive the values
+	 * @param offset - The index of the first vector in dst
+	 * @param count - The amount of vectors
+	 */
+	public static void load(FloatBuffer src, Vec3f[] dst, int offset, int count) {
+		for (int i = offset; i < offset + count; i++) {
+			final Vec3f v = dst[i];
+			v.x = src.get();
+			v.y = src.get();
+			v.z = src.get();
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "(" + x + ", " + y + ", " + z + ")";
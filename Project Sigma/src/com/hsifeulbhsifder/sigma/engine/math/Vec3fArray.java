@@ -0,0 +1,535 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * A structure of arrays container for 3 dimensional vectors. The components
+ * are kept in three separate arrays, so that bulk operations over many vectors
+ * run over contiguous memory instead of chasing a {@link Vec3f} reference per
+ * element. All bulk operations mirror the {@link Vector} operations and work
+ * on the index range [from, to).
+ * <p>
+ * The storage is either on the heap ({@link #x}, {@link #y}, {@link #z}) or
+ * off-heap in direct buffers, see {@link #direct(int)}. For off-heap storage
+ * the public arrays are null.
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Vec3fArray {
+
+	/** The x-components, null if this array is backed off-heap */
+	public final float[] x;
+	/** The y-components, null if this array is backed off-heap */
+	public final float[] y;
+	/** The z-components, null if this array is backed off-heap */
+	public final float[] z;
+
+	private final FloatBuffer bx;
+	private final FloatBuffer by;
+	private final FloatBuffer bz;
+
+	private final int size;
+
+	/**
+	 * Constructs a heap backed array of the given amount of zero vectors
+	 * @param size - the amount of vectors
+	 */
+	public Vec3fArray(int size) {
+		this.size = size;
+		this.x = new float[size];
+		this.y = new float[size];
+		this.z = new float[size];
+		this.bx = null;
+		this.by = null;
+		this.bz = null;
+	}
+	/**
+	 * Constructs a heap backed array from the given vectors
+	 * @param v - the vectors to copy. (The vectors are not modified)
+	 */
+	public Vec3fArray(final Vec3f[] v) {
+		this(v.length);
+		for (int i = 0; i < v.length; i++)
+			set(i, v[i]);
+	}
+
+	private Vec3fArray(FloatBuffer bx, FloatBuffer by, FloatBuffer bz,
+			int size) {
+		this.size = size;
+		this.x = null;
+		this.y = null;
+		this.z = null;
+		this.bx = bx;
+		this.by = by;
+		this.bz = bz;
+	}
+	/**
+	 * Creates an array of the given amount of zero vectors, with the
+	 * components stored off-heap in native ordered direct buffers.
+	 * @param size - the amount of vectors
+	 * @return the new array
+	 */
+	public static Vec3fArray direct(int size) {
+		return new Vec3fArray(directBuffer(size), directBuffer(size),
+				directBuffer(size), size);
+	}
+
+	private static FloatBuffer directBuffer(int size) {
+		return ByteBuffer.allocateDirect(size << 2)
+				.order(ByteOrder.nativeOrder()).asFloatBuffer();
+	}
+	/** @return the amount of vectors in this array */
+	public int size() {
+		return size;
+	}
+	/** @return whether the components are stored off-heap */
+	public boolean isDirect() {
+		return x == null;
+	}
+	/**
+	 * @return the direct buffer holding the x-components, or null if this
+	 *         array is heap backed
+	 */
+	public FloatBuffer bufferX() {
+		return bx;
+	}
+	/**
+	 * @return the direct buffer holding the y-components, or null if this
+	 *         array is heap backed
+	 */
+	public FloatBuffer bufferY() {
+		return by;
+	}
+	/**
+	 * @return the direct buffer holding the z-components, or null if this
+	 *         array is heap backed
+	 */
+	public FloatBuffer bufferZ() {
+		return bz;
+	}
+	/** @return the x-component of the vector at the given index */
+	public float x(int i) {
+		return x != null ? x[i] : bx.get(i);
+	}
+	/** @return the y-component of the vector at the given index */
+	public float y(int i) {
+		return y != null ? y[i] : by.get(i);
+	}
+	/** @return the z-component of the vector at the given index */
+	public float z(int i) {
+		return z != null ? z[i] : bz.get(i);
+	}
+	/** Sets the vector at the given index to the given components
+	 * @param i - The index
+	 * @param vx - The x-component
+	 * @param vy - The y-component
+	 * @param vz - The z-component
+	 * @return This array */
+	public Vec3fArray set(int i, float vx, float vy, float vz) {
+		if (x != null) {
+			x[i] = vx;
+			y[i] = vy;
+			z[i] = vz;
+		} else {
+			bx.put(i, vx);
+			by.put(i, vy);
+			bz.put(i, vz);
+		}
+		return this;
+	}
+	/** Sets the vector at the given index from the given vector
+	 * @param i - The index
+	 * @param v - The vector
+	 * @return This array */
+	public Vec3fArray set(int i, final Vec3f v) {
+		return set(i, v.x(), v.y(), v.z());
+	}
+	/** Copies the vector at the given index into the given vector
+	 * @param i - The index
+	 * @param out - The vector which receives the components
+	 * @return The provided vector for chaining */
+	public Vec3f get(int i, Vec3f out) {
+		return out.set(x(i), y(i), z(i));
+	}
+	/** Sets all vectors in the range to the given components
+	 * @return This array */
+	public Vec3fArray set(float vx, float vy, float vz, int from, int to) {
+		for (int i = from; i < to; i++)
+			set(i, vx, vy, vz);
+		return this;
+	}
+	/** Copies the given range of the other array into the same range of this
+	 * array
+	 * @param v - The other array
+	 * @return This array */
+	public Vec3fArray set(final Vec3fArray v, int from, int to) {
+		if (x != null && v.x != null) {
+			System.arraycopy(v.x, from, x, from, to - from);
+			System.arraycopy(v.y, from, y, from, to - from);
+			System.arraycopy(v.z, from, z, from, to - from);
+			return this;
+		}
+		for (int i = from; i < to; i++)
+			set(i, v.x(i), v.y(i), v.z(i));
+		return this;
+	}
+	/** Sets all vectors in the range to zero
+	 * @return This array */
+	public Vec3fArray setZero(int from, int to) {
+		return set(0, 0, 0, from, to);
+	}
+	/** Adds the vectors of the other array to the vectors of this array
+	 * @param v - The other array
+	 * @return This array */
+	public Vec3fArray add(final Vec3fArray v, int from, int to) {
+		if (x != null && v.x != null) {
+			final float[] ox = v.x, oy = v.y, oz = v.z;
+			for (int i = from; i < to; i++) {
+				x[i] += ox[i];
+				y[i] += oy[i];
+				z[i] += oz[i];
+			}
+			return this;
+		}
+		for (int i = from; i < to; i++)
+			set(i, x(i) + v.x(i), y(i) + v.y(i), z(i) + v.z(i));
+		return this;
+	}
+	/** Adds the given vector to all vectors of this array
+	 * @return This array */
+	public Vec3fArray add(float vx, float vy, float vz, int from, int to) {
+		if (x != null) {
+			for (int i = from; i < to; i++) {
+				x[i] += vx;
+				y[i] += vy;
+				z[i] += vz;
+			}
+			return this;
+		}
+		for (int i = from; i < to; i++)
+			set(i, x(i) + vx, y(i) + vy, z(i) + vz);
+		return this;
+	}
+	/** Subtracts the vectors of the other array from the vectors of this array
+	 * @param v - The other array
+	 * @return This array */
+	public Vec3fArray sub(final Vec3fArray v, int from, int to) {
+		if (x != null && v.x != null) {
+			final float[] ox = v.x, oy = v.y, oz = v.z;
+			for (int i = from; i < to; i++) {
+				x[i] -= ox[i];
+				y[i] -= oy[i];
+				z[i] -= oz[i];
+			}
+			return this;
+		}
+		for (int i = from; i < to; i++)
+			set(i, x(i) - v.x(i), y(i) - v.y(i), z(i) - v.z(i));
+		return this;
+	}
+	/** Subtracts the given vector from all vectors of this array
+	 * @return This array */
+	public Vec3fArray sub(float vx, float vy, float vz, int from, int to) {
+		return add(-vx, -vy, -vz, from, to);
+	}
+	/** Multiplies the vectors of this array by the vectors of the other array
+	 * @param v - The other array
+	 * @return This array */
+	public Vec3fArray mul(final Vec3fArray v, int from, int to) {
+		if (x != null && v.x != null) {
+			final float[] ox = v.x, oy = v.y, oz = v.z;
+			for (int i = from; i < to; i++) {
+				x[i] *= ox[i];
+				y[i] *= oy[i];
+				z[i] *= oz[i];
+			}
+			return this;
+		}
+		for (int i = from; i < to; i++)
+			set(i, x(i) * v.x(i), y(i) * v.y(i), z(i) * v.z(i));
+		return this;
+	}
+	/** Multiplies all vectors of this array by the given scalar
+	 * @param s - The scalar float
+	 * @return This array */
+	public Vec3fArray mul(float s, int from, int to) {
+		if (x != null) {
+			for (int i = from; i < to; i++) {
+				x[i] *= s;
+				y[i] *= s;
+				z[i] *= s;
+			}
+			return this;
+		}
+		for (int i = from; i < to; i++)
+			set(i, x(i) * s, y(i) * s, z(i) * s);
+		return this;
+	}
+	/** First scales the vectors of the other array, then adds them to the
+	 * vectors of this array.
+	 * @param v - addition vectors
+	 * @param s - scalar for scaling the addition vectors
+	 * @return This array */
+	public Vec3fArray mulAdd(final Vec3fArray v, float s, int from, int to) {
+		if (x != null && v.x != null) {
+			final float[] ox = v.x, oy = v.y, oz = v.z;
+			for (int i = from; i < to; i++) {
+				x[i] += ox[i] * s;
+				y[i] += oy[i] * s;
+				z[i] += oz[i] * s;
+			}
+			return this;
+		}
+		for (int i = from; i < to; i++)
+			set(i, x(i) + v.x(i) * s, y(i) + v.y(i) * s, z(i) + v.z(i) * s);
+		return this;
+	}
+	/** First scales the vectors of one array by the vectors of another, then
+	 * adds them to the vectors of this array.
+	 * @param vA - addition vectors
+	 * @param vM - vectors for scaling the addition vectors
+	 * @return This array */
+	public Vec3fArray mulAdd(final Vec3fArray vA, final Vec3fArray vM,
+			int from, int to) {
+		if (x != null && vA.x != null && vM.x != null) {
+			final float[] ax = vA.x, ay = vA.y, az = vA.z;
+			final float[] mx = vM.x, my = vM.y, mz = vM.z;
+			for (int i = from; i < to; i++) {
+				x[i] += ax[i] * mx[i];
+				y[i] += ay[i] * my[i];
+				z[i] += az[i] * mz[i];
+			}
+			return this;
+		}
+		for (int i = from; i < to; i++)
+			set(i, x(i) + vA.x(i) * vM.x(i), y(i) + vA.y(i) * vM.y(i), z(i)
+					+ vA.z(i) * vM.z(i));
+		return this;
+	}
+	/** Normalizes the vectors of this array. Zero vectors are left untouched,
+	 * the same as {@link Vec3f#normalize()}.
+	 * @return This array */
+	public Vec3fArray normalize(int from, int to) {
+		for (int i = from; i < to; i++) {
+			final float vx = x(i), vy = y(i), vz = z(i);
+			final float len2 = vx * vx + vy * vy + vz * vz;
+			if (len2 == 0f || len2 == 1f)
+				continue;
+			final float inv = 1f / (float) Math.sqrt(len2);
+			set(i, vx * inv, vy * inv, vz * inv);
+		}
+		return this;
+	}
+	/** Calculates the dot products between the vectors of this and the other
+	 * array
+	 * @param v - The other array
+	 * @param out - Receives the dot product of index i at out[i]
+	 * @return The provided output array */
+	public float[] dot(final Vec3fArray v, float[] out, int from, int to) {
+		if (x != null && v.x != null) {
+			final float[] ox = v.x, oy = v.y, oz = v.z;
+			for (int i = from; i < to; i++)
+				out[i] = x[i] * ox[i] + y[i] * oy[i] + z[i] * oz[i];
+			return out;
+		}
+		for (int i = from; i < to; i++)
+			out[i] = x(i) * v.x(i) + y(i) * v.y(i) + z(i) * v.z(i);
+		return out;
+	}
+	/** Calculates the squared lengths of the vectors of this array
+	 * @param out - Receives the squared length of index i at out[i]
+	 * @return The provided output array */
+	public float[] length2(float[] out, int from, int to) {
+		if (x != null) {
+			for (int i = from; i < to; i++)
+				out[i] = x[i] * x[i] + y[i] * y[i] + z[i] * z[i];
+			return out;
+		}
+		for (int i = from; i < to; i++) {
+			final float vx = x(i), vy = y(i), vz = z(i);
+			out[i] = vx * vx + vy * vy + vz * vz;
+		}
+		return out;
+	}
+	/** Linearly interpolates the vectors of this array towards the vectors of
+	 * the target array by alpha which is in the range [0,1].
+	 * @param target - The target vectors
+	 * @param alpha - The interpolation coefficient
+	 * @return This array */
+	public Vec3fArray lerp(final Vec3fArray target, float alpha, int from,
+			int to) {
+		final float invAlpha = 1.0f - alpha;
+		if (x != null && target.x != null) {
+			final float[] tx = target.x, ty = target.y, tz = target.z;
+			for (int i = from; i < to; i++) {
+				x[i] = x[i] * invAlpha + tx[i] * alpha;
+				y[i] = y[i] * invAlpha + ty[i] * alpha;
+				z[i] = z[i] * invAlpha + tz[i] * alpha;
+			}
+			return this;
+		}
+		for (int i = from; i < to; i++)
+			set(i, x(i) * invAlpha + target.x(i) * alpha, y(i) * invAlpha
+					+ target.y(i) * alpha, z(i) * invAlpha + target.z(i)
+					* alpha);
+		return this;
+	}
+	/** Clamps the lengths of the vectors of this array to the given min and
+	 * max values, the same as {@link Vec3f#clamp(float, float)}.
+	 * @param min - Min length
+	 * @param max - Max length
+	 * @return This array */
+	public Vec3fArray clamp(float min, float max, int from, int to) {
+		final float min2 = min * min, max2 = max * max;
+		for (int i = from; i < to; i++) {
+			final float vx = x(i), vy = y(i), vz = z(i);
+			final float l2 = vx * vx + vy * vy + vz * vz;
+			if (l2 == 0f)
+				continue;
+			final float s;
+			if (l2 > max2)
+				s = max / (float) Math.sqrt(l2);
+			else if (l2 < min2)
+				s = min / (float) Math.sqrt(l2);
+			else
+				continue;
+			set(i, vx * s, vy * s, vz * s);
+		}
+		return this;
+	}
+	/** Limits the lengths of the vectors of this array to the given value
+	 * @return This array */
+	public Vec3fArray limit(float limit, int from, int to) {
+		final float limit2 = limit * limit;
+		for (int i = from; i < to; i++) {
+			final float vx = x(i), vy = y(i), vz = z(i);
+			final float l2 = vx * vx + vy * vy + vz * vz;
+			if (l2 > limit2) {
+				final float s = limit / (float) Math.sqrt(l2);
+				set(i, vx * s, vy * s, vz * s);
+			}
+		}
+		return this;
+	}
+	/** Rotates the vectors of this array by the given quaternion, the same as
+	 * {@link Vec3f#rotate(Quat)} on each of them.
+	 * @param rotation - The rotation, must be normalized. (Not modified)
+	 * @return This array */
+	public Vec3fArray rotate(final Quat rotation, int from, int to) {
+		final float qx = rotation.x(), qy = rotation.y(), qz = rotation.z(), qw = rotation.w();
+		if (x != null) {
+			for (int i = from; i < to; i++) {
+				final float vx = x[i], vy = y[i], vz = z[i];
+				final float tx = 2f * (qy * vz - qz * vy);
+				final float ty = 2f * (qz * vx - qx * vz);
+				final float tz = 2f * (qx * vy - qy * vx);
+				x[i] = vx + qw * tx + qy * tz - qz * ty;
+				y[i] = vy + qw * ty + qz * tx - qx * tz;
+				z[i] = vz + qw * tz + qx * ty - qy * tx;
+			}
+			return this;
+		}
+		for (int i = from; i < to; i++) {
+			final float vx = x(i), vy = y(i), vz = z(i);
+			final float tx = 2f * (qy * vz - qz * vy);
+			final float ty = 2f * (qz * vx - qx * vz);
+			final float tz = 2f * (qx * vy - qy * vx);
+			set(i, vx + qw * tx + qy * tz - qz * ty, vy + qw * ty + qz * tx - qx * tz, vz + qw * tz + qx * ty - qy
+					* tx);
+		}
+		return this;
+	}
+	/**
+	 * Writes the vectors in the range interleaved as x, y, z at the current
+	 * position of the buffer, the layout of a vertex or instance attribute,
+	 * and advances the position by (to - from) * 3
+	 * @param dst - The buffer, usually direct
+	 * @return The provided buffer for chaining
+	 */
+	public FloatBuffer store(FloatBuffer dst, int from, int to) {
+		if (x != null) {
+			for (int i = from; i < to; i++)
+				dst.put(x[i]).put(y[i]).put(z[i]);
+		} else {
+			for (int i = from; i < to; i++)
+				dst.put(bx.get(i)).put(by.get(i)).put(bz.get(i));
+		}
+		return dst;
+	}
+	/**
+	 * Writes the vectors in the range interleaved as x, y, z at the current
+	 * position of the buffer, in the byte order of the buffer, and advances
+	 * the position by (to - from) * 12
+	 * @param dst - The buffer, usually direct and in native order
+	 * @return The provided buffer for chaining
+	 */
+	public ByteBuffer store(ByteBuffer dst, int from, int to) {
+		for (int i = from; i < to; i++)
+			dst.putFloat(x(i)).putFloat(y(i)).putFloat(z(i));
+		return dst;
+	}
+	/**
+	 * Reads interleaved x, y, z triples from the current position of the
+	 * buffer into the range and advances the position by (to - from) * 3
+	 * @param src - The buffer
+	 * @return This array
+	 */
+	public Vec3fArray load(FloatBuffer src, int from, int to) {
+		for (int i = from; i < to; i++)
+			set(i, src.get(), src.get(), src.get());
+		return this;
+	}
+	/**
+	 * Creates a view on the vector at the given index
+	 * @param i - The index
+	 * @return A new view, loaded with the vector at the index
+	 */
+	public View view(int i) {
+		return new View().at(i);
+	}
+
+	/**
+	 * Presents one slot of a {@link Vec3fArray} as a {@link Vec3f}, so that
+	 * existing code working on single vectors can be used on the array. The
+	 * view is a copy of the slot; changes are written back with
+	 * {@link #store()}. A single view may be moved between slots with
+	 * {@link #at(int)} to avoid allocating per element.
+	 *
+	 * @author Zaeem
+	 * @version 1.0
+	 */
+	public class View extends Vec3f {
+		private int index;
+
+		/**
+		 * Loads the vector at the given index into this view
+		 * @param i - The index
+		 * @return This view
+		 */
+		public View at(int i) {
+			index = i;
+			set(Vec3fArray.this.x(i), Vec3fArray.this.y(i),
+					Vec3fArray.this.z(i));
+			return this;
+		}
+		/**
+		 * Writes this view back into its slot of the array
+		 * @return This view
+		 */
+		public View store() {
+			Vec3fArray.this.set(index, this);
+			return this;
+		}
+		/** @return the index of the slot this view presents */
+		public int index() {
+			return index;
+		}
+		/** @return the array this view belongs to */
+		public Vec3fArray array() {
+			return Vec3fArray.this;
+		}
+	}
+}
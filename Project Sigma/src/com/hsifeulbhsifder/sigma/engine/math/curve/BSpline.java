@@ -0,0 +1,55 @@
+package com.hsifeulbhsifder.sigma.engine.math.curve;
+
+import com.hsifeulbhsifder.sigma.engine.math.Vec3f;
+
+/**
+ * A uniform cubic B-spline. The curve is twice continuously differentiable,
+ * so it is the smoothest of the curves, but it only comes near its control
+ * points instead of passing through them. An open curve has one segment per
+ * four consecutive points; a closed curve wraps around and has one segment
+ * per point.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class BSpline extends Spline {
+
+	private static final float S = 1f / 6f;
+	private static final float[] BASIS = {
+		-S, 3 * S, -3 * S, S,
+		3 * S, -6 * S, 3 * S, 0,
+		-3 * S, 0, 3 * S, 0,
+		S, 4 * S, S, 0 };
+
+	/** Constructs an empty curve, which must be set before it is evaluated */
+	public BSpline() {
+	}
+
+	/**
+	 * @param points - The control points, at least 4 for an open curve and 3
+	 *            for a closed one. (Not modified)
+	 * @param closed - Whether the curve wraps around to the first point
+	 */
+	public BSpline(Vec3f[] points, boolean closed) {
+		set(points, closed);
+	}
+
+	/**
+	 * @param points - The control points, at least 4 for an open curve and 3
+	 *            for a closed one. (Not modified)
+	 * @param closed - Whether the curve wraps around to the first point
+	 * @return This curve for chaining
+	 */
+	public BSpline set(Vec3f[] points, boolean closed) {
+		final int n = points.length;
+		if (closed) {
+			setSegments(n < 3 ? 0 : n);
+			for (int i = 0; i < n; i++)
+				setSegment(i, BASIS, points[i], points[(i + 1) % n], points[(i + 2) % n], points[(i + 3) % n]);
+		} else {
+			setSegments(n - 3);
+			for (int i = 0; i < n - 3; i++)
+				setSegment(i, BASIS, points[i], points[i + 1], points[i + 2], points[i + 3]);
+		}
+		return this;
+	}
+}
@@ -0,0 +1,43 @@
+package com.hsifeulbhsifder.sigma.engine.math.curve;
+
+import com.hsifeulbhsifder.sigma.engine.math.Vec3f;
+
+/**
+ * A chain of cubic Bezier segments. Every segment starts where the previous
+ * one ends, so 3n + 1 control points give n segments: an end point, two
+ * handles, an end point, two handles and so on. The curve passes through the
+ * end points only.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class BezierSpline extends Spline {
+
+	private static final float[] BASIS = {
+		-1, 3, -3, 1,
+		3, -6, 3, 0,
+		-3, 3, 0, 0,
+		1, 0, 0, 0 };
+
+	/** Constructs an empty curve, which must be set before it is evaluated */
+	public BezierSpline() {
+	}
+
+	/** @param points - The 3n + 1 control points, at least 4. (Not modified) */
+	public BezierSpline(Vec3f[] points) {
+		set(points);
+	}
+
+	/**
+	 * @param points - The 3n + 1 control points, at least 4, of which any
+	 *            left over past the last full segment are ignored. (Not
+	 *            modified)
+	 * @return This curve for chaining
+	 */
+	public BezierSpline set(Vec3f[] points) {
+		final int segments = (points.length - 1) / 3;
+		setSegments(segments);
+		for (int i = 0; i < segments; i++)
+			setSegment(i, BASIS, points[3 * i], points[3 * i + 1], points[3 * i + 2], points[3 * i + 3]);
+		return this;
+	}
+}
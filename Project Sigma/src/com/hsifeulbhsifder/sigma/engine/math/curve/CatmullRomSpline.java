@@ -0,0 +1,81 @@
+package com.hsifeulbhsifder.sigma.engine.math.curve;
+
+import com.hsifeulbhsifder.sigma.engine.math.Vec3f;
+
+/**
+ * A Catmull-Rom curve, which passes through all of its points with the
+ * tangent at each point given by its two neighbors. An open curve gets a
+ * mirrored point past each end so that it runs from the first to the last
+ * point; a closed curve also joins the last point back to the first.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class CatmullRomSpline extends Spline {
+
+	/** The tension of the classic Catmull-Rom curve */
+	public static final float DEFAULT_TENSION = 0.5f;
+
+	private final float[] basis = new float[16];
+	private final Vec3f start = new Vec3f(), end = new Vec3f();
+
+	/** Constructs an empty curve, which must be set before it is evaluated */
+	public CatmullRomSpline() {
+		setTension(DEFAULT_TENSION);
+	}
+
+	/**
+	 * @param points - The points, at least 2. (Not modified)
+	 * @param closed - Whether the curve joins the last point to the first
+	 */
+	public CatmullRomSpline(Vec3f[] points, boolean closed) {
+		this();
+		set(points, closed);
+	}
+
+	/**
+	 * Sets the tension, the factor of the distance between the neighbors of a
+	 * point used as the tangent at it. Only applies to the next
+	 * {@link #set(Vec3f[], boolean)}.
+	 * @param tension - The tension, 0.5 for the classic curve and 0 for
+	 *            straight lines
+	 * @return This curve for chaining
+	 */
+	public CatmullRomSpline setTension(float tension) {
+		final float t = tension;
+		final float[] b = basis;
+		b[0] = -t; b[1] = 2f - t; b[2] = t - 2f; b[3] = t;
+		b[4] = 2f * t; b[5] = t - 3f; b[6] = 3f - 2f * t; b[7] = -t;
+		b[8] = -t; b[9] = 0f; b[10] = t; b[11] = 0f;
+		b[12] = 0f; b[13] = 1f; b[14] = 0f; b[15] = 0f;
+		return this;
+	}
+
+	/**
+	 * @param points - The points, at least 2. (Not modified)
+	 * @param closed - Whether the curve joins the last point to the first
+	 * @return This curve for chaining
+	 */
+	public CatmullRomSpline set(Vec3f[] points, boolean closed) {
+		final int n = points.length;
+		if (closed) {
+			setSegments(n);
+			for (int i = 0; i < n; i++)
+				setSegment(i, basis, points[(i + n - 1) % n], points[i], points[(i + 1) % n], points[(i + 2) % n]);
+			return this;
+		}
+		setSegments(n - 1);
+		if (n == 2) {
+			start.set(points[0]).mul(2f).sub(points[1]);
+			end.set(points[1]).mul(2f).sub(points[0]);
+			setSegment(0, basis, start, points[0], points[1], end);
+			return this;
+		}
+		start.set(points[0]).mul(2f).sub(points[1]);
+		end.set(points[n - 1]).mul(2f).sub(points[n - 2]);
+		setSegment(0, basis, start, points[0], points[1], points[2]);
+		for (int i = 1; i < n - 2; i++)
+			setSegment(i, basis, points[i - 1], points[i], points[i + 1], points[i + 2]);
+		setSegment(n - 2, basis, points[n - 3], points[n - 2], points[n - 1], end);
+		return this;
+	}
+}
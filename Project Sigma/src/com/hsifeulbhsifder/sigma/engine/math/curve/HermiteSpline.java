@@ -0,0 +1,48 @@
+package com.hsifeulbhsifder.sigma.engine.math.curve;
+
+import com.hsifeulbhsifder.sigma.engine.math.Vec3f;
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * A cubic Hermite curve through the given points with the given tangents at
+ * them. The tangents are derivatives over one segment, so a tangent of length
+ * equal to the distance to the next point gives a natural looking curve.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class HermiteSpline extends Spline {
+
+	// weights of p0, m0, p1, m1
+	private static final float[] BASIS = {
+		2, 1, -2, 1,
+		-3, -2, 3, -1,
+		0, 1, 0, 0,
+		1, 0, 0, 0 };
+
+	/** Constructs an empty curve, which must be set before it is evaluated */
+	public HermiteSpline() {
+	}
+
+	/**
+	 * @param points - The points, at least 2. (Not modified)
+	 * @param tangents - The tangent at each point. (Not modified)
+	 */
+	public HermiteSpline(Vec3f[] points, Vec3f[] tangents) {
+		set(points, tangents);
+	}
+
+	/**
+	 * @param points - The points, at least 2. (Not modified)
+	 * @param tangents - The tangent at each point. (Not modified)
+	 * @return This curve for chaining
+	 * @throws SigmaException if there is not one tangent per point
+	 */
+	public HermiteSpline set(Vec3f[] points, Vec3f[] tangents) {
+		if (tangents.length != points.length)
+			throw new SigmaException("hermite curve needs one tangent per point");
+		setSegments(points.length - 1);
+		for (int i = 0; i < points.length - 1; i++)
+			setSegment(i, BASIS, points[i], tangents[i], points[i + 1], tangents[i + 1]);
+		return this;
+	}
+}
@@ -0,0 +1,196 @@
+package com.hsifeulbhsifder.sigma.engine.math.curve;
+
+import com.hsifeulbhsifder.sigma.engine.math.Quat;
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * A smooth curve through rotations using spherical quadrangle interpolation
+ * (squad) from Shoemake's "Quaternion Calculus for Animation". Between each
+ * pair of keys q[i], q[i + 1] the curve is
+ *
+ * <pre>
+ * slerp(slerp(q[i], q[i + 1], u), slerp(s[i], s[i + 1], u), 2u(1 - u))
+ * </pre>
+ *
+ * where the inner quaternions s are picked once, when the keys are set, so
+ * that the angular velocity is continuous across the keys. Unlike
+ * {@link Quat#slerp(Quat, float)} the slerps here never flip to the other
+ * hemisphere, which would break the curve apart. Like
+ * {@link Spline} the parameter t runs over [0, 1] with each segment taking an
+ * equal share.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class QuatSpline {
+
+	// packed x, y, z, w per key
+	private float[] keys = new float[0];
+	private float[] inner = new float[0];
+	private int count;
+
+	/** Constructs an empty curve, which must be set before it is evaluated */
+	public QuatSpline() {
+	}
+
+	/** @param keys - The keys, at least 2, need to be normalized. (Not modified) */
+	public QuatSpline(Quat[] keys) {
+		set(keys);
+	}
+
+	/** @return the amount of segments */
+	public int segments() {
+		return count - 1;
+	}
+
+	/**
+	 * Sets the keys. Each key is flipped if needed to lie in the same
+	 * hemisphere as the one before, so that the curve takes the short way.
+	 * @param keys - The keys, at least 2, need to be normalized. (Not modified)
+	 * @return This curve for chaining
+	 * @throws SigmaException if there are less than 2 keys
+	 */
+	public QuatSpline set(Quat[] keys) {
+		final int n = keys.length;
+		if (n < 2)
+			throw new SigmaException("not enough keys for a segment");
+		if (this.keys.length < 4 * n) {
+			this.keys = new float[4 * n];
+			this.inner = new float[4 * n];
+		}
+		count = n;
+		final float[] q = this.keys, s = inner;
+		for (int i = 0, o = 0; i < n; i++, o += 4) {
+			final Quat k = keys[i];
+			final float sign = i > 0 && k.x() * q[o - 4] + k.y() * q[o - 3] + k.z() * q[o - 2] + k.w() * q[o - 1] < 0f
+					? -1f : 1f;
+			q[o] = k.x() * sign;
+			q[o + 1] = k.y() * sign;
+			q[o + 2] = k.z() * sign;
+			q[o + 3] = k.w() * sign;
+		}
+		final float[] a = TMP.get();
+		for (int i = 0, o = 0; i < n; i++, o += 4) {
+			// s = q exp(-(log(q^-1 q[i + 1]) + log(q^-1 q[i - 1])) / 4), the
+			// ends using themselves as the missing neighbor
+			log(q, o, 4 * Math.min(i + 1, n - 1), a, 0);
+			log(q, o, 4 * Math.max(i - 1, 0), a, 3);
+			final float vx = -0.25f * (a[0] + a[3]), vy = -0.25f * (a[1] + a[4]), vz = -0.25f * (a[2] + a[5]);
+			final float angle = (float) Math.sqrt(vx * vx + vy * vy + vz * vz);
+			final float sin = angle > 1e-6f ? (float) Math.sin(angle) / angle : 1f;
+			final float ex = vx * sin, ey = vy * sin, ez = vz * sin, ew = (float) Math.cos(angle);
+			final float x = q[o], y = q[o + 1], z = q[o + 2], w = q[o + 3];
+			s[o] = w * ex + x * ew + y * ez - z * ey;
+			s[o + 1] = w * ey + y * ew + z * ex - x * ez;
+			s[o + 2] = w * ez + z * ew + x * ey - y * ex;
+			s[o + 3] = w * ew - x * ex - y * ey - z * ez;
+		}
+		return this;
+	}
+
+	/**
+	 * Writes log(conjugate(a) * b) of two unit quaternions, which is the half
+	 * angle times the axis of the rotation from a to b, at out[offset]
+	 */
+	private static void log(float[] q, int a, int b, float[] out, int offset) {
+		final float ax = -q[a], ay = -q[a + 1], az = -q[a + 2], aw = q[a + 3];
+		final float bx = q[b], by = q[b + 1], bz = q[b + 2], bw = q[b + 3];
+		final float x = aw * bx + ax * bw + ay * bz - az * by;
+		final float y = aw * by + ay * bw + az * bx - ax * bz;
+		final float z = aw * bz + az * bw + ax * by - ay * bx;
+		final float w = aw * bw - ax * bx - ay * by - az * bz;
+		final float len = (float) Math.sqrt(x * x + y * y + z * z);
+		final float scale = len > 1e-6f ? (float) Math.atan2(len, w) / len : 1f;
+		out[offset] = x * scale;
+		out[offset + 1] = y * scale;
+		out[offset + 2] = z * scale;
+	}
+
+	/**
+	 * @param t - The curve parameter, clamped to [0, 1]
+	 * @param out - The quaternion which receives the rotation
+	 * @return The provided quaternion for chaining
+	 */
+	public Quat valueAt(float t, Quat out) {
+		final int segments = count - 1;
+		float s = (t <= 0f ? 0f : t >= 1f ? 1f : t) * segments;
+		if (s >= segments)
+			s = Math.nextDown((float) segments);
+		final int o = (int) s * 4;
+		final float u = s - (int) s;
+		final float[] tmp = TMP.get();
+		slerp(keys, o, keys, o + 4, u, tmp, 0);
+		slerp(inner, o, inner, o + 4, u, tmp, 4);
+		slerp(tmp, 0, tmp, 4, 2f * u * (1f - u), tmp, 0);
+		return out.set(tmp[0], tmp[1], tmp[2], tmp[3]);
+	}
+
+	/**
+	 * Spherically interpolates between the unit quaternions at a[i] and b[j]
+	 * the long way if they are in opposite hemispheres, writing the normalized
+	 * result at out[o]
+	 */
+	private static void slerp(float[] a, int i, float[] b, int j, float alpha, float[] out, int o) {
+		final float ax = a[i], ay = a[i + 1], az = a[i + 2], aw = a[i + 3];
+		final float bx = b[j], by = b[j + 1], bz = b[j + 2], bw = b[j + 3];
+		final float dot = ax * bx + ay * by + az * bz + aw * bw;
+		float scale0 = 1f - alpha, scale1 = alpha;
+		if (dot < 0.9995f) {
+			final float angle = (float) Math.acos(dot < -1f ? -1f : dot);
+			final float invSin = 1f / (float) Math.sin(angle);
+			scale0 = (float) Math.sin((1f - alpha) * angle) * invSin;
+			scale1 = (float) Math.sin(alpha * angle) * invSin;
+		}
+		final float x = scale0 * ax + scale1 * bx, y = scale0 * ay + scale1 * by;
+		final float z = scale0 * az + scale1 * bz, w = scale0 * aw + scale1 * bw;
+		final float inv = 1f / (float) Math.sqrt(x * x + y * y + z * z + w * w);
+		out[o] = x * inv;
+		out[o + 1] = y * inv;
+		out[o + 2] = z * inv;
+		out[o + 3] = w * inv;
+	}
+
+	/**
+	 * Evaluates the curve at evenly spaced parameters from t0 to t1, both
+	 * included, into count packed x, y, z, w quaternions
+	 * @param dst - The array which receives the rotations
+	 */
+	public void evaluate(float t0, float t1, float[] dst, int dstOffset, int count) {
+		final float step = count > 1 ? (t1 - t0) / (count - 1) : 0f;
+		final Quat q = TMP_OUT.get();
+		for (int i = 0, o = dstOffset; i < count; i++, o += 4)
+			store(valueAt(t0 + step * i, q), dst, o);
+	}
+
+	/**
+	 * Evaluates the curve at the parameters t[tOffset...] into count packed x,
+	 * y, z, w quaternions
+	 * @param t - The curve parameters. (Not modified)
+	 * @param dst - The array which receives the rotations
+	 */
+	public void evaluate(float[] t, int tOffset, float[] dst, int dstOffset, int count) {
+		final Quat q = TMP_OUT.get();
+		for (int i = 0, o = dstOffset; i < count; i++, o += 4)
+			store(valueAt(t[tOffset + i], q), dst, o);
+	}
+
+	private static void store(Quat q, float[] dst, int o) {
+		dst[o] = q.x();
+		dst[o + 1] = q.y();
+		dst[o + 2] = q.z();
+		dst[o + 3] = q.w();
+	}
+
+	private static final ThreadLocal<Quat> TMP_OUT = new ThreadLocal<Quat>() {
+		@Override
+		protected Quat initialValue() {
+			return new Quat();
+		}
+	};
+
+	private static final ThreadLocal<float[]> TMP = new ThreadLocal<float[]>() {
+		@Override
+		protected float[] initialValue() {
+			return new float[8];
+		}
+	};
+}
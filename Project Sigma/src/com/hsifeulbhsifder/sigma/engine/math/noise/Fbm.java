@@ -0,0 +1,150 @@
+package com.hsifeulbhsifder.sigma.engine.math.noise;
+
+import com.hsifeulbhsifder.sigma.engine.math.Vec2f;
+import com.hsifeulbhsifder.sigma.engine.math.Vec3f;
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * Fractal Brownian motion: a sum of octaves of a {@link Noise} basis, each
+ * octave at lacunarity times the frequency and gain times the amplitude of the
+ * one before. The sum is divided by the total amplitude so the result stays
+ * roughly in [-1, 1] whatever the octave count. Also provides domain warping,
+ * where the point is displaced by the fractal itself before it is sampled.
+ * An instance is immutable and may be shared between threads.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Fbm {
+
+	// offsets which decorrelate the warp displacement from the sampled field
+	private static final float WARP_X = 5.2f, WARP_Y = 1.3f, WARP_Z = 7.7f;
+	private static final float WARP_W = 3.1f;
+
+	public final Noise noise;
+	public final Noise.Basis basis;
+	public final int octaves;
+	public final float lacunarity;
+	public final float gain;
+	private final float norm;
+
+	/**
+	 * @param noise - The noise to sum octaves of
+	 * @param basis - Whether the octaves are Perlin or simplex noise
+	 * @param octaves - The amount of octaves, at least 1
+	 * @param lacunarity - The frequency multiplier between octaves, usually 2
+	 * @param gain - The amplitude multiplier between octaves, usually 0.5
+	 * @throws SigmaException if octaves is less than 1
+	 */
+	public Fbm(Noise noise, Noise.Basis basis, int octaves, float lacunarity,
+			float gain) {
+		if (octaves < 1)
+			throw new SigmaException("fbm needs at least one octave");
+		this.noise = noise;
+		this.basis = basis;
+		this.octaves = octaves;
+		this.lacunarity = lacunarity;
+		this.gain = gain;
+		float amp = 1f, sum = 0f;
+		for (int i = 0; i < octaves; i++) {
+			sum += amp;
+			amp *= gain;
+		}
+		this.norm = 1f / sum;
+	}
+
+	/** Creates simplex fbm with the usual lacunarity of 2 and gain of 0.5 */
+	public Fbm(long seed, int octaves) {
+		this(new Noise(seed), Noise.Basis.SIMPLEX, octaves, 2f, 0.5f);
+	}
+
+	/** @return the fractal sum at the given point */
+	public float get(float x, float y) {
+		float sum = 0f, amp = 1f;
+		for (int i = 0; i < octaves; i++) {
+			sum += amp * noise.get(basis, x, y);
+			x *= lacunarity;
+			y *= lacunarity;
+			amp *= gain;
+		}
+		return sum * norm;
+	}
+
+	/** @return the fractal sum at the given point */
+	public float get(float x, float y, float z) {
+		float sum = 0f, amp = 1f;
+		for (int i = 0; i < octaves; i++) {
+			sum += amp * noise.get(basis, x, y, z);
+			x *= lacunarity;
+			y *= lacunarity;
+			z *= lacunarity;
+			amp *= gain;
+		}
+		return sum * norm;
+	}
+
+	/** @return the fractal sum at the given point */
+	public float get(float x, float y, float z, float w) {
+		float sum = 0f, amp = 1f;
+		for (int i = 0; i < octaves; i++) {
+			sum += amp * noise.get(basis, x, y, z, w);
+			x *= lacunarity;
+			y *= lacunarity;
+			z *= lacunarity;
+			w *= lacunarity;
+			amp *= gain;
+		}
+		return sum * norm;
+	}
+
+	/**
+	 * Displaces the given point by this fractal, sampled once per axis at
+	 * decorrelated offsets, and scaled by the given amount.
+	 * @param x - The x coordinate
+	 * @param y - The y coordinate
+	 * @param amount - How far the point may move, in noise space
+	 * @param out - Receives the displaced point
+	 * @return The provided vector for chaining
+	 */
+	public Vec2f warp(float x, float y, float amount, Vec2f out) {
+		return out.set(x + amount * get(x, y), y + amount
+				* get(x + WARP_X, y + WARP_Y));
+	}
+
+	/**
+	 * Displaces the given point by this fractal, sampled once per axis at
+	 * decorrelated offsets, and scaled by the given amount.
+	 * @param x - The x coordinate
+	 * @param y - The y coordinate
+	 * @param z - The z coordinate
+	 * @param amount - How far the point may move, in noise space
+	 * @param out - Receives the displaced point
+	 * @return The provided vector for chaining
+	 */
+	public Vec3f warp(float x, float y, float z, float amount, Vec3f out) {
+		return out.set(x + amount * get(x, y, z), y + amount
+				* get(x + WARP_X, y + WARP_Y, z + WARP_Z), z + amount
+				* get(x + WARP_W, y + WARP_Z, z + WARP_X));
+	}
+
+	/**
+	 * @return the fractal sampled at the point displaced by itself, the
+	 *         same as {@link #get(float, float)} on the result of
+	 *         {@link #warp(float, float, float, Vec2f)}
+	 */
+	public float warped(float x, float y, float amount) {
+		final float qx = get(x, y), qy = get(x + WARP_X, y + WARP_Y);
+		return get(x + amount * qx, y + amount * qy);
+	}
+
+	/**
+	 * @return the fractal sampled at the point displaced by itself, the
+	 *         same as {@link #get(float, float, float)} on the result of
+	 *         {@link #warp(float, float, float, float, Vec3f)}
+	 */
+	public float warped(float x, float y, float z, float amount) {
+		final float qx = get(x, y, z);
+		final float qy = get(x + WARP_X, y + WARP_Y, z + WARP_Z);
+		final float qz = get(x + WARP_W, y + WARP_Z, z + WARP_X);
+		return get(x + amount * qx, y + amount * qy, z + amount * qz);
+	}
+}
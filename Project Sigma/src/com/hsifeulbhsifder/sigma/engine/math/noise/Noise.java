@@ -0,0 +1,381 @@
+package com.hsifeulbhsifder.sigma.engine.math.noise;
+
+import com.hsifeulbhsifder.sigma.engine.math.Randomizer;
+
+/**
+ * Gradient noise in 2, 3 and 4 dimensions, as Perlin's improved noise and as
+ * simplex noise. The gradients are picked through a permutation table which
+ * is shuffled by a {@link Randomizer} from the seed, so the same seed always
+ * gives the same noise. Results are roughly in [-1, 1] and are 0 on integer
+ * lattice points (Perlin) or simplex corners (simplex). An instance is
+ * immutable and may be shared between threads.
+ * <p>
+ * Simplex noise follows Stefan Gustavson's reference implementation.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Noise {
+
+	/** The basis functions a {@link Fbm} can be built from */
+	public enum Basis {
+		PERLIN, SIMPLEX
+	}
+
+	private static final float F2 = 0.36602540378f; // (sqrt(3) - 1) / 2
+	private static final float G2 = 0.21132486540f; // (3 - sqrt(3)) / 6
+	private static final float F3 = 1f / 3f;
+	private static final float G3 = 1f / 6f;
+	private static final float F4 = 0.30901699437f; // (sqrt(5) - 1) / 4
+	private static final float G4 = 0.13819660112f; // (5 - sqrt(5)) / 20
+
+	private static final float[] GRAD3 = { 1, 1, 0, -1, 1, 0, 1, -1, 0, -1,
+			-1, 0, 1, 0, 1, -1, 0, 1, 1, 0, -1, -1, 0, -1, 0, 1, 1, 0, -1, 1,
+			0, 1, -1, 0, -1, -1 };
+	private static final float[] GRAD4 = { 0, 1, 1, 1, 0, 1, 1, -1, 0, 1, -1,
+			1, 0, 1, -1, -1, 0, -1, 1, 1, 0, -1, 1, -1, 0, -1, -1, 1, 0, -1,
+			-1, -1, 1, 0, 1, 1, 1, 0, 1, -1, 1, 0, -1, 1, 1, 0, -1, -1, -1, 0,
+			1, 1, -1, 0, 1, -1, -1, 0, -1, 1, -1, 0, -1, -1, 1, 1, 0, 1, 1, 1,
+			0, -1, 1, -1, 0, 1, 1, -1, 0, -1, -1, 1, 0, 1, -1, 1, 0, -1, -1,
+			-1, 0, 1, -1, -1, 0, -1, 1, 1, 1, 0, 1, 1, -1, 0, 1, -1, 1, 0, 1,
+			-1, -1, 0, -1, 1, 1, 0, -1, 1, -1, 0, -1, -1, 1, 0, -1, -1, -1, 0 };
+
+	private final long seed;
+	private final int[] perm = new int[512];
+	private final int[] permMod12 = new int[512];
+
+	/**
+	 * Creates the noise for the given seed
+	 * @param seed - The seed
+	 */
+	public Noise(long seed) {
+		this.seed = seed;
+		final Randomizer random = new Randomizer(seed);
+		for (int i = 0; i < 256; i++)
+			perm[i] = i;
+		for (int i = 255; i > 0; i--) {
+			final int j = random.nextInt(i + 1);
+			final int t = perm[i];
+			perm[i] = perm[j];
+			perm[j] = t;
+		}
+		for (int i = 0; i < 512; i++) {
+			perm[i] = perm[i & 255];
+			permMod12[i] = perm[i] % 12;
+		}
+	}
+
+	/** @return the seed this noise was created from */
+	public long seed() {
+		return seed;
+	}
+
+	// Perlin
+
+	/** @return Perlin's improved noise at the given point */
+	public float perlin(float x, float y) {
+		final int fx = floor(x), fy = floor(y);
+		x -= fx;
+		y -= fy;
+		final int X = fx & 255, Y = fy & 255;
+		final float u = fade(x), v = fade(y);
+		final int a = perm[X] + Y, b = perm[X + 1] + Y;
+		return lerp(v, lerp(u, grad(perm[a], x, y), grad(perm[b], x - 1, y)),
+				lerp(u, grad(perm[a + 1], x, y - 1),
+						grad(perm[b + 1], x - 1, y - 1)));
+	}
+
+	/** @return Perlin's improved noise at the given point */
+	public float perlin(float x, float y, float z) {
+		final int fx = floor(x), fy = floor(y), fz = floor(z);
+		x -= fx;
+		y -= fy;
+		z -= fz;
+		final int X = fx & 255, Y = fy & 255, Z = fz & 255;
+		final float u = fade(x), v = fade(y), w = fade(z);
+		final int a = perm[X] + Y, aa = perm[a] + Z, ab = perm[a + 1] + Z;
+		final int b = perm[X + 1] + Y, ba = perm[b] + Z, bb = perm[b + 1] + Z;
+		return lerp(w, lerp(v, lerp(u, grad(perm[aa], x, y, z),
+				grad(perm[ba], x - 1, y, z)), lerp(u,
+				grad(perm[ab], x, y - 1, z), grad(perm[bb], x - 1, y - 1, z))),
+				lerp(v, lerp(u, grad(perm[aa + 1], x, y, z - 1),
+						grad(perm[ba + 1], x - 1, y, z - 1)), lerp(u,
+						grad(perm[ab + 1], x, y - 1, z - 1),
+						grad(perm[bb + 1], x - 1, y - 1, z - 1))));
+	}
+
+	/** @return Perlin's improved noise at the given point */
+	public float perlin(float x, float y, float z, float w) {
+		final int fx = floor(x), fy = floor(y), fz = floor(z), fw = floor(w);
+		x -= fx;
+		y -= fy;
+		z -= fz;
+		w -= fw;
+		final int X = fx & 255, Y = fy & 255, Z = fz & 255, W = fw & 255;
+		final float u = fade(x), v = fade(y), t = fade(z), s = fade(w);
+		final int a = perm[X] + Y, b = perm[X + 1] + Y;
+		final int aa = perm[a] + Z, ab = perm[a + 1] + Z;
+		final int ba = perm[b] + Z, bb = perm[b + 1] + Z;
+		final int aaa = perm[aa] + W, aab = perm[aa + 1] + W;
+		final int aba = perm[ab] + W, abb = perm[ab + 1] + W;
+		final int baa = perm[ba] + W, bab = perm[ba + 1] + W;
+		final int bba = perm[bb] + W, bbb = perm[bb + 1] + W;
+		final float w0 = lerp(t, lerp(v, lerp(u, grad(perm[aaa], x, y, z, w),
+				grad(perm[baa], x - 1, y, z, w)), lerp(u,
+				grad(perm[aba], x, y - 1, z, w),
+				grad(perm[bba], x - 1, y - 1, z, w))), lerp(v, lerp(u,
+				grad(perm[aab], x, y, z - 1, w),
+				grad(perm[bab], x - 1, y, z - 1, w)), lerp(u,
+				grad(perm[abb], x, y - 1, z - 1, w),
+				grad(perm[bbb], x - 1, y - 1, z - 1, w))));
+		final float w1 = lerp(t, lerp(v, lerp(u,
+				grad(perm[aaa + 1], x, y, z, w - 1),
+				grad(perm[baa + 1], x - 1, y, z, w - 1)), lerp(u,
+				grad(perm[aba + 1], x, y - 1, z, w - 1),
+				grad(perm[bba + 1], x - 1, y - 1, z, w - 1))), lerp(v, lerp(u,
+				grad(perm[aab + 1], x, y, z - 1, w - 1),
+				grad(perm[bab + 1], x - 1, y, z - 1, w - 1)), lerp(u,
+				grad(perm[abb + 1], x, y - 1, z - 1, w - 1),
+				grad(perm[bbb + 1], x - 1, y - 1, z - 1, w - 1))));
+		return lerp(s, w0, w1);
+	}
+
+	// Simplex
+
+	/** @return simplex noise at the given point */
+	public float simplex(float x, float y) {
+		final float s = (x + y) * F2;
+		final int i = floor(x + s), j = floor(y + s);
+		final float t = (i + j) * G2;
+		final float x0 = x - (i - t), y0 = y - (j - t);
+		final int i1 = x0 > y0 ? 1 : 0, j1 = 1 - i1;
+		final float x1 = x0 - i1 + G2, y1 = y0 - j1 + G2;
+		final float x2 = x0 - 1 + 2 * G2, y2 = y0 - 1 + 2 * G2;
+		final int ii = i & 255, jj = j & 255;
+		float n = 0;
+		float t0 = 0.5f - x0 * x0 - y0 * y0;
+		if (t0 > 0) {
+			t0 *= t0;
+			n += t0 * t0 * dot(permMod12[ii + perm[jj]], x0, y0);
+		}
+		float t1 = 0.5f - x1 * x1 - y1 * y1;
+		if (t1 > 0) {
+			t1 *= t1;
+			n += t1 * t1 * dot(permMod12[ii + i1 + perm[jj + j1]], x1, y1);
+		}
+		float t2 = 0.5f - x2 * x2 - y2 * y2;
+		if (t2 > 0) {
+			t2 *= t2;
+			n += t2 * t2 * dot(permMod12[ii + 1 + perm[jj + 1]], x2, y2);
+		}
+		return 70 * n;
+	}
+
+	/** @return simplex noise at the given point */
+	public float simplex(float x, float y, float z) {
+		final float s = (x + y + z) * F3;
+		final int i = floor(x + s), j = floor(y + s), k = floor(z + s);
+		final float t = (i + j + k) * G3;
+		final float x0 = x - (i - t), y0 = y - (j - t), z0 = z - (k - t);
+		int i1, j1, k1, i2, j2, k2;
+		if (x0 >= y0) {
+			if (y0 >= z0) {
+				i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 1; k2 = 0;
+			} else if (x0 >= z0) {
+				i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 0; k2 = 1;
+			} else {
+				i1 = 0; j1 = 0; k1 = 1; i2 = 1; j2 = 0; k2 = 1;
+			}
+		} else {
+			if (y0 < z0) {
+				i1 = 0; j1 = 0; k1 = 1; i2 = 0; j2 = 1; k2 = 1;
+			} else if (x0 < z0) {
+				i1 = 0; j1 = 1; k1 = 0; i2 = 0; j2 = 1; k2 = 1;
+			} else {
+				i1 = 0; j1 = 1; k1 = 0; i2 = 1; j2 = 1; k2 = 0;
+			}
+		}
+		final float x1 = x0 - i1 + G3, y1 = y0 - j1 + G3, z1 = z0 - k1 + G3;
+		final float x2 = x0 - i2 + 2 * G3, y2 = y0 - j2 + 2 * G3, z2 = z0 - k2
+				+ 2 * G3;
+		final float x3 = x0 - 1 + 3 * G3, y3 = y0 - 1 + 3 * G3, z3 = z0 - 1 + 3
+				* G3;
+		final int ii = i & 255, jj = j & 255, kk = k & 255;
+		float n = 0;
+		float t0 = 0.6f - x0 * x0 - y0 * y0 - z0 * z0;
+		if (t0 > 0) {
+			t0 *= t0;
+			n += t0 * t0
+					* dot(permMod12[ii + perm[jj + perm[kk]]], x0, y0, z0);
+		}
+		float t1 = 0.6f - x1 * x1 - y1 * y1 - z1 * z1;
+		if (t1 > 0) {
+			t1 *= t1;
+			n += t1 * t1 * dot(permMod12[ii + i1 + perm[jj + j1 + perm[kk + k1]]],
+					x1, y1, z1);
+		}
+		float t2 = 0.6f - x2 * x2 - y2 * y2 - z2 * z2;
+		if (t2 > 0) {
+			t2 *= t2;
+			n += t2 * t2 * dot(permMod12[ii + i2 + perm[jj + j2 + perm[kk + k2]]],
+					x2, y2, z2);
+		}
+		float t3 = 0.6f - x3 * x3 - y3 * y3 - z3 * z3;
+		if (t3 > 0) {
+			t3 *= t3;
+			n += t3 * t3 * dot(permMod12[ii + 1 + perm[jj + 1 + perm[kk + 1]]],
+					x3, y3, z3);
+		}
+		return 32 * n;
+	}
+
+	/** @return simplex noise at the given point */
+	public float simplex(float x, float y, float z, float w) {
+		final float s = (x + y + z + w) * F4;
+		final int i = floor(x + s), j = floor(y + s), k = floor(z + s), l = floor(w
+				+ s);
+		final float t = (i + j + k + l) * G4;
+		final float x0 = x - (i - t), y0 = y - (j - t), z0 = z - (k - t), w0 = w
+				- (l - t);
+		// rank the coordinates to find the simplex
+		int rankx = 0, ranky = 0, rankz = 0, rankw = 0;
+		if (x0 > y0) rankx++; else ranky++;
+		if (x0 > z0) rankx++; else rankz++;
+		if (x0 > w0) rankx++; else rankw++;
+		if (y0 > z0) ranky++; else rankz++;
+		if (y0 > w0) ranky++; else rankw++;
+		if (z0 > w0) rankz++; else rankw++;
+		final int i1 = rankx >= 3 ? 1 : 0, j1 = ranky >= 3 ? 1 : 0;
+		final int k1 = rankz >= 3 ? 1 : 0, l1 = rankw >= 3 ? 1 : 0;
+		final int i2 = rankx >= 2 ? 1 : 0, j2 = ranky >= 2 ? 1 : 0;
+		final int k2 = rankz >= 2 ? 1 : 0, l2 = rankw >= 2 ? 1 : 0;
+		final int i3 = rankx >= 1 ? 1 : 0, j3 = ranky >= 1 ? 1 : 0;
+		final int k3 = rankz >= 1 ? 1 : 0, l3 = rankw >= 1 ? 1 : 0;
+		final float x1 = x0 - i1 + G4, y1 = y0 - j1 + G4, z1 = z0 - k1 + G4, w1 = w0
+				- l1 + G4;
+		final float x2 = x0 - i2 + 2 * G4, y2 = y0 - j2 + 2 * G4, z2 = z0 - k2 + 2
+				* G4, w2 = w0 - l2 + 2 * G4;
+		final float x3 = x0 - i3 + 3 * G4, y3 = y0 - j3 + 3 * G4, z3 = z0 - k3 + 3
+				* G4, w3 = w0 - l3 + 3 * G4;
+		final float x4 = x0 - 1 + 4 * G4, y4 = y0 - 1 + 4 * G4, z4 = z0 - 1 + 4
+				* G4, w4 = w0 - 1 + 4 * G4;
+		final int ii = i & 255, jj = j & 255, kk = k & 255, ll = l & 255;
+		float n = 0;
+		float t0 = 0.6f - x0 * x0 - y0 * y0 - z0 * z0 - w0 * w0;
+		if (t0 > 0) {
+			t0 *= t0;
+			n += t0 * t0 * dot(perm[ii + perm[jj + perm[kk + perm[ll]]]] & 31,
+					x0, y0, z0, w0);
+		}
+		float t1 = 0.6f - x1 * x1 - y1 * y1 - z1 * z1 - w1 * w1;
+		if (t1 > 0) {
+			t1 *= t1;
+			n += t1 * t1 * dot(perm[ii + i1 + perm[jj + j1 + perm[kk + k1 + perm[ll
+					+ l1]]]] & 31, x1, y1, z1, w1);
+		}
+		float t2 = 0.6f - x2 * x2 - y2 * y2 - z2 * z2 - w2 * w2;
+		if (t2 > 0) {
+			t2 *= t2;
+			n += t2 * t2 * dot(perm[ii + i2 + perm[jj + j2 + perm[kk + k2 + perm[ll
+					+ l2]]]] & 31, x2, y2, z2, w2);
+		}
+		float t3 = 0.6f - x3 * x3 - y3 * y3 - z3 * z3 - w3 * w3;
+		if (t3 > 0) {
+			t3 *= t3;
+			n += t3 * t3 * dot(perm[ii + i3 + perm[jj + j3 + perm[kk + k3 + perm[ll
+					+ l3]]]] & 31, x3, y3, z3, w3);
+		}
+		float t4 = 0.6f - x4 * x4 - y4 * y4 - z4 * z4 - w4 * w4;
+		if (t4 > 0) {
+			t4 *= t4;
+			n += t4 * t4 * dot(perm[ii + 1 + perm[jj + 1 + perm[kk + 1 + perm[ll
+					+ 1]]]] & 31, x4, y4, z4, w4);
+		}
+		return 27 * n;
+	}
+
+	/**
+	 * @return the basis function of the given kind at the given point
+	 */
+	public float get(Basis basis, float x, float y) {
+		return basis == Basis.SIMPLEX ? simplex(x, y) : perlin(x, y);
+	}
+
+	/**
+	 * @return the basis function of the given kind at the given point
+	 */
+	public float get(Basis basis, float x, float y, float z) {
+		return basis == Basis.SIMPLEX ? simplex(x, y, z) : perlin(x, y, z);
+	}
+
+	/**
+	 * @return the basis function of the given kind at the given point
+	 */
+	public float get(Basis basis, float x, float y, float z, float w) {
+		return basis == Basis.SIMPLEX ? simplex(x, y, z, w) : perlin(x, y, z,
+				w);
+	}
+
+	/** @return the largest integer less than or equal to x, for any int range */
+	private static int floor(float x) {
+		final int i = (int) x;
+		return x < i ? i - 1 : i;
+	}
+
+	private static float fade(float t) {
+		return t * t * t * (t * (t * 6 - 15) + 10);
+	}
+
+	private static float lerp(float t, float a, float b) {
+		return a + t * (b - a);
+	}
+
+	private static float grad(int hash, float x, float y) {
+		switch (hash & 7) {
+		case 0:
+			return x + y;
+		case 1:
+			return x - y;
+		case 2:
+			return -x + y;
+		case 3:
+			return -x - y;
+		case 4:
+			return x;
+		case 5:
+			return -x;
+		case 6:
+			return y;
+		default:
+			return -y;
+		}
+	}
+
+	private static float grad(int hash, float x, float y, float z) {
+		final int h = hash & 15;
+		final float u = h < 8 ? x : y;
+		final float v = h < 4 ? y : h == 12 || h == 14 ? x : z;
+		return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v);
+	}
+
+	private static float grad(int hash, float x, float y, float z, float w) {
+		final int h = hash & 31;
+		final float u = h < 24 ? x : y;
+		final float v = h < 16 ? y : z;
+		final float s = h < 8 ? z : w;
+		return ((h & 1) == 0 ? u : -u) + ((h & 2) == 0 ? v : -v)
+				+ ((h & 4) == 0 ? s : -s);
+	}
+
+	private static float dot(int g, float x, float y) {
+		return GRAD3[g * 3] * x + GRAD3[g * 3 + 1] * y;
+	}
+
+	private static float dot(int g, float x, float y, float z) {
+		return GRAD3[g * 3] * x + GRAD3[g * 3 + 1] * y + GRAD3[g * 3 + 2] * z;
+	}
+
+	private static float dot(int g, float x, float y, float z, float w) {
+		return GRAD4[g * 4] * x + GRAD4[g * 4 + 1] * y + GRAD4[g * 4 + 2] * z
+				+ GRAD4[g * 4 + 3] * w;
+	}
+}
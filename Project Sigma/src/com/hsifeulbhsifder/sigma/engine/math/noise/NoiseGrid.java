@@ -0,0 +1,151 @@
+package com.hsifeulbhsifder.sigma.engine.math.noise;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * Fills dense grids with a {@link Fbm}, for height maps, textures and
+ * turbulence volumes. Cell (x, y, z) of a grid samples the point
+ * (x0 + x * step, y0 + y * step, z0 + z * step) and is stored at
+ * dst[offset + (z * height + y) * width + x].
+ * <p>
+ * Rows are split across the common fork-join pool. Each cell only depends on
+ * its coordinates and the seed of the noise, so the result is the same no
+ * matter how the rows were scheduled, and the same as filling on one thread.
+ * @author Zaeem
+ * @version 1.0
+ */
+public class NoiseGrid {
+
+	/** Rows below which a task is not split further */
+	private static final int ROWS_PER_TASK = 8;
+
+	private static final int PLANE = 0;
+	private static final int VOLUME = 1;
+	private static final int WARPED = 2;
+
+	private NoiseGrid() {
+	}
+
+	/**
+	 * Fills a width by height grid with 2D fbm
+	 * @param fbm - The fractal to sample
+	 * @param dst - Receives the grid, row by row
+	 * @param offset - The index of the first cell in dst
+	 * @return The provided array for chaining
+	 */
+	public static float[] fill(Fbm fbm, float[] dst, int offset, int width,
+			int height, float x0, float y0, float step) {
+		return run(PLANE, fbm, dst, offset, width, height, 1, x0, y0, 0f,
+				step, 0f);
+	}
+
+	/**
+	 * Fills a width by height grid with 2D fbm sampled at points warped by
+	 * itself, see {@link Fbm#warped(float, float, float)}
+	 * @param fbm - The fractal to sample
+	 * @param dst - Receives the grid, row by row
+	 * @param offset - The index of the first cell in dst
+	 * @param amount - How far points may be displaced, in noise space
+	 * @return The provided array for chaining
+	 */
+	public static float[] fillWarped(Fbm fbm, float[] dst, int offset,
+			int width, int height, float x0, float y0, float step, float amount) {
+		return run(WARPED, fbm, dst, offset, width, height, 1, x0, y0, 0f,
+				step, amount);
+	}
+
+	/**
+	 * Fills a width by height by depth volume with 3D fbm. A depth of 1 fills
+	 * a single slice through the volume at z0.
+	 * @param fbm - The fractal to sample
+	 * @param dst - Receives the volume, slice by slice and row by row
+	 * @param offset - The index of the first cell in dst
+	 * @return The provided array for chaining
+	 */
+	public static float[] fill(Fbm fbm, float[] dst, int offset, int width,
+			int height, int depth, float x0, float y0, float z0, float step) {
+		return run(VOLUME, fbm, dst, offset, width, height, depth, x0, y0, z0,
+				step, 0f);
+	}
+
+	private static float[] run(int kind, Fbm fbm, float[] dst, int offset,
+			int width, int height, int depth, float x0, float y0, float z0,
+			float step, float amount) {
+		if (width < 0 || height < 0 || depth < 0)
+			throw new SigmaException("negative grid size");
+		final long cells = (long) width * height * depth;
+		if (offset < 0 || offset + cells > dst.length)
+			throw new SigmaException("grid does not fit the array");
+		final Rows rows = new Rows(kind, fbm, dst, offset, width, height, x0,
+				y0, z0, step, amount, 0, height * depth);
+		if (height * depth <= ROWS_PER_TASK)
+			rows.compute();
+		else
+			ForkJoinPool.commonPool().invoke(rows);
+		return dst;
+	}
+
+	@SuppressWarnings("serial")
+	private static class Rows extends RecursiveAction {
+
+		private final int kind;
+		private final Fbm fbm;
+		private final float[] dst;
+		private final int offset, width, height;
+		private final float x0, y0, z0, step, amount;
+		private final int from, to;
+
+		Rows(int kind, Fbm fbm, float[] dst, int offset, int width, int height,
+				float x0, float y0, float z0, float step, float amount,
+				int from, int to) {
+			this.kind = kind;
+			this.fbm = fbm;
+			this.dst = dst;
+			this.offset = offset;
+			this.width = width;
+			this.height = height;
+			this.x0 = x0;
+			this.y0 = y0;
+			this.z0 = z0;
+			this.step = step;
+			this.amount = amount;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > ROWS_PER_TASK) {
+				final int mid = (from + to) >>> 1;
+				invokeAll(split(from, mid), split(mid, to));
+				return;
+			}
+			for (int row = from; row < to; row++) {
+				final float y = y0 + (row % height) * step;
+				final float z = z0 + (row / height) * step;
+				int i = offset + row * width;
+				for (int c = 0; c < width; c++, i++) {
+					final float x = x0 + c * step;
+					switch (kind) {
+					case PLANE:
+						dst[i] = fbm.get(x, y);
+						break;
+					case WARPED:
+						dst[i] = fbm.warped(x, y, amount);
+						break;
+					default:
+						dst[i] = fbm.get(x, y, z);
+					}
+				}
+			}
+		}
+
+		private Rows split(int from, int to) {
+			return new Rows(kind, fbm, dst, offset, width, height, x0, y0, z0,
+					step, amount, from, to);
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * Checks that a {@link Decomposition} composes back into the matrix it was
+ * taken from. Covered are random translation * rotation * scale matrices,
+ * mirrors, and singular matrices with one, two or all three axes scaled to
+ * zero, which is how a bone is hidden. Every matrix must come back from
+ * {@link Decomposition#get(Mat4f)} within a small error relative to its
+ * largest value, and the batch
+ * {@link Decomposition#decompose(Mat4fArray, int, int, Vec3fArray, float[], Vec3fArray)}
+ * must give exactly the results of {@link Decomposition#set(Mat4f)}.
+ * <p>
+ * Usage: java DecompositionRoundTrip [count] [seed]
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class DecompositionRoundTrip {
+
+	private static final float MAX_ERROR = 1e-4f;
+
+	private static int failures;
+	private static float maxError, maxSingularError;
+
+	public static void main(String[] args) {
+		final int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		final Randomizer random = args.length > 1 ? new Randomizer(Long.parseLong(args[1])) : new Randomizer(1);
+
+		final Mat4f[] matrices = new Mat4f[count];
+		for (int i = 0; i < count; i++) {
+			final float sx = 0.1f + random.nextFloat() * 4f, sy = 0.1f + random.nextFloat() * 4f;
+			final float sz = 0.1f + random.nextFloat() * 4f;
+			// every fourth one mirrored
+			matrices[i] = trs(random, (i & 3) == 0 ? -sx : sx, sy, sz);
+			maxError = Math.max(maxError, roundTrip(matrices[i]));
+		}
+
+		// a bone hidden by a zero x scale after a 90 degree turn about z
+		final Mat4f hidden = new Mat4f().set(new Vec3f(1f, 2f, 3f), new Quat(new Vec3f(0f, 0f, 1f), 90f), new Vec3f(0f,
+				1f, 1f));
+		maxSingularError = Math.max(maxSingularError, roundTrip(hidden));
+		final Decomposition d = new Decomposition(hidden);
+		check(Math.abs(d.scale.x()) < 1e-6f && Math.abs(d.scale.y() - 1f) < 1e-6f && Math.abs(d.scale.z() - 1f) < 1e-6f,
+				"scale " + d.scale + " is not (0, 1, 1)", hidden);
+		check(Math.abs(Math.abs(d.rotation.z()) - (float) Math.sqrt(0.5)) < 1e-6f, "rotation " + d.rotation
+				+ " is not 90 degrees about z", hidden);
+
+		// one, two and three axes scaled to zero, with and without a mirror
+		for (int i = 0; i < count / 10; i++)
+			for (int zero = 1; zero < 8; zero++) {
+				final float s = (i & 1) == 0 ? 1f : -1f;
+				final Mat4f m = trs(random, (zero & 1) != 0 ? 0f : s * (0.1f + random.nextFloat() * 4f),
+						(zero & 2) != 0 ? 0f : 0.1f + random.nextFloat() * 4f, (zero & 4) != 0 ? 0f
+								: 0.1f + random.nextFloat() * 4f);
+				maxSingularError = Math.max(maxSingularError, roundTrip(m));
+			}
+
+		// a tiny but nonzero scale goes through the iteration and must not overflow
+		for (int i = 0; i < 100; i++)
+			maxError = Math.max(maxError, roundTrip(trs(random, 1e-20f, 1f, 2f)));
+
+		batch(matrices);
+
+		System.out.println(count + " matrices, largest error " + maxError + ", singular matrices " + maxSingularError
+				+ " of " + MAX_ERROR + ", " + failures + " failures");
+		if (failures != 0)
+			throw new SigmaException("decomposition failed " + failures + " checks");
+	}
+
+	/** @return the largest difference between the matrix and its round trip relative to its largest value */
+	private static float roundTrip(Mat4f matrix) {
+		final Decomposition d = new Decomposition(matrix);
+		final Mat4f back = d.get(new Mat4f());
+		float largest = 1f, error = 0f;
+		for (int i = 0; i < 16; i++)
+			largest = Math.max(largest, Math.abs(matrix.m[i]));
+		for (int i = 0; i < 16; i++)
+			error = Math.max(error, Math.abs(back.m[i] - matrix.m[i]) / largest);
+		check(!Float.isNaN(error) && error <= MAX_ERROR, "round trip error " + error + " (" + d + ")", matrix);
+		final float len = d.rotation.length();
+		check(Math.abs(len - 1f) < 1e-5f, "rotation not normalized, length " + len, matrix);
+		return error;
+	}
+
+	/** The batch decomposition gives the same bits as the single one */
+	private static void batch(Mat4f[] matrices) {
+		final int count = Math.min(matrices.length, 10000);
+		final Mat4fArray src = new Mat4fArray(count);
+		for (int i = 0; i < count; i++)
+			src.set(i, matrices[i]);
+		final Vec3fArray translations = new Vec3fArray(count), scales = new Vec3fArray(count);
+		final float[] rotations = new float[count * 4];
+		Decomposition.decompose(src, 0, count, translations, rotations, scales);
+		final Decomposition d = new Decomposition();
+		final Vec3f t = new Vec3f(), s = new Vec3f();
+		for (int i = 0; i < count; i++) {
+			d.set(matrices[i]);
+			translations.get(i, t);
+			scales.get(i, s);
+			check(t.equals(d.translation) && s.equals(d.scale) && rotations[i * 4] == d.rotation.x()
+					&& rotations[i * 4 + 1] == d.rotation.y() && rotations[i * 4 + 2] == d.rotation.z()
+					&& rotations[i * 4 + 3] == d.rotation.w(), "batch differs from set", matrices[i]);
+		}
+	}
+
+	private static Mat4f trs(Randomizer random, float sx, float sy, float sz) {
+		final Vec3f axis = new Vec3f(random.nextFloat() * 2f - 1f, random.nextFloat() * 2f - 1f,
+				random.nextFloat() * 2f - 1f);
+		if (axis.length2() == 0f)
+			axis.set(0f, 1f, 0f);
+		final Quat q = new Quat(axis.normalize(), random.nextFloat() * 360f).normalize();
+		return new Mat4f().set(new Vec3f(random.nextFloat() * 200f - 100f, random.nextFloat() * 200f - 100f,
+				random.nextFloat() * 200f - 100f), q, new Vec3f(sx, sy, sz));
+	}
+
+	private static void check(boolean passed, String message, Mat4f matrix) {
+		if (passed)
+			return;
+		if (failures++ < 20)
+			System.out.println(message + " for\n" + matrix);
+	}
+}
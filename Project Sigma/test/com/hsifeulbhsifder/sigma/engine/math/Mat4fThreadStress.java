@@ -0,0 +1,108 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * Runs the {@link Mat4f} operations which use per thread scratch space on
+ * many threads of one JVM at once and checks every result bit for bit against
+ * the same work done on a single thread first. Any shared temporary would let
+ * the threads overwrite each other's intermediate values and show up as a
+ * mismatch.
+ * <p>
+ * Usage: java Mat4fThreadStress [threads] [rounds] [jobs]
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class Mat4fThreadStress {
+
+	private static final int OPERATIONS = 8;
+
+	public static void main(String[] args) throws InterruptedException {
+		final int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(8, Runtime.getRuntime()
+				.availableProcessors() * 2);
+		final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+		final int jobs = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+		final float[] expected = new float[jobs * OPERATIONS * 16];
+		for (int j = 0; j < jobs; j++)
+			run(j, expected);
+
+		final AtomicInteger mismatches = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+		final Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final int first = t;
+			workers[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					final float[] actual = new float[OPERATIONS * 16];
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int r = 0; r < rounds; r++) {
+						// every thread walks all jobs from a different start so the
+						// same operations overlap in time
+						for (int k = 0; k < jobs; k++) {
+							final int j = (first * 131 + r * 17 + k) % jobs;
+							Mat4fThreadStress.run(j, actual, 0);
+							for (int i = 0, e = j * OPERATIONS * 16; i < actual.length; i++, e++)
+								if (Float.floatToRawIntBits(actual[i]) != Float.floatToRawIntBits(expected[e]))
+									mismatches.incrementAndGet();
+						}
+					}
+				}
+			}, "stress-" + t);
+			workers[t].start();
+		}
+		final long time = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers)
+			worker.join();
+		final long checked = (long) threads * rounds * jobs * OPERATIONS * 16;
+		System.out.println(threads + " threads, " + checked + " values checked in "
+				+ (System.nanoTime() - time) / 1000000 + " ms, " + mismatches.get() + " mismatches");
+		if (mismatches.get() != 0)
+			throw new SigmaException("parallel results differ from the serial results");
+	}
+
+	private static void run(int job, float[] dst) {
+		run(job, dst, job * OPERATIONS * 16);
+	}
+
+	/** Runs every operation on inputs derived from the job index and writes the matrices at dst[offset] */
+	private static void run(int job, float[] dst, int offset) {
+		final Randomizer random = new Randomizer(job);
+		final Vec3f position = vector(random, 100f), target = vector(random, 100f);
+		final Vec3f forward = vector(random, 1f), up = vector(random, 1f);
+		final Quat rotation = new Quat(vector(random, 1f), random.nextFloat() * 360f).normalize();
+		final Mat4f a = new Mat4f().set(position, rotation, new Vec3f(1f + random.nextFloat()));
+		final Mat4f b = new Mat4f().set(target, new Quat(up, random.nextFloat() * 360f).normalize(), new Vec3f(
+				0.5f + random.nextFloat()));
+		final Mat4f m = new Mat4f();
+		int o = offset;
+
+		store(m.setToLookAt(position, target, up), dst, o);
+		store(m.setToWorld(position, forward, up), dst, o += 16);
+		store(m.set(a).mul(b), dst, o += 16);
+		store(m.set(a).average(b, random.nextFloat()), dst, o += 16);
+		store(m.avg(new Mat4f[] { a, b, a }, new float[] { 0.25f, 0.5f, 0.25f }), dst, o += 16);
+		store(m.set(a).rotate(up, random.nextFloat() * 360f), dst, o += 16);
+		store(m.setToRotation(forward, random.nextFloat() * 360f), dst, o += 16);
+		store(m.set(a).rotate(forward, up), dst, o += 16);
+	}
+
+	private static Vec3f vector(Randomizer random, float scale) {
+		return new Vec3f(random.nextFloat() * 2f - 1f, random.nextFloat() * 2f - 1f, random.nextFloat() * 2f - 1f)
+				.mul(scale);
+	}
+
+	private static void store(Mat4f matrix, float[] dst, int offset) {
+		System.arraycopy(matrix.m, 0, dst, offset, 16);
+	}
+}
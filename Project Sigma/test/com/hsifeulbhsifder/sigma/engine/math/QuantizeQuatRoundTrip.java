@@ -0,0 +1,201 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * Checks the smallest three quaternion packing of {@link Quantize}. Every
+ * quaternion is sent through {@link Quantize#packQuat32(Quat)} and
+ * {@link Quantize#packQuat48(Quat)} and the rotation between it and its
+ * round trip must stay within {@link Quantize#QUAT32_MAX_ANGLE} and
+ * {@link Quantize#QUAT48_MAX_ANGLE}. Covered are random unit quaternions,
+ * ties between the two (or more) largest components, q and -q, which must
+ * pack to the same bits, and the bulk methods, which must give exactly the
+ * results of the single ones.
+ * <p>
+ * Usage: java QuantizeQuatRoundTrip [count] [seed]
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class QuantizeQuatRoundTrip {
+
+	private static int failures;
+	private static double max32, max48;
+
+	public static void main(String[] args) {
+		final int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		final Randomizer random = args.length > 1 ? new Randomizer(Long.parseLong(args[1])) : new Randomizer(1);
+
+		final Quat[] quats = new Quat[count];
+		for (int i = 0; i < count; i++)
+			quats[i] = randomQuat(random);
+		for (Quat q : quats)
+			roundTrip(q);
+
+		ties(random);
+		signs(random);
+		bulk(quats, random);
+
+		System.out.println(count + " random quaternions and the edge cases, largest error " + Math.toDegrees(max32) + " of "
+				+ Math.toDegrees(Quantize.QUAT32_MAX_ANGLE) + " degrees for 32 bits, " + Math.toDegrees(max48) + " of "
+				+ Math.toDegrees(Quantize.QUAT48_MAX_ANGLE) + " degrees for 48 bits, " + failures + " failures");
+		if (failures != 0)
+			throw new SigmaException("quaternion packing failed " + failures + " checks");
+	}
+
+	/** Two largest components of equal size in every pair of positions and with every sign */
+	private static void ties(Randomizer random) {
+		final float h = (float) Math.sqrt(0.5);
+		final float[] c = new float[4];
+		for (int i = 0; i < 4; i++)
+			for (int j = 0; j < 4; j++) {
+				if (i == j)
+					continue;
+				for (int signs = 0; signs < 4; signs++) {
+					c[0] = c[1] = c[2] = c[3] = 0f;
+					c[i] = (signs & 1) == 0 ? h : -h;
+					c[j] = (signs & 2) == 0 ? h : -h;
+					roundTrip(new Quat(c[0], c[1], c[2], c[3]));
+
+					// two equal largest with small others, and one ulp apart
+					for (int k = 0; k < 100; k++) {
+						final float t = (random.nextFloat() * 2f - 1f) * 0.5f;
+						final float u = (random.nextFloat() * 2f - 1f) * 0.5f;
+						final float s = (float) Math.sqrt((1.0 - t * t - u * u) * 0.5);
+						int n = 0;
+						for (int l = 0; l < 4; l++)
+							if (l != i && l != j)
+								c[l] = n++ == 0 ? t : u;
+						c[i] = (signs & 1) == 0 ? s : -s;
+						c[j] = (signs & 2) == 0 ? s : -s;
+						roundTrip(new Quat(c[0], c[1], c[2], c[3]));
+						c[j] = (signs & 2) == 0 ? Math.nextUp(s) : -Math.nextUp(s);
+						roundTrip(new Quat(c[0], c[1], c[2], c[3]));
+						c[j] = (signs & 2) == 0 ? Math.nextDown(s) : -Math.nextDown(s);
+						roundTrip(new Quat(c[0], c[1], c[2], c[3]));
+					}
+				}
+			}
+		// all four equal, the worst case of the error bound
+		for (int signs = 0; signs < 16; signs++)
+			roundTrip(new Quat((signs & 1) == 0 ? 0.5f : -0.5f, (signs & 2) == 0 ? 0.5f : -0.5f,
+					(signs & 4) == 0 ? 0.5f : -0.5f, (signs & 8) == 0 ? 0.5f : -0.5f));
+		// a single axis
+		for (int i = 0; i < 8; i++)
+			roundTrip(new Quat(i == 0 ? 1f : i == 1 ? -1f : 0f, i == 2 ? 1f : i == 3 ? -1f : 0f, i == 4 ? 1f
+					: i == 5 ? -1f : 0f, i == 6 ? 1f : i == 7 ? -1f : 0f));
+	}
+
+	/** q and -q are the same rotation and must pack to the same bits */
+	private static void signs(Randomizer random) {
+		final Quat out = new Quat();
+		for (int k = 0; k < 100000; k++) {
+			final Quat q = randomQuat(random);
+			final Quat n = new Quat(-q.x(), -q.y(), -q.z(), -q.w());
+			roundTrip(n);
+			check(Quantize.packQuat32(q) == Quantize.packQuat32(n), "packQuat32 differs for q and -q", q);
+			check(Quantize.packQuat48(q) == Quantize.packQuat48(n), "packQuat48 differs for q and -q", q);
+			// the restored largest component, at the index in the top two bits,
+			// is never negative
+			final int packed32 = Quantize.packQuat32(n);
+			Quantize.unpackQuat32(packed32, out);
+			check(component(out, packed32 >>> 30) >= 0f, "unpackQuat32 restored a negative largest component", q);
+			final long packed48 = Quantize.packQuat48(n);
+			Quantize.unpackQuat48(packed48, out);
+			check(component(out, (int) (packed48 >>> 45)) >= 0f, "unpackQuat48 restored a negative largest component",
+					q);
+		}
+	}
+
+	/** The bulk methods with offsets give the same bits as the single ones */
+	private static void bulk(Quat[] quats, Randomizer random) {
+		final int count = Math.min(quats.length, 10000), offset = 3, dstOffset = 5;
+		final Quat[] src = new Quat[count + offset];
+		final Quat[] dst = new Quat[count + offset];
+		for (int i = 0; i < src.length; i++) {
+			src[i] = i < offset ? randomQuat(random) : quats[i - offset];
+			dst[i] = new Quat();
+		}
+		final int[] packed32 = new int[count + dstOffset];
+		final short[] packed48 = new short[(count + dstOffset) * 3];
+		Quantize.packQuats32(src, offset, count, packed32, dstOffset);
+		Quantize.packQuats48(src, offset, count, packed48, dstOffset * 3);
+
+		final Quat single = new Quat();
+		Quantize.unpackQuats32(packed32, dstOffset, dst, offset, count);
+		for (int i = 0; i < count; i++) {
+			final Quat q = src[offset + i];
+			check(packed32[dstOffset + i] == Quantize.packQuat32(q), "packQuats32 differs from packQuat32", q);
+			check(same(dst[offset + i], Quantize.unpackQuat32(Quantize.packQuat32(q), single)),
+					"unpackQuats32 differs from unpackQuat32", q);
+		}
+		Quantize.unpackQuats48(packed48, dstOffset * 3, dst, offset, count);
+		for (int i = 0; i < count; i++) {
+			final Quat q = src[offset + i];
+			final int s = (dstOffset + i) * 3;
+			final long packed = (packed48[s] & 0xffffL) << 32 | (packed48[s + 1] & 0xffffL) << 16
+					| (packed48[s + 2] & 0xffffL);
+			check(packed == Quantize.packQuat48(q), "packQuats48 differs from packQuat48", q);
+			check(same(dst[offset + i], Quantize.unpackQuat48(Quantize.packQuat48(q), single)),
+					"unpackQuats48 differs from unpackQuat48", q);
+		}
+		for (int i = 0; i < offset; i++)
+			check(same(dst[i], new Quat()), "unpackQuats wrote before the offset", dst[i]);
+	}
+
+	private static void roundTrip(Quat q) {
+		final Quat out = new Quat();
+		final double angle32 = angle(q, Quantize.unpackQuat32(Quantize.packQuat32(q), out));
+		final double angle48 = angle(q, Quantize.unpackQuat48(Quantize.packQuat48(q), out));
+		max32 = Math.max(max32, angle32);
+		max48 = Math.max(max48, angle48);
+		check(angle32 <= Quantize.QUAT32_MAX_ANGLE, "32 bit error " + angle32 + " above QUAT32_MAX_ANGLE", q);
+		check(angle48 <= Quantize.QUAT48_MAX_ANGLE, "48 bit error " + angle48 + " above QUAT48_MAX_ANGLE", q);
+		check((Quantize.packQuat48(q) >>> 48) == 0, "packQuat48 uses more than 48 bits", q);
+	}
+
+	/**
+	 * @return the rotation in radians between two quaternions, 4 asin(d / 2)
+	 *         of their distance d once both are normalized in double
+	 *         precision and on the same side, which unlike 2 acos(dot) keeps
+	 *         its precision for small angles
+	 */
+	private static double angle(Quat a, Quat b) {
+		final double la = Math.sqrt((double) a.x() * a.x() + (double) a.y() * a.y() + (double) a.z() * a.z()
+				+ (double) a.w() * a.w());
+		final double lb = Math.sqrt((double) b.x() * b.x() + (double) b.y() * b.y() + (double) b.z() * b.z()
+				+ (double) b.w() * b.w());
+		final double dot = (double) a.x() * b.x() + (double) a.y() * b.y() + (double) a.z() * b.z()
+				+ (double) a.w() * b.w();
+		final double s = dot < 0 ? -1.0 / lb : 1.0 / lb, ia = 1.0 / la;
+		final double dx = a.x() * ia - b.x() * s, dy = a.y() * ia - b.y() * s;
+		final double dz = a.z() * ia - b.z() * s, dw = a.w() * ia - b.w() * s;
+		return 4 * Math.asin(Math.min(1.0, Math.sqrt(dx * dx + dy * dy + dz * dz + dw * dw) * 0.5));
+	}
+
+	/** @return a uniformly distributed unit quaternion */
+	private static Quat randomQuat(Randomizer random) {
+		final double x = random.nextGaussian(), y = random.nextGaussian();
+		final double z = random.nextGaussian(), w = random.nextGaussian();
+		final double l = 1.0 / Math.sqrt(x * x + y * y + z * z + w * w);
+		return new Quat((float) (x * l), (float) (y * l), (float) (z * l), (float) (w * l));
+	}
+
+	private static float component(Quat q, int index) {
+		return index == 0 ? q.x() : index == 1 ? q.y() : index == 2 ? q.z() : q.w();
+	}
+
+	private static boolean same(Quat a, Quat b) {
+		return Float.floatToRawIntBits(a.x()) == Float.floatToRawIntBits(b.x())
+				&& Float.floatToRawIntBits(a.y()) == Float.floatToRawIntBits(b.y())
+				&& Float.floatToRawIntBits(a.z()) == Float.floatToRawIntBits(b.z())
+				&& Float.floatToRawIntBits(a.w()) == Float.floatToRawIntBits(b.w());
+	}
+
+	private static void check(boolean passed, String message, Quat q) {
+		if (passed)
+			return;
+		if (failures++ < 20)
+			System.out.println(message + " for " + q);
+	}
+}
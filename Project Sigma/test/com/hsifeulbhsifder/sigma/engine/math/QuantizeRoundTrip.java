@@ -0,0 +1,333 @@
+package com.hsifeulbhsifder.sigma.engine.math;
+
+import java.util.Arrays;
+
+import com.hsifeulbhsifder.sigma.engine.utils.SigmaException;
+
+/**
+ * Checks the half float, normalized integer and 10-10-10-2 formats of
+ * {@link Quantize} against the error bounds they publish:
+ * {@link Quantize#HALF_EPSILON}, {@link Quantize#HALF_SUBNORMAL_ERROR},
+ * {@link Quantize#SNORM16_ERROR}, {@link Quantize#UNORM16_ERROR} and
+ * {@link Quantize#SNORM10_ERROR}. Every encoded value of each format must
+ * decode and encode back to itself, random values must round trip within the
+ * bound, the half float boundaries, subnormals, infinities and NaN must come
+ * out as IEEE 754 says, and the bulk methods must give exactly the results of
+ * the single ones.
+ * <p>
+ * Usage: java QuantizeRoundTrip [count] [seed]
+ *
+ * @author Zaeem
+ * @version 1.0
+ */
+public class QuantizeRoundTrip {
+
+	private static int failures;
+	private static double maxHalf, maxSubnormal, maxSnorm16, maxUnorm16, maxSnorm10;
+
+	public static void main(String[] args) {
+		final int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		final Randomizer random = args.length > 1 ? new Randomizer(Long.parseLong(args[1])) : new Randomizer(1);
+
+		halfCodes();
+		halfBoundaries();
+		halfRandom(random, count);
+		normalized(random, count);
+		normals(random, count);
+		bulk(random);
+
+		System.out.println("largest errors: half " + maxHalf + " of " + Quantize.HALF_EPSILON + " relative, "
+				+ maxSubnormal + " of " + Quantize.HALF_SUBNORMAL_ERROR + " below the normals; snorm16 " + maxSnorm16
+				+ " of " + Quantize.SNORM16_ERROR + "; unorm16 " + maxUnorm16 + " of " + Quantize.UNORM16_ERROR
+				+ "; 10-10-10-2 " + maxSnorm10 + " of " + Quantize.SNORM10_ERROR + "; " + failures + " failures");
+		if (failures != 0)
+			throw new SigmaException("quantization failed " + failures + " checks");
+	}
+
+	/** Every half float decodes to its exact value and encodes back to the same bits */
+	private static void halfCodes() {
+		for (int h = 0; h < 0x10000; h++) {
+			final float f = Quantize.fromHalf((short) h);
+			final int exponent = (h >>> 10) & 0x1f, mantissa = h & 0x3ff;
+			final double sign = (h & 0x8000) != 0 ? -1.0 : 1.0;
+			if (exponent == 0x1f && mantissa != 0) {
+				check(Float.isNaN(f), "half NaN " + Integer.toHexString(h) + " decoded to " + f, f);
+				check(Float.isNaN(Quantize.fromHalf(Quantize.toHalf(f))), "half NaN did not stay NaN", f);
+				continue;
+			}
+			final double expected = exponent == 0x1f ? sign * Double.POSITIVE_INFINITY : exponent == 0 ? sign
+					* mantissa * 0x1p-24 : sign * (1024 + mantissa) * Math.pow(2, exponent - 25);
+			check(f == expected && (f != 0f || (Float.floatToRawIntBits(f) < 0) == (sign < 0)), "half "
+					+ Integer.toHexString(h) + " decoded to " + f + " instead of " + expected, f);
+			check((Quantize.toHalf(f) & 0xffff) == h, "half " + Integer.toHexString(h) + " did not encode back", f);
+		}
+	}
+
+	private static void halfBoundaries() {
+		final float tiny = 0x1p-24f;
+		half(Quantize.HALF_MAX, Quantize.HALF_MAX);
+		half(-Quantize.HALF_MAX, -Quantize.HALF_MAX);
+		// 65520 is half way to the next exponent, which rounds to infinity
+		half(Math.nextDown(65520f), Quantize.HALF_MAX);
+		half(65520f, Float.POSITIVE_INFINITY);
+		half(-65520f, Float.NEGATIVE_INFINITY);
+		half(1e10f, Float.POSITIVE_INFINITY);
+		half(Float.MAX_VALUE, Float.POSITIVE_INFINITY);
+		half(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+		half(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+		half(Quantize.HALF_MIN_NORMAL, Quantize.HALF_MIN_NORMAL);
+		half(Math.nextDown(Quantize.HALF_MIN_NORMAL), Quantize.HALF_MIN_NORMAL);
+		half(Quantize.HALF_MIN_NORMAL - tiny, Quantize.HALF_MIN_NORMAL - tiny);
+		half(tiny, tiny);
+		// half the smallest subnormal is a tie and rounds to even, zero
+		half(tiny * 0.5f, 0f);
+		half(Math.nextUp(tiny * 0.5f), tiny);
+		half(tiny * 1.5f, tiny * 2f);
+		half(tiny * 2.5f, tiny * 2f);
+		half(Float.MIN_VALUE, 0f);
+		half(0f, 0f);
+		half(-0f, -0f);
+		// ties between normals round to even
+		half(1f + 0x1p-11f, 1f);
+		half(1f + 0x1p-11f * 3f, 1f + 0x1p-9f);
+		half(2048f + 1f, 2048f);
+		half(2048f + 3f, 2052f);
+		check(Float.isNaN(Quantize.fromHalf(Quantize.toHalf(Float.NaN))), "NaN did not stay NaN", Float.NaN);
+		check(Float.isNaN(Quantize.fromHalf(Quantize.toHalf(Float.intBitsToFloat(0xff800001)))),
+				"a NaN with a payload lost in the half did not stay NaN", Float.NaN);
+	}
+
+	private static void half(float value, float expected) {
+		final float f = Quantize.fromHalf(Quantize.toHalf(value));
+		check(Float.floatToRawIntBits(f) == Float.floatToRawIntBits(expected), value + " became " + f + " instead of "
+				+ expected, value);
+	}
+
+	/**
+	 * Random floats of all half float magnitudes round trip within the
+	 * bounds, and to the nearest half float
+	 */
+	private static void halfRandom(Randomizer random, int count) {
+		for (int i = 0; i < count; i++) {
+			// uniform in the exponent, from below the subnormals up to HALF_MAX
+			final float magnitude = (float) Math.pow(2, -26 + random.nextDouble() * 41.99);
+			final float value = random.nextBoolean() ? -magnitude : magnitude;
+			final short h = Quantize.toHalf(value);
+			final float f = Quantize.fromHalf(h);
+			final double error = Math.abs((double) f - value);
+			if (magnitude >= Quantize.HALF_MIN_NORMAL) {
+				maxHalf = Math.max(maxHalf, error / magnitude);
+				check(error <= Quantize.HALF_EPSILON * magnitude, "relative half error " + error / magnitude, value);
+			} else {
+				maxSubnormal = Math.max(maxSubnormal, error);
+				check(error <= Quantize.HALF_SUBNORMAL_ERROR, "subnormal half error " + error, value);
+			}
+			// no neighbour of the chosen half float is closer
+			for (int d = -1; d <= 1; d += 2) {
+				final int n = (h & 0x7fff) + d;
+				if (n < 0 || n >= 0x7c00)
+					continue;
+				final float neighbour = Quantize.fromHalf((short) ((h & 0x8000) | n));
+				check(Math.abs((double) neighbour - value) >= error, value + " did not round to the nearest half",
+						value);
+			}
+		}
+	}
+
+	/** snorm16 and unorm16: every code round trips, random values within the bounds, clamping and NaN */
+	private static void normalized(Randomizer random, int count) {
+		for (int s = -32767; s <= 32767; s++)
+			check(Quantize.toSnorm16(Quantize.fromSnorm16((short) s)) == s, "snorm16 " + s + " did not round trip",
+					s);
+		// -32768 is the second encoding of -1
+		check(Quantize.fromSnorm16((short) -32768) == -1f, "snorm16 -32768 is not -1", -1f);
+		for (int u = 0; u <= 65535; u++)
+			check((Quantize.toUnorm16(Quantize.fromUnorm16((short) u)) & 0xffff) == u, "unorm16 " + u
+					+ " did not round trip", u);
+		for (int i = 0; i < count; i++) {
+			final float value = random.nextFloat() * 2f - 1f;
+			final double snorm = Math.abs((double) Quantize.fromSnorm16(Quantize.toSnorm16(value)) - value);
+			maxSnorm16 = Math.max(maxSnorm16, snorm);
+			check(snorm <= Quantize.SNORM16_ERROR, "snorm16 error " + snorm, value);
+			final float positive = random.nextFloat();
+			final double unorm = Math.abs((double) Quantize.fromUnorm16(Quantize.toUnorm16(positive)) - positive);
+			maxUnorm16 = Math.max(maxUnorm16, unorm);
+			check(unorm <= Quantize.UNORM16_ERROR, "unorm16 error " + unorm, positive);
+		}
+		final float[] ends = { -1f, 1f, 0f, -0f, Math.nextUp(-1f), Math.nextDown(1f), Float.MIN_VALUE };
+		for (float value : ends) {
+			final double snorm = Math.abs((double) Quantize.fromSnorm16(Quantize.toSnorm16(value)) - value);
+			check(snorm <= Quantize.SNORM16_ERROR, "snorm16 error " + snorm, value);
+			if (value >= 0f) {
+				final double unorm = Math.abs((double) Quantize.fromUnorm16(Quantize.toUnorm16(value)) - value);
+				check(unorm <= Quantize.UNORM16_ERROR, "unorm16 error " + unorm, value);
+			}
+		}
+		check(Quantize.fromSnorm16(Quantize.toSnorm16(2f)) == 1f, "snorm16 did not clamp above 1", 2f);
+		check(Quantize.fromSnorm16(Quantize.toSnorm16(-2f)) == -1f, "snorm16 did not clamp below -1", -2f);
+		check(Quantize.fromSnorm16(Quantize.toSnorm16(Float.POSITIVE_INFINITY)) == 1f,
+				"snorm16 did not clamp infinity", Float.POSITIVE_INFINITY);
+		check(Quantize.fromUnorm16(Quantize.toUnorm16(2f)) == 1f, "unorm16 did not clamp above 1", 2f);
+		check(Quantize.fromUnorm16(Quantize.toUnorm16(-0.5f)) == 0f, "unorm16 did not clamp below 0", -0.5f);
+		check(Quantize.toSnorm16(Float.NaN) == 0, "snorm16 of NaN is not 0", Float.NaN);
+		check(Quantize.toUnorm16(Float.NaN) == 0, "unorm16 of NaN is not 0", Float.NaN);
+	}
+
+	/** 10-10-10-2: every code round trips, random normals within the bound, w kept apart from x, y, z */
+	private static void normals(Randomizer random, int count) {
+		final Vec3f out = new Vec3f();
+		for (int c = -511; c <= 511; c++) {
+			final float f = c / 511f;
+			final int packed = Quantize.packNormal(f, -f, f, 0);
+			Quantize.unpackNormal(packed, out);
+			check(Quantize.packNormal(out.x(), out.y(), out.z(), 0) == packed, "10 bit code " + c
+					+ " did not round trip", f);
+		}
+		final float[] unit = new float[3];
+		for (int i = 0; i < count; i++) {
+			final float x, y, z;
+			if ((i & 1) == 0) {
+				random.nextOnSphere(unit, 0, 3, 1);
+				x = unit[0];
+				y = unit[1];
+				z = unit[2];
+			} else {
+				x = random.nextFloat() * 2f - 1f;
+				y = random.nextFloat() * 2f - 1f;
+				z = random.nextFloat() * 2f - 1f;
+			}
+			final int w = (i & 3) - 2;
+			final int packed = Quantize.packNormal(x, y, z, w);
+			Quantize.unpackNormal(packed, out);
+			final double error = Math.max(Math.abs((double) out.x() - x), Math.max(Math.abs((double) out.y() - y),
+					Math.abs((double) out.z() - z)));
+			maxSnorm10 = Math.max(maxSnorm10, error);
+			check(error <= Quantize.SNORM10_ERROR, "10-10-10-2 error " + error, x);
+			check(Quantize.unpackW(packed) == w, "w " + w + " came back as " + Quantize.unpackW(packed), w);
+			check(Quantize.packNormal(x, y, z, 0) == (packed & 0x3fffffff), "w changed the x, y, z bits", w);
+		}
+		check(Quantize.unpackNormal(Quantize.packNormal(2f, -2f, 1f, 1), out).equals(new Vec3f(1f, -1f, 1f)),
+				"10-10-10-2 did not clamp", 2f);
+		// -512 is the second encoding of -1
+		check(Quantize.unpackNormal(0x200, out).x() == -1f, "10 bit -512 is not -1", -1f);
+	}
+
+	/** The bulk methods, with offsets and strides, give the same bits as the single ones */
+	private static void bulk(Randomizer random) {
+		final int count = 1000, offset = 3, dstOffset = 5, stride = 7;
+		final float[] floats = new float[count + offset];
+		final Vec3f[] vectors = new Vec3f[count + offset];
+		for (int i = 0; i < floats.length; i++) {
+			floats[i] = (float) Math.pow(2, -26 + random.nextDouble() * 43) * (random.nextBoolean() ? 1f : -1f);
+			vectors[i] = new Vec3f(random.nextFloat() * 2f - 1f, random.nextFloat() * 2f - 1f,
+					random.nextFloat() * 2f - 1f);
+		}
+		floats[offset] = Float.NaN;
+		floats[offset + 1] = Float.NEGATIVE_INFINITY;
+		floats[offset + 2] = -0f;
+
+		// half floats
+		final short[] halves = new short[count * 3 + dstOffset];
+		final float[] decoded = new float[count + dstOffset];
+		Quantize.toHalf(floats, offset, halves, dstOffset, count);
+		Quantize.fromHalf(halves, dstOffset, decoded, dstOffset, count);
+		for (int i = 0; i < count; i++) {
+			final short h = Quantize.toHalf(floats[offset + i]);
+			check(halves[dstOffset + i] == h, "toHalf(float[]) differs", floats[offset + i]);
+			check(sameBits(decoded[dstOffset + i], Quantize.fromHalf(h)), "fromHalf(short[]) differs",
+					floats[offset + i]);
+		}
+		final Vec3f[] back = new Vec3f[count + offset];
+		for (int i = 0; i < back.length; i++)
+			back[i] = new Vec3f();
+		Quantize.toHalf(vectors, offset, count, halves, dstOffset);
+		Quantize.fromHalf(halves, dstOffset, back, offset, count);
+		for (int i = 0; i < count; i++) {
+			final Vec3f v = vectors[offset + i];
+			final int h = dstOffset + i * 3;
+			check(halves[h] == Quantize.toHalf(v.x()) && halves[h + 1] == Quantize.toHalf(v.y())
+					&& halves[h + 2] == Quantize.toHalf(v.z()), "toHalf(Vec3f[]) differs", v.x());
+			check(same(back[offset + i], Quantize.fromHalf(halves[h]), Quantize.fromHalf(halves[h + 1]),
+					Quantize.fromHalf(halves[h + 2])), "fromHalf(Vec3f[]) differs", v.x());
+		}
+
+		// normalized integers
+		final short[] shorts = new short[count * 3 + dstOffset];
+		Quantize.toSnorm16(floats, offset, shorts, dstOffset, count);
+		Quantize.fromSnorm16(shorts, dstOffset, decoded, dstOffset, count);
+		for (int i = 0; i < count; i++) {
+			final short s = Quantize.toSnorm16(floats[offset + i]);
+			check(shorts[dstOffset + i] == s, "toSnorm16(float[]) differs", floats[offset + i]);
+			check(sameBits(decoded[dstOffset + i], Quantize.fromSnorm16(s)), "fromSnorm16(short[]) differs",
+					floats[offset + i]);
+		}
+		Quantize.toUnorm16(floats, offset, shorts, dstOffset, count);
+		Quantize.fromUnorm16(shorts, dstOffset, decoded, dstOffset, count);
+		for (int i = 0; i < count; i++) {
+			final short u = Quantize.toUnorm16(floats[offset + i]);
+			check(shorts[dstOffset + i] == u, "toUnorm16(float[]) differs", floats[offset + i]);
+			check(sameBits(decoded[dstOffset + i], Quantize.fromUnorm16(u)), "fromUnorm16(short[]) differs",
+					floats[offset + i]);
+		}
+		Quantize.toSnorm16(vectors, offset, count, shorts, dstOffset);
+		Quantize.fromSnorm16(shorts, dstOffset, back, offset, count);
+		for (int i = 0; i < count; i++) {
+			final Vec3f v = vectors[offset + i];
+			final int s = dstOffset + i * 3;
+			check(shorts[s] == Quantize.toSnorm16(v.x()) && shorts[s + 1] == Quantize.toSnorm16(v.y())
+					&& shorts[s + 2] == Quantize.toSnorm16(v.z()), "toSnorm16(Vec3f[]) differs", v.x());
+			check(same(back[offset + i], Quantize.fromSnorm16(shorts[s]), Quantize.fromSnorm16(shorts[s + 1]),
+					Quantize.fromSnorm16(shorts[s + 2])), "fromSnorm16(Vec3f[]) differs", v.x());
+		}
+
+		// 10-10-10-2, from vectors and from an interleaved float stream
+		final int[] packed = new int[count + dstOffset];
+		final Vec3f single = new Vec3f();
+		Quantize.packNormals(vectors, offset, count, packed, dstOffset);
+		Quantize.unpackNormals(packed, dstOffset, back, offset, count);
+		for (int i = 0; i < count; i++) {
+			final Vec3f v = vectors[offset + i];
+			check(packed[dstOffset + i] == Quantize.packNormal(v), "packNormals(Vec3f[]) differs", v.x());
+			Quantize.unpackNormal(packed[dstOffset + i], single);
+			check(same(back[offset + i], single.x(), single.y(), single.z()), "unpackNormals(Vec3f[]) differs",
+					v.x());
+		}
+		final float[] stream = new float[offset + count * stride];
+		for (int i = 0; i < count; i++) {
+			final Vec3f v = vectors[offset + i];
+			stream[offset + i * stride] = v.x();
+			stream[offset + i * stride + 1] = v.y();
+			stream[offset + i * stride + 2] = v.z();
+		}
+		Arrays.fill(packed, 0);
+		Quantize.packNormals(stream, offset, stride, packed, dstOffset, count);
+		final float[] unpacked = new float[offset + count * stride];
+		Arrays.fill(unpacked, 42f);
+		Quantize.unpackNormals(packed, dstOffset, unpacked, offset, stride, count);
+		for (int i = 0; i < count; i++) {
+			final Vec3f v = vectors[offset + i];
+			final int s = offset + i * stride;
+			check(packed[dstOffset + i] == Quantize.packNormal(v), "packNormals(float[]) differs", v.x());
+			Quantize.unpackNormal(packed[dstOffset + i], single);
+			check(sameBits(unpacked[s], single.x()) && sameBits(unpacked[s + 1], single.y())
+					&& sameBits(unpacked[s + 2], single.z()), "unpackNormals(float[]) differs", v.x());
+			for (int k = 3; k < stride; k++)
+				check(unpacked[s + k] == 42f, "unpackNormals(float[]) wrote between the normals", v.x());
+		}
+	}
+
+	private static boolean sameBits(float a, float b) {
+		return Float.floatToRawIntBits(a) == Float.floatToRawIntBits(b);
+	}
+
+	private static boolean same(Vec3f v, float x, float y, float z) {
+		return sameBits(v.x(), x) && sameBits(v.y(), y) && sameBits(v.z(), z);
+	}
+
+	private static void check(boolean passed, String message, float value) {
+		if (passed)
+			return;
+		if (failures++ < 20)
+			System.out.println(message + " (input " + value + ")");
+	}
+}